@@ -0,0 +1,21 @@
+package com.habittracker.achievement;
+
+/**
+ * Métriques par utilisateur sur lesquelles portent les règles d'achievement
+ */
+public enum AchievementMetric {
+    PROGRESS_COUNT(AchievementTrigger.PROGRESS),
+    LONGEST_STREAK(AchievementTrigger.PROGRESS),
+    ACTIVE_HABITS(AchievementTrigger.HABIT),
+    DISTINCT_CATEGORIES(AchievementTrigger.HABIT);
+
+    private final AchievementTrigger trigger;
+
+    AchievementMetric(AchievementTrigger trigger) {
+        this.trigger = trigger;
+    }
+
+    public AchievementTrigger getTrigger() {
+        return trigger;
+    }
+}
@@ -0,0 +1,32 @@
+package com.habittracker.achievement;
+
+import com.habittracker.entity.Achievement;
+
+import java.util.function.Predicate;
+
+/**
+ * Règle d'achievement déclarative : débloquée lorsque la métrique atteint le seuil
+ */
+public record AchievementRule(String name, String description, String icon,
+                              Achievement.AchievementType type, AchievementMetric metric, long threshold) {
+
+    /**
+     * Compile la règle en prédicat sur le vecteur de métriques
+     */
+    public Predicate<MetricsVector> compile() {
+        AchievementMetric target = metric;
+        long minimum = threshold;
+        return vector -> vector.get(target) >= minimum;
+    }
+
+    /**
+     * Avancement vers le seuil (0 à 1)
+     */
+    public double progress(MetricsVector vector) {
+        return threshold > 0 ? Math.min(1.0, (double) vector.get(metric) / threshold) : 1.0;
+    }
+
+    public Achievement toAchievement(Long userId) {
+        return new Achievement(userId, name, description, icon, type);
+    }
+}
@@ -0,0 +1,104 @@
+package com.habittracker.achievement;
+
+import com.habittracker.entity.Achievement.AchievementType;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.habittracker.achievement.AchievementMetric.*;
+
+/**
+ * Registre déclaratif des achievements
+ * Ajouter un badge revient à ajouter une ligne : aucune requête supplémentaire,
+ * toutes les règles sont évaluées sur le même vecteur de métriques
+ */
+@Component
+public class AchievementRuleRegistry {
+
+    private static final List<AchievementRule> RULES = List.of(
+            // Jalons
+            rule("Premier pas", "Première progression", "👟", AchievementType.MILESTONE, PROGRESS_COUNT, 1),
+            rule("Première dizaine", "10 progressions enregistrées", "🎯", AchievementType.MILESTONE, PROGRESS_COUNT, 10),
+            rule("Demi-siècle", "50 progressions enregistrées", "🏅", AchievementType.MILESTONE, PROGRESS_COUNT, 50),
+            rule("Centurion", "100 progressions enregistrées", "💯", AchievementType.MILESTONE, PROGRESS_COUNT, 100),
+            rule("Demi-millénaire", "500 progressions enregistrées", "🌟", AchievementType.MILESTONE, PROGRESS_COUNT, 500),
+            rule("Machine à Progresser", "1000 progressions enregistrées", "🤖", AchievementType.MILESTONE, PROGRESS_COUNT, 1000),
+
+            // Régularité
+            rule("Semaine parfaite", "7 jours consécutifs de progression", "🔥", AchievementType.CONSISTENCY, LONGEST_STREAK, 7),
+            rule("Mois de légende", "30 jours consécutifs", "🏅", AchievementType.CONSISTENCY, LONGEST_STREAK, 30),
+            rule("Trimestre de titan", "90 jours consécutifs", "👑", AchievementType.CONSISTENCY, LONGEST_STREAK, 90),
+
+            // Séries
+            rule("Série impressionnante", "15 jours consécutifs", "⚡", AchievementType.STREAK, LONGEST_STREAK, 15),
+            rule("Invincible", "50 jours de suite", "🛡️", AchievementType.STREAK, LONGEST_STREAK, 50),
+
+            // Dévouement et diversité
+            rule("Multi-tâches", "5 habitudes actives en même temps", "🎪", AchievementType.DEDICATION, ACTIVE_HABITS, 5),
+            rule("Polyvalent", "Habitudes dans 3 catégories différentes", "🌈", AchievementType.VARIETY, DISTINCT_CATEGORIES, 3)
+    );
+
+    private final List<CompiledRule> compiledRules;
+    private final Set<String> ruleNames;
+    private final Map<AchievementTrigger, List<CompiledRule>> rulesByTrigger;
+
+    public AchievementRuleRegistry() {
+        this.compiledRules = RULES.stream()
+                .map(rule -> new CompiledRule(rule, rule.compile()))
+                .toList();
+
+        Map<AchievementTrigger, List<CompiledRule>> byTrigger = new EnumMap<>(AchievementTrigger.class);
+        for (AchievementTrigger trigger : AchievementTrigger.values()) {
+            byTrigger.put(trigger, compiledRules.stream()
+                    .filter(compiled -> compiled.rule().metric().getTrigger() == trigger)
+                    .toList());
+        }
+        this.rulesByTrigger = byTrigger;
+        this.ruleNames = RULES.stream().map(AchievementRule::name).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Règle compilée : la déclaration et son prédicat
+     */
+    public record CompiledRule(AchievementRule rule, Predicate<MetricsVector> predicate) {
+
+        public boolean matches(MetricsVector vector) {
+            return predicate.test(vector);
+        }
+    }
+
+    /**
+     * Règles pouvant être affectées par les déclencheurs donnés
+     */
+    public List<CompiledRule> rulesFor(Set<AchievementTrigger> triggers) {
+        if (triggers.size() == AchievementTrigger.values().length) {
+            return compiledRules;
+        }
+
+        return triggers.stream()
+                .flatMap(trigger -> rulesByTrigger.get(trigger).stream())
+                .toList();
+    }
+
+    public List<AchievementRule> getRules() {
+        return RULES;
+    }
+
+    public Set<String> getRuleNames() {
+        return ruleNames;
+    }
+
+    /**
+     * Nombre total d'achievements pouvant être débloqués
+     */
+    public int size() {
+        return RULES.size();
+    }
+
+    private static AchievementRule rule(String name, String description, String icon,
+                                        AchievementType type, AchievementMetric metric, long threshold) {
+        return new AchievementRule(name, description, icon, type, metric, threshold);
+    }
+}
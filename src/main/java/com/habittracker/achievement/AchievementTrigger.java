@@ -0,0 +1,8 @@
+package com.habittracker.achievement;
+
+/**
+ * Événements métier pouvant faire évoluer une métrique d'achievement
+ */
+public enum AchievementTrigger {
+    PROGRESS, HABIT
+}
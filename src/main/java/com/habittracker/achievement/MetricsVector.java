@@ -0,0 +1,18 @@
+package com.habittracker.achievement;
+
+/**
+ * Vecteur des métriques d'un utilisateur, indexé par {@link AchievementMetric}
+ */
+public final class MetricsVector {
+
+    private final long[] values = new long[AchievementMetric.values().length];
+
+    public MetricsVector with(AchievementMetric metric, long value) {
+        values[metric.ordinal()] = value;
+        return this;
+    }
+
+    public long get(AchievementMetric metric) {
+        return values[metric.ordinal()];
+    }
+}
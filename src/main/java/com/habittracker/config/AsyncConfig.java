@@ -0,0 +1,62 @@
+package com.habittracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Active le traitement asynchrone des événements métier (évaluation des achievements,
+ * rafraîchissement des caches)
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${app.achievements.executor.pool-size:2}")
+    private int achievementPoolSize;
+
+    @Value("${app.achievements.executor.queue-capacity:500}")
+    private int achievementQueueCapacity;
+
+    @Value("${app.cache.refresh.executor.pool-size:2}")
+    private int cacheRefreshPoolSize;
+
+    @Value("${app.cache.refresh.executor.queue-capacity:1000}")
+    private int cacheRefreshQueueCapacity;
+
+    /**
+     * Pool borné dédié à l'évaluation des achievements
+     * En cas de saturation, la tâche s'exécute dans le thread appelant plutôt que d'être perdue
+     */
+    @Bean
+    public ThreadPoolTaskExecutor achievementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(achievementPoolSize);
+        executor.setMaxPoolSize(achievementPoolSize);
+        executor.setQueueCapacity(achievementQueueCapacity);
+        executor.setThreadNamePrefix("achievement-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Pool borné dédié au recalcul des caches en arrière-plan
+     * Un rafraîchissement est facultatif : en cas de saturation il est abandonné
+     * (la prochaine lecture recalculera), l'appelant n'est jamais ralenti
+     */
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cacheRefreshPoolSize);
+        executor.setMaxPoolSize(cacheRefreshPoolSize);
+        executor.setQueueCapacity(cacheRefreshQueueCapacity);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.habittracker.config;
+
+/**
+ * Construction de clés de cache structurées : préfixe du cache, identifiant,
+ * génération éventuelle puis chaque paramètre de la requête (nom=valeur)
+ * Exemple : habit:stats:12:g3:days=30:date=2026-01-15
+ */
+public final class CacheKey {
+
+    private static final char SEPARATOR = ':';
+
+    private final StringBuilder key;
+
+    private CacheKey(CacheSpec spec, Object id) {
+        this.key = new StringBuilder(spec.getKeyPrefix()).append(id);
+    }
+
+    /**
+     * Clé d'un cache pour un identifiant (utilisateur, habitude...)
+     */
+    public static CacheKey of(CacheSpec spec, Object id) {
+        return new CacheKey(spec, id);
+    }
+
+    /**
+     * Préfixe commun à toutes les clés d'un identifiant, pour l'invalidation par préfixe
+     */
+    public static String prefix(CacheSpec spec, Object id) {
+        return spec.getKeyPrefix() + id + SEPARATOR;
+    }
+
+    /**
+     * Génération des données : l'incrémenter rend toutes les variantes obsolètes
+     */
+    public CacheKey generation(long generation) {
+        key.append(SEPARATOR).append('g').append(generation);
+        return this;
+    }
+
+    /**
+     * Paramètre de la requête ayant une influence sur le résultat
+     */
+    public CacheKey param(String name, Object value) {
+        key.append(SEPARATOR).append(name).append('=').append(value != null ? value : "-");
+        return this;
+    }
+
+    public String build() {
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+}
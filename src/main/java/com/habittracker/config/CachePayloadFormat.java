@@ -0,0 +1,41 @@
+package com.habittracker.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Formats de sérialisation des valeurs stockées dans Redis
+ * L'identifiant est écrit dans l'en-tête de chaque valeur : il ne doit jamais changer
+ */
+public enum CachePayloadFormat {
+    JSON(1, JsonFactory::new),
+    SMILE(2, SmileFactory::new),
+    CBOR(3, CBORFactory::new);
+
+    private final byte id;
+    private final Supplier<JsonFactory> factory;
+
+    CachePayloadFormat(int id, Supplier<JsonFactory> factory) {
+        this.id = (byte) id;
+        this.factory = factory;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    public JsonFactory createFactory() {
+        return factory.get();
+    }
+
+    public static CachePayloadFormat fromId(byte id) {
+        return Arrays.stream(values())
+                .filter(format -> format.id == id)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Format de cache inconnu: " + id));
+    }
+}
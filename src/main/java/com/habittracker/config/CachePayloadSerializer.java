@@ -0,0 +1,144 @@
+package com.habittracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sérialiseur des valeurs de cache : format binaire configurable (Smile, CBOR ou JSON)
+ * et compression LZ4 au-delà d'un seuil
+ * <p>
+ * Chaque valeur commence par un en-tête [0x00, format, options] : la lecture ne dépend
+ * donc pas du format configuré, et les anciennes valeurs JSON brutes restent lisibles
+ */
+public class CachePayloadSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = 0x00;
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_SIZE = 3;
+
+    private final CachePayloadFormat format;
+    private final int compressionThreshold;
+    private final Map<CachePayloadFormat, ObjectMapper> mappers = new EnumMap<>(CachePayloadFormat.class);
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * @param compressionThreshold taille minimale (octets) à compresser, négative pour désactiver
+     */
+    public CachePayloadSerializer(CachePayloadFormat format, int compressionThreshold) {
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+
+        for (CachePayloadFormat candidate : CachePayloadFormat.values()) {
+            mappers.put(candidate, new ObjectMapper(candidate.createFactory()).findAndRegisterModules());
+        }
+
+        LZ4Factory lz4 = LZ4Factory.fastestInstance();
+        this.compressor = lz4.fastCompressor();
+        this.decompressor = lz4.fastDecompressor();
+    }
+
+    public CachePayloadFormat getFormat() {
+        return format;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionThreshold >= 0;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        try {
+            byte[] payload = mappers.get(format).writeValueAsBytes(value);
+
+            if (isCompressionEnabled() && payload.length >= compressionThreshold) {
+                byte[] compressed = compress(payload);
+                if (compressed.length < payload.length) {
+                    return withHeader(FLAG_LZ4, compressed);
+                }
+            }
+            return withHeader((byte) 0, payload);
+        } catch (IOException e) {
+            throw new SerializationException("Sérialisation " + format + " impossible", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        return deserialize(bytes, Object.class);
+    }
+
+    /**
+     * Désérialise une valeur vers le type demandé, quel que soit le format qui l'a écrite
+     */
+    public <T> T deserialize(byte[] bytes, Class<T> type) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            if (bytes[0] != MAGIC || bytes.length < HEADER_SIZE) {
+                // Valeur JSON brute écrite avant l'introduction de l'en-tête
+                return mappers.get(CachePayloadFormat.JSON).readValue(bytes, type);
+            }
+
+            CachePayloadFormat written = CachePayloadFormat.fromId(bytes[1]);
+            ByteBuffer body = ByteBuffer.wrap(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            byte[] payload = (bytes[2] & FLAG_LZ4) != 0 ? decompress(body) : toArray(body);
+
+            return mappers.get(written).readValue(payload, type);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Désérialisation de la valeur de cache impossible", e);
+        }
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private byte[] withHeader(byte flags, byte[] body) {
+        byte[] bytes = new byte[HEADER_SIZE + body.length];
+        bytes[0] = MAGIC;
+        bytes[1] = format.getId();
+        bytes[2] = flags;
+        System.arraycopy(body, 0, bytes, HEADER_SIZE, body.length);
+        return bytes;
+    }
+
+    /**
+     * Bloc LZ4 précédé de la taille d'origine (nécessaire à la décompression)
+     */
+    private byte[] compress(byte[] payload) {
+        byte[] block = new byte[compressor.maxCompressedLength(payload.length)];
+        int length = compressor.compress(payload, 0, payload.length, block, 0, block.length);
+
+        return ByteBuffer.allocate(Integer.BYTES + length)
+                .putInt(payload.length)
+                .put(block, 0, length)
+                .array();
+    }
+
+    private byte[] decompress(ByteBuffer body) {
+        int originalLength = body.getInt();
+        byte[] payload = new byte[originalLength];
+        decompressor.decompress(body.array(), body.position(), payload, 0, originalLength);
+        return payload;
+    }
+
+    private byte[] toArray(ByteBuffer body) {
+        byte[] payload = new byte[body.remaining()];
+        body.get(payload);
+        return payload;
+    }
+}
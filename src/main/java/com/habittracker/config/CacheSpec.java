@@ -0,0 +1,73 @@
+package com.habittracker.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Définition des caches applicatifs : nom, préfixe de clé, TTL et taille du cache local
+ * Partagée par le cache manager Redis (L2) et le cache local en mémoire (L1)
+ * Le TTL local vaut le TTL Redis, sauf pour les générations : la copie L1 d'un compteur
+ * resté 1 jour dans Redis ne doit survivre que quelques secondes à une invalidation manquée
+ */
+public enum CacheSpec {
+    USER_STATS("user-stats", "user:stats:", Duration.ofHours(1), 10_000),
+    HABIT_STATS("habit-stats", "habit:stats:", Duration.ofMinutes(30), 20_000),
+    CHART_DATA("chart-data", "chart:", Duration.ofMinutes(15), 20_000),
+    HABIT_COMPLETE_DATA("habit-complete-data", "habit:complete:", Duration.ofMinutes(30), 5_000),
+    RECENT_PROGRESS("recent-progress", "progress:recent:", Duration.ofMinutes(5), 10_000),
+    ACHIEVEMENTS("achievements", "achievements:", Duration.ofHours(2), 10_000),
+    USER_DASHBOARD("user-dashboard", "dashboard:", Duration.ofMinutes(10), 5_000),
+    HABIT_GENERATION("habit-generations", "gen:habit:", Duration.ofDays(1), Duration.ofSeconds(5), 50_000),
+    DEFAULT("default", "", Duration.ofMinutes(30), 5_000);
+
+    private final String cacheName;
+    private final String keyPrefix;
+    private final Duration ttl;
+    private final Duration localTtl;
+    private final long defaultMaxSize;
+
+    CacheSpec(String cacheName, String keyPrefix, Duration ttl, long defaultMaxSize) {
+        this(cacheName, keyPrefix, ttl, ttl, defaultMaxSize);
+    }
+
+    CacheSpec(String cacheName, String keyPrefix, Duration ttl, Duration localTtl, long defaultMaxSize) {
+        this.cacheName = cacheName;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+        this.localTtl = localTtl;
+        this.defaultMaxSize = defaultMaxSize;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * TTL par défaut du cache local (surchargeable par app.cache.l1.<nom>.ttl)
+     */
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public long getDefaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    /**
+     * Cache correspondant à une clé (d'après son préfixe)
+     */
+    public static CacheSpec forKey(String key) {
+        return Arrays.stream(values())
+                .filter(spec -> spec != DEFAULT && key.startsWith(spec.keyPrefix))
+                .findFirst()
+                .orElse(DEFAULT);
+    }
+}
@@ -0,0 +1,25 @@
+package com.habittracker.config;
+
+import com.habittracker.service.CacheWarmer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Endpoint actuator exposant l'avancement du préchauffage des caches (/actuator/cachewarmup)
+ */
+@Component
+@Endpoint(id = "cachewarmup")
+@RequiredArgsConstructor
+public class CacheWarmupEndpoint {
+
+    private final CacheWarmer cacheWarmer;
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return cacheWarmer.getProgress();
+    }
+}
@@ -15,9 +15,9 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -86,48 +86,74 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Sérialiseur des valeurs de cache (format et seuil de compression configurables)
+     */
+    @Bean
+    public CachePayloadSerializer cachePayloadSerializer(
+            @Value("${app.cache.serialization.format:SMILE}") CachePayloadFormat format,
+            @Value("${app.cache.serialization.compression-threshold:2048}") int compressionThreshold) {
+        log.info("📦 Sérialisation des caches: {} (compression LZ4 {})", format,
+                compressionThreshold >= 0 ? "à partir de " + compressionThreshold + " octets" : "désactivée");
+        return new CachePayloadSerializer(format, compressionThreshold);
+    }
+
+    /**
+     * Template Redis binaire utilisé par CacheService (valeurs déjà sérialisées)
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> cacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
     /**
      * Configuration du Cache Manager avec TTL personnalisés
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CachePayloadSerializer cachePayloadSerializer) {
         log.info("⚙️ Configuration du Cache Manager Redis");
 
         // Configuration par défaut
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30)) // TTL par défaut : 30 minutes
+                .entryTtl(CacheSpec.DEFAULT.getTtl()) // TTL par défaut : 30 minutes
                 .serializeKeysWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper())))
+                        .fromSerializer(cachePayloadSerializer))
                 .disableCachingNullValues();
 
         // Configurations spécifiques par cache
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
 
         // Cache statistiques utilisateur - 1 heure
-        cacheConfigurations.put("user-stats", defaultConfig
-                .entryTtl(Duration.ofHours(1))
+        cacheConfigurations.put(CacheSpec.USER_STATS.getCacheName(), defaultConfig
+                .entryTtl(CacheSpec.USER_STATS.getTtl())
                 .prefixCacheNameWith("habit:user:stats:"));
 
         // Cache statistiques habitudes - 30 minutes
-        cacheConfigurations.put("habit-stats", defaultConfig
-                .entryTtl(Duration.ofMinutes(30))
+        cacheConfigurations.put(CacheSpec.HABIT_STATS.getCacheName(), defaultConfig
+                .entryTtl(CacheSpec.HABIT_STATS.getTtl())
                 .prefixCacheNameWith("habit:stats:"));
 
         // Cache données graphiques - 15 minutes
-        cacheConfigurations.put("chart-data", defaultConfig
-                .entryTtl(Duration.ofMinutes(15))
+        cacheConfigurations.put(CacheSpec.CHART_DATA.getCacheName(), defaultConfig
+                .entryTtl(CacheSpec.CHART_DATA.getTtl())
                 .prefixCacheNameWith("habit:charts:"));
 
         // Cache progressions récentes - 5 minutes
-        cacheConfigurations.put("recent-progress", defaultConfig
-                .entryTtl(Duration.ofMinutes(5))
+        cacheConfigurations.put(CacheSpec.RECENT_PROGRESS.getCacheName(), defaultConfig
+                .entryTtl(CacheSpec.RECENT_PROGRESS.getTtl())
                 .prefixCacheNameWith("habit:progress:recent:"));
 
         // Cache achievements - 2 heures
-        cacheConfigurations.put("achievements", defaultConfig
-                .entryTtl(Duration.ofHours(2))
+        cacheConfigurations.put(CacheSpec.ACHIEVEMENTS.getCacheName(), defaultConfig
+                .entryTtl(CacheSpec.ACHIEVEMENTS.getTtl())
                 .prefixCacheNameWith("habit:achievements:"));
 
         RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
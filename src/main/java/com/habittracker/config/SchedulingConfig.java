@@ -0,0 +1,12 @@
+package com.habittracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (rafraîchissement des métriques d'administration)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
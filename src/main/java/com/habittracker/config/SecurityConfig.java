@@ -108,6 +108,7 @@ public class SecurityConfig {
                         // Admin
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/cachewarmup").hasRole("ADMIN")
 
                         // Fallback
                         .requestMatchers("/api/**").authenticated()
@@ -1,5 +1,8 @@
 package com.habittracker.controller;
 
+import com.habittracker.service.CacheMetricsService;
+import com.habittracker.service.CachePayloadBenchmarkService;
+import com.habittracker.service.CacheService;
 import com.habittracker.service.CachedServices;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +10,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Contrôleur d'administration du cache Redis
  */
@@ -17,7 +22,26 @@ import org.springframework.web.bind.annotation.*;
 @PreAuthorize("hasRole('ADMIN')")
 public class CacheAdminController {
 
+    // Borne du benchmark : chaque itération sérialise et relit les données complètes de l'habitude
+    private static final int MAX_BENCHMARK_ITERATIONS = 10_000;
+
     private final CachedServices cachedServices;
+    private final CachePayloadBenchmarkService cachePayloadBenchmarkService;
+    private final CacheMetricsService cacheMetricsService;
+    private final CacheService cacheService;
+
+    /**
+     * Statistiques par cache : succès/échecs L1 et L2, temps de calcul, invalidations,
+     * tailles des valeurs et occupation du cache local
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        Map<String, Map<String, Object>> stats = cacheMetricsService.getStats();
+        Map<String, Map<String, Object>> localStats = cacheService.getLocalCacheStats();
+
+        stats.forEach((cacheName, values) -> values.put("local", localStats.get(cacheName)));
+        return ResponseEntity.ok(stats);
+    }
 
     /**
      * Invalide tous les caches d'un utilisateur
@@ -40,4 +64,17 @@ public class CacheAdminController {
         cachedServices.invalidateHabitCaches(habitId, userId);
         return ResponseEntity.ok("Caches habitude " + habitId + " invalidés");
     }
+
+    /**
+     * Compare les formats de sérialisation sur les données complètes d'une habitude
+     */
+    @GetMapping("/serialization/benchmark")
+    public ResponseEntity<Map<String, Object>> benchmarkSerialization(
+            @RequestParam Long habitId,
+            @RequestParam(defaultValue = "90") int days,
+            @RequestParam(defaultValue = "1000") int iterations) {
+        int boundedIterations = Math.min(Math.max(1, iterations), MAX_BENCHMARK_ITERATIONS);
+        log.info("📦 Admin: Benchmark sérialisation (habitude {}, {} itérations)", habitId, boundedIterations);
+        return ResponseEntity.ok(cachePayloadBenchmarkService.benchmarkHabitData(habitId, days, boundedIterations));
+    }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.habittracker.controller;
 
-import com.habittracker.service.ChartService;
-import com.habittracker.service.StatisticsService;
+import com.habittracker.service.ChartStatisticsIntegrationService;
 import com.habittracker.service.UserSecurityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,8 +21,7 @@ import java.util.Map;
 @Slf4j
 public class ChartStatisticsController {
 
-    private final ChartService chartService;
-    private final StatisticsService statisticsService;
+    private final ChartStatisticsIntegrationService chartStatisticsIntegrationService;
     private final UserSecurityService userSecurityService;
 
     // ========== GRAPHIQUES HABITUDES (PUBLICS) ==========
@@ -37,7 +35,7 @@ public class ChartStatisticsController {
             @RequestParam(defaultValue = "30") int days) {
 
         log.debug("📊 Graphique ligne demandé pour habitude {} ({} jours)", habitId, days);
-        Map<String, Object> chartData = chartService.generateLineChartData(habitId, days);
+        Map<String, Object> chartData = chartStatisticsIntegrationService.getHabitChart(habitId, "line", days);
         return ResponseEntity.ok(chartData);
     }
 
@@ -50,7 +48,7 @@ public class ChartStatisticsController {
             @RequestParam(defaultValue = "30") int days) {
 
         log.debug("📊 Graphique barres demandé pour habitude {} ({} jours)", habitId, days);
-        Map<String, Object> chartData = chartService.generateBarChartData(habitId, days);
+        Map<String, Object> chartData = chartStatisticsIntegrationService.getHabitChart(habitId, "bar", days);
         return ResponseEntity.ok(chartData);
     }
 
@@ -60,7 +58,7 @@ public class ChartStatisticsController {
     @GetMapping("/habits/{habitId}/charts/weekly")
     public ResponseEntity<Map<String, Object>> getWeeklyChart(@PathVariable Long habitId) {
         log.debug("📊 Graphique hebdomadaire demandé pour habitude {}", habitId);
-        Map<String, Object> chartData = chartService.generateWeeklyProgressChart(habitId);
+        Map<String, Object> chartData = chartStatisticsIntegrationService.getHabitChart(habitId, "weekly", 7);
         return ResponseEntity.ok(chartData);
     }
 
@@ -73,7 +71,7 @@ public class ChartStatisticsController {
             @RequestParam(defaultValue = "90") int days) {
 
         log.debug("🔥 Heatmap demandée pour habitude {} ({} jours)", habitId, days);
-        Map<String, Object> heatmapData = chartService.generateHeatmapData(habitId, days);
+        Map<String, Object> heatmapData = chartStatisticsIntegrationService.getHabitChart(habitId, "heatmap", days);
         return ResponseEntity.ok(heatmapData);
     }
 
@@ -86,7 +84,7 @@ public class ChartStatisticsController {
             @RequestParam(defaultValue = "30") int days) {
 
         log.debug("📈 Statistiques demandées pour habitude {} ({} jours)", habitId, days);
-        Map<String, Object> stats = statisticsService.calculateHabitStatistics(habitId, days);
+        Map<String, Object> stats = chartStatisticsIntegrationService.getHabitStatistics(habitId, days);
         return ResponseEntity.ok(stats);
     }
 
@@ -101,13 +99,7 @@ public class ChartStatisticsController {
 
         log.debug("📊 Graphique {} demandé pour habitude {}", type, habitId);
 
-        Map<String, Object> chartData = switch (type.toLowerCase()) {
-            case "line" -> chartService.generateLineChartData(habitId, days);
-            case "bar" -> chartService.generateBarChartData(habitId, days);
-            case "weekly" -> chartService.generateWeeklyProgressChart(habitId);
-            case "heatmap" -> chartService.generateHeatmapData(habitId, days);
-            default -> throw new IllegalArgumentException("Type de graphique non supporté: " + type);
-        };
+        Map<String, Object> chartData = chartStatisticsIntegrationService.getHabitChart(habitId, type, days);
 
         return ResponseEntity.ok(chartData);
     }
@@ -129,7 +121,7 @@ public class ChartStatisticsController {
         log.info("🔐 Statistiques utilisateur {} demandées (authentifié: {})",
                 userId, auth.getName());
 
-        Map<String, Object> stats = statisticsService.calculateUserStatistics(userId, days);
+        Map<String, Object> stats = chartStatisticsIntegrationService.getUserStatistics(userId, days);
         return ResponseEntity.ok(stats);
     }
 
@@ -147,7 +139,7 @@ public class ChartStatisticsController {
         log.info("🔐 Tendances utilisateur {} demandées (authentifié: {})",
                 userId, auth.getName());
 
-        Map<String, Object> trends = statisticsService.calculateMonthlyTrends(userId);
+        Map<String, Object> trends = chartStatisticsIntegrationService.getMonthlyTrends(userId);
         return ResponseEntity.ok(trends);
     }
 
@@ -165,7 +157,7 @@ public class ChartStatisticsController {
         log.info("🔐 Comparaison habitudes utilisateur {} demandée (authentifié: {})",
                 userId, auth.getName());
 
-        Map<String, Object> comparison = statisticsService.compareHabits(userId);
+        Map<String, Object> comparison = chartStatisticsIntegrationService.compareHabits(userId);
         return ResponseEntity.ok(comparison);
     }
 
@@ -185,9 +177,9 @@ public class ChartStatisticsController {
                 userId, auth.getName());
 
         Map<String, Object> dashboard = Map.of(
-                "statistics", statisticsService.calculateUserStatistics(userId, days),
-                "trends", statisticsService.calculateMonthlyTrends(userId),
-                "comparison", statisticsService.compareHabits(userId)
+                "statistics", chartStatisticsIntegrationService.getUserStatistics(userId, days),
+                "trends", chartStatisticsIntegrationService.getMonthlyTrends(userId),
+                "comparison", chartStatisticsIntegrationService.compareHabits(userId)
         );
 
         log.info("📊 Dashboard généré pour utilisateur {} (auth: {})", userId, auth.getName());
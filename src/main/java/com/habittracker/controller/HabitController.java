@@ -4,6 +4,7 @@ import com.habittracker.dto.habit.HabitCreateRequest;
 import com.habittracker.dto.habit.HabitResponse;
 import com.habittracker.dto.habit.HabitUpdateRequest;
 import com.habittracker.entity.Habit;
+import com.habittracker.service.CachedServices;
 import com.habittracker.service.HabitSecurityService;
 import com.habittracker.service.HabitService;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ public class HabitController {
 
     private final HabitService habitService;
     private final HabitSecurityService habitSecurityService;
+    private final CachedServices cachedServices;
 
     @GetMapping
     public ResponseEntity<PagedModel<EntityModel<HabitResponse>>> getAllHabits(
@@ -86,7 +88,7 @@ public class HabitController {
 
         log.info("Création d'une habitude pour l'utilisateur: {}", currentUserId);
 
-        HabitResponse createdHabit = habitService.createHabit(currentUserId, request);
+        HabitResponse createdHabit = cachedServices.createHabit(currentUserId, request);
         EntityModel<HabitResponse> habitModel = buildHabitModel(createdHabit, authentication);
 
         // URI de la ressource créée
@@ -122,7 +124,7 @@ public class HabitController {
 
         log.info("Mise à jour de l'habitude {} pour l'utilisateur: {}", id, currentUserId);
 
-        HabitResponse updatedHabit = habitService.updateHabit(id, currentUserId, request);
+        HabitResponse updatedHabit = cachedServices.updateHabit(id, currentUserId, request);
         EntityModel<HabitResponse> habitModel = buildHabitModel(updatedHabit, authentication);
 
         return ResponseEntity.ok(habitModel);
@@ -137,7 +139,7 @@ public class HabitController {
 
         log.info("Suppression de l'habitude {} pour l'utilisateur: {}", id, currentUserId);
 
-        habitService.deleteHabit(id, currentUserId);
+        cachedServices.deleteHabit(id, currentUserId);
 
         return ResponseEntity.noContent().build();
     }
@@ -151,7 +153,7 @@ public class HabitController {
 
         log.info("Changement de statut de l'habitude {} pour l'utilisateur: {}", id, currentUserId);
 
-        HabitResponse habit = habitService.toggleHabitStatus(id, currentUserId);
+        HabitResponse habit = cachedServices.toggleHabitStatus(id, currentUserId);
         EntityModel<HabitResponse> habitModel = buildHabitModel(habit, authentication);
 
         return ResponseEntity.ok(habitModel);
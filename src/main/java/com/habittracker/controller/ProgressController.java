@@ -1,9 +1,15 @@
 package com.habittracker.controller;
 
+import com.habittracker.dto.progress.ProgressBatchRequest;
+import com.habittracker.dto.progress.ProgressBatchResponse;
 import com.habittracker.dto.progress.ProgressCreateRequest;
+import com.habittracker.dto.progress.ProgressIncrementRequest;
+import com.habittracker.dto.progress.ProgressIncrementResponse;
 import com.habittracker.dto.progress.ProgressResponse;
 import com.habittracker.dto.progress.ProgressStatsResponse;
 import com.habittracker.dto.progress.ProgressUpdateRequest;
+import com.habittracker.service.CachedServices;
+import com.habittracker.service.ProgressIncrementService;
 import com.habittracker.service.ProgressService;
 import com.habittracker.service.UserSecurityService;
 import jakarta.validation.Valid;
@@ -19,6 +25,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -33,12 +40,14 @@ public class ProgressController {
 
     private final ProgressService progressService;
     private final UserSecurityService userSecurityService;
+    private final CachedServices cachedServices;
+    private final ProgressIncrementService progressIncrementService;
 
     // ===== PROGRESSION INDIVIDUELLE =====
 
     @GetMapping("/progress/{id}")
     public ResponseEntity<EntityModel<ProgressResponse>> getProgress(@PathVariable Long id, Authentication auth) {
-        ProgressResponse progress = progressService.findById(id);
+        ProgressResponse progress = progressIncrementService.withPending(progressService.findById(id));
         userSecurityService.validateUserAccess(progress.getUserId(), auth);
 
         EntityModel<ProgressResponse> model = EntityModel.of(progress)
@@ -53,7 +62,7 @@ public class ProgressController {
     public ResponseEntity<EntityModel<ProgressResponse>> updateProgress(
             @PathVariable Long id, @Valid @RequestBody ProgressUpdateRequest request, Authentication auth) {
 
-        ProgressResponse progress = progressService.updateProgress(id, request, auth);
+        ProgressResponse progress = cachedServices.updateProgress(id, request, auth);
         EntityModel<ProgressResponse> model = EntityModel.of(progress)
                 .add(linkTo(methodOn(ProgressController.class).getProgress(id, auth)).withSelfRel());
 
@@ -62,7 +71,7 @@ public class ProgressController {
 
     @DeleteMapping("/progress/{id}")
     public ResponseEntity<Void> deleteProgress(@PathVariable Long id, Authentication auth) {
-        progressService.deleteProgress(id, auth);
+        cachedServices.deleteProgress(id, auth);
         return ResponseEntity.noContent().build();
     }
 
@@ -72,7 +81,8 @@ public class ProgressController {
     public ResponseEntity<PagedModel<EntityModel<ProgressResponse>>> getHabitProgress(
             @PathVariable Long habitId, @PageableDefault(size = 30) Pageable pageable, Authentication auth) {
 
-        Page<ProgressResponse> progressPage = progressService.findHabitProgress(habitId, pageable);
+        Page<ProgressResponse> progressPage = progressIncrementService.withPending(
+                progressService.findHabitProgress(habitId, pageable));
 
         List<EntityModel<ProgressResponse>> models = progressPage.getContent().stream()
                 .map(p -> EntityModel.of(p)
@@ -91,18 +101,39 @@ public class ProgressController {
     public ResponseEntity<EntityModel<ProgressResponse>> createProgress(
             @PathVariable Long habitId, @Valid @RequestBody ProgressCreateRequest request, Authentication auth) {
 
-        ProgressResponse progress = progressService.createProgress(habitId, request, auth);
+        ProgressResponse progress = cachedServices.createProgress(habitId, request, auth);
         EntityModel<ProgressResponse> model = EntityModel.of(progress)
                 .add(linkTo(methodOn(ProgressController.class).getProgress(progress.getId(), auth)).withSelfRel());
 
         return ResponseEntity.status(HttpStatus.CREATED).body(model);
     }
 
+    /**
+     * Import groupé (plusieurs habitudes, jusqu'à plusieurs milliers d'entrées) avec un statut par entrée
+     */
+    @PostMapping("/habits/progress:batch")
+    public ResponseEntity<ProgressBatchResponse> createProgressBatch(
+            @Valid @RequestBody ProgressBatchRequest request, Authentication auth) {
+
+        return ResponseEntity.ok(cachedServices.createProgressBatch(request, auth));
+    }
+
+    /**
+     * Incrément d'un compteur (verres d'eau, pas...) : accepté immédiatement, écrit en base par lots
+     */
+    @PostMapping("/habits/{habitId}/progress/increments")
+    public ResponseEntity<ProgressIncrementResponse> incrementProgress(
+            @PathVariable Long habitId, @Valid @RequestBody ProgressIncrementRequest request, Authentication auth) {
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(progressIncrementService.increment(habitId, request, auth));
+    }
+
     @GetMapping("/habits/{habitId}/progress/stats")
     public ResponseEntity<EntityModel<ProgressStatsResponse>> getHabitStats(
             @PathVariable Long habitId, @RequestParam(defaultValue = "30") int days, Authentication auth) {
 
-        ProgressStatsResponse stats = progressService.getHabitStatistics(habitId, days);
+        ProgressStatsResponse stats = cachedServices.getHabitStatistics(habitId, days);
         EntityModel<ProgressStatsResponse> model = EntityModel.of(stats)
                 .add(linkTo(methodOn(ProgressController.class).getHabitStats(habitId, days, auth)).withSelfRel())
                 .add(linkTo(methodOn(ProgressController.class).getHabitChartData(habitId, days, "line", auth)).withRel("charts"));
@@ -117,7 +148,7 @@ public class ProgressController {
             @RequestParam(defaultValue = "line") String chartType,
             Authentication auth) {
 
-        Map<String, Object> chartData = progressService.getChartData(habitId, days, chartType);
+        Map<String, Object> chartData = cachedServices.getChartData(habitId, days, chartType);
         return ResponseEntity.ok(chartData);
     }
 
@@ -128,7 +159,8 @@ public class ProgressController {
             @PathVariable Long userId, @PageableDefault(size = 20) Pageable pageable, Authentication auth) {
 
         userSecurityService.validateUserAccess(userId, auth);
-        Page<ProgressResponse> progressPage = progressService.findUserProgress(userId, pageable);
+        Page<ProgressResponse> progressPage = progressIncrementService.withPending(
+                progressService.findUserProgress(userId, pageable));
 
         List<EntityModel<ProgressResponse>> models = progressPage.getContent().stream()
                 .map(p -> EntityModel.of(p)
@@ -148,10 +180,12 @@ public class ProgressController {
             @PathVariable Long userId, Authentication auth) {
 
         userSecurityService.validateUserAccess(userId, auth);
-        List<ProgressResponse> todayProgress = progressService.findTodayProgress(userId);
+        List<ProgressResponse> todayProgress = progressIncrementService.withPending(
+                userId, LocalDate.now(), progressService.findTodayProgress(userId));
 
+        // Journées encore uniquement en incréments : pas d'identifiant avant le prochain vidage
         List<EntityModel<ProgressResponse>> models = todayProgress.stream()
-                .map(p -> EntityModel.of(p)
+                .map(p -> p.getId() == null ? EntityModel.of(p) : EntityModel.of(p)
                         .add(linkTo(methodOn(ProgressController.class).getProgress(p.getId(), auth)).withSelfRel()))
                 .toList();
 
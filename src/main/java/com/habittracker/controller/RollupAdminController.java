@@ -0,0 +1,32 @@
+package com.habittracker.controller;
+
+import com.habittracker.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Contrôleur d'administration des rollups de progression
+ */
+@RestController
+@RequestMapping("/api/admin/rollups")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class RollupAdminController {
+
+    private final RollupService rollupService;
+
+    /**
+     * Reconstruit entièrement les rollups depuis les progressions
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        log.info("📦 Admin: Reconstruction des rollups");
+        return ResponseEntity.ok(rollupService.rebuildAll());
+    }
+}
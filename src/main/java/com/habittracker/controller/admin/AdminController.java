@@ -1,11 +1,7 @@
 package com.habittracker.controller.admin;
 
-import com.habittracker.entity.Habit;
-import com.habittracker.repository.AchievementRepository;
+import com.habittracker.service.AdminMetricsService;
 import com.habittracker.service.StatisticsService;
-import com.habittracker.repository.UserRepository;
-import com.habittracker.repository.HabitRepository;
-import com.habittracker.repository.ProgressRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,9 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,10 +26,6 @@ import java.util.Map;
 public class AdminController {
 
     private final StatisticsService statisticsService;
-    private final UserRepository userRepository;
-    private final HabitRepository habitRepository;
-    private final ProgressRepository progressRepository;
-    private final AchievementRepository achievementRepository;
 
 
 
@@ -45,6 +35,8 @@ public class AdminController {
      */
     @GetMapping("/statistics")
     public String statistics(@RequestParam(defaultValue = "30") int days, Model model) {
+        // Période ramenée à l'historique disponible dans l'instantané des métriques
+        days = Math.max(1, Math.min(days, AdminMetricsService.ACTIVITY_WINDOW_DAYS));
         log.info("📊 Accès aux statistiques détaillées - {} jours", days);
 
         try {
@@ -75,118 +67,39 @@ public class AdminController {
 
     // === MÉTHODES PRIVÉES POUR CONSTRUIRE LES DONNÉES ===
 
-
-
     /**
      * Statistiques récentes (7 derniers jours)
      */
     private Map<String, Object> buildRecentStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-
-        // Nouveaux utilisateurs cette semaine
-        long newUsers = userRepository.findByCreatedAtAfter(weekAgo,
-                org.springframework.data.domain.PageRequest.of(0, 1000)).getTotalElements();
-
-        // Progressions récentes
-        long recentProgress = progressRepository.countByDateAfter(weekAgo.toLocalDate());
-
-        stats.put("newUsersThisWeek", newUsers);
-        stats.put("progressThisWeek", recentProgress);
-
-        // Croissance hebdomadaire simple
-        long totalUsers = userRepository.count();
-        double weeklyGrowth = totalUsers > 0 ? ((double) newUsers / totalUsers) * 100 : 0;
-        stats.put("weeklyGrowth", Math.round(weeklyGrowth * 100.0) / 100.0);
-
-        return stats;
+        return statisticsService.getRecentStatistics();
     }
 
     /**
      * Statistiques des habitudes
      */
     private Map<String, Object> buildHabitStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
-        long totalHabits = habitRepository.count();
-        long activeHabits = habitRepository.countByIsActive(true);
-
-        stats.put("totalHabits", totalHabits);
-        stats.put("activeHabits", activeHabits);
-        stats.put("inactiveHabits", totalHabits - activeHabits);
-
-        return stats;
+        return statisticsService.getHabitStatistics();
     }
 
     /**
      * Habitudes populaires basées sur les données réelles
      */
     private Map<String, String> buildPopularHabits() {
-        Map<String, String> popular = new HashMap<>();
-
-        // Catégorie la plus représentée
-        String mostPopularCategory = findMostPopularCategory();
-        popular.put("mostCreated", mostPopularCategory != null ? mostPopularCategory : "Aucune");
-
-        // Habitude avec le plus de progressions
-        String mostProgressed = findMostProgressedHabit();
-        popular.put("mostProgressed", mostProgressed != null ? mostProgressed : "Aucune");
-
-        // Stats générales
-        popular.put("bestCompletion", "Données en cours d'analyse");
-
-        return popular;
+        return statisticsService.getPopularHabits();
     }
 
     /**
      * Statistiques détaillées sur une période donnée
      */
     private Map<String, Object> buildDetailedStatistics(int days) {
-        Map<String, Object> stats = new HashMap<>();
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-
-        // Activité moyenne par jour
-        long progressInPeriod = progressRepository.countByDateAfter(startDate.toLocalDate());
-        double avgDailyProgress = days > 0 ? (double) progressInPeriod / days : 0;
-        stats.put("avgDailyProgress", Math.round(avgDailyProgress * 100.0) / 100.0);
-
-        // Taux de rétention approximatif
-        double retentionRate = calculateRetentionRate();
-        stats.put("retentionRate", retentionRate);
-
-        // Temps de session (valeur par défaut)
-        stats.put("avgSessionTime", "Non calculé");
-
-        // Utilisateurs actifs quotidiens (approximation)
-        long dailyActiveUsers = Math.round(userRepository.countByIsActive(true) * 0.6);
-        stats.put("dailyActiveUsers", dailyActiveUsers);
-
-        return stats;
+        return statisticsService.getDetailedStatistics(days);
     }
 
     /**
      * Tendances basées sur les données réelles
      */
     private Map<String, String> buildTrends() {
-        Map<String, String> trends = new HashMap<>();
-
-        // Analyse simple des tendances
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
-
-        // Tendance utilisateurs (basée sur le ratio actifs/total)
-        double activeRatio = totalUsers > 0 ? (double) activeUsers / totalUsers : 0;
-        trends.put("userGrowthTrend", activeRatio > 0.7 ? "positive" : activeRatio > 0.5 ? "stable" : "negative");
-
-        // Tendance activité (basée sur le nombre de progressions récentes)
-        long recentProgress = progressRepository.countByDateAfter(LocalDateTime.now().minusDays(7).toLocalDate());
-        trends.put("activityTrend", recentProgress > 50 ? "positive" : recentProgress > 20 ? "stable" : "negative");
-
-        // Tendance engagement (basée sur le nombre d'habitudes actives)
-        long activeHabits = habitRepository.countByIsActive(true);
-        trends.put("engagementTrend", activeHabits > totalUsers ? "positive" : "stable");
-
-        return trends;
+        return statisticsService.getTrends();
     }
 
     /**
@@ -194,109 +107,10 @@ public class AdminController {
      */
     private Map<String, Object> buildAdvancedCharts() {
         Map<String, Object> charts = new HashMap<>();
-        charts.put("engagementFunnel", buildEngagementFunnel());
+        charts.put("engagementFunnel", statisticsService.getEngagementFunnel());
         return charts;
     }
 
-    // === MÉTHODES UTILITAIRES ===
-
-    private double calculateRetentionRate() {
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
-        return totalUsers > 0 ? Math.round(((double) activeUsers / totalUsers) * 100 * 100.0) / 100.0 : 0;
-    }
-
-    private String findMostPopularCategory() {
-        return habitRepository.findAll().stream()
-                .filter(habit -> habit.getIsActive())
-                .collect(java.util.stream.Collectors.groupingBy(
-                        habit -> habit.getCategory().name(),
-                        java.util.stream.Collectors.counting()
-                ))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-    }
-
-    private String findMostProgressedHabit() {
-        // Approximation simple - retourne le titre de la première habitude trouvée
-        return habitRepository.findFirstByIsActiveTrue()
-                .map(habit -> habit.getTitle())
-                .orElse(null);
-    }
-
-    private Map<String, Object> buildUserGrowthData() {
-        Map<String, Object> userGrowth = new HashMap<>();
-
-        // Données simplifiées pour le graphique
-        userGrowth.put("labels", new String[]{"Jan", "Fév", "Mar", "Avr", "Mai", "Juin"});
-
-        // Calcul approximatif basé sur les données actuelles
-        long currentUsers = userRepository.count();
-        int[] monthlyData = calculateMonthlyGrowth(currentUsers);
-        userGrowth.put("data", monthlyData);
-
-        return userGrowth;
-    }
-
-    private Map<String, Object> buildWeeklyActivityData() {
-        Map<String, Object> weeklyActivity = new HashMap<>();
-
-        weeklyActivity.put("labels", new String[]{"Lun", "Mar", "Mer", "Jeu", "Ven", "Sam", "Dim"});
-
-        // Données basées sur l'activité réelle
-        long totalProgress = progressRepository.count();
-        int[] weeklyData = calculateWeeklyActivity(totalProgress);
-        weeklyActivity.put("data", weeklyData);
-
-        return weeklyActivity;
-    }
-
-    private Map<String, Object> buildEngagementFunnel() {
-        Map<String, Object> funnel = new HashMap<>();
-
-        long totalUsers = userRepository.count();
-        long usersWithHabits = habitRepository.countDistinctByUserId();
-        long activeUsers = userRepository.countByIsActive(true);
-
-        if (totalUsers > 0) {
-            funnel.put("registration", 100);
-            funnel.put("firstHabit", Math.round(((double) usersWithHabits / totalUsers) * 100));
-            funnel.put("weeklyActive", Math.round(((double) activeUsers / totalUsers) * 80)); // Approximation
-            funnel.put("monthlyActive", Math.round(((double) activeUsers / totalUsers) * 60)); // Approximation
-        } else {
-            funnel.put("registration", 0);
-            funnel.put("firstHabit", 0);
-            funnel.put("weeklyActive", 0);
-            funnel.put("monthlyActive", 0);
-        }
-
-        return funnel;
-    }
-
-    private int[] calculateMonthlyGrowth(long currentUsers) {
-        // Simulation d'une croissance progressive sur 6 mois
-        int[] growth = new int[6];
-        for (int i = 0; i < 6; i++) {
-            growth[i] = (int) Math.max(1, currentUsers * (i + 1) / 6);
-        }
-        return growth;
-    }
-
-    private int[] calculateWeeklyActivity(long totalProgress) {
-        // Répartition approximative sur 7 jours
-        int[] weekly = new int[7];
-        int avgDaily = (int) Math.max(1, totalProgress / 30); // Moyenne sur 30 jours
-
-        for (int i = 0; i < 7; i++) {
-            // Simulation : plus d'activité en semaine
-            double factor = (i < 5) ? 1.2 : 0.8;
-            weekly[i] = (int) Math.round(avgDaily * factor);
-        }
-        return weekly;
-    }
-
     /**
      * Gestion des habitudes - VERSION CORRIGÉE
      */
@@ -355,19 +169,7 @@ public class AdminController {
      */
     private Map<String, Long> buildHabitsByCategory() {
         try {
-            List<Habit> activeHabits = habitRepository.findAll().stream()
-                    .filter(habit -> habit.getIsActive() != null && habit.getIsActive())
-                    .collect(java.util.stream.Collectors.toList());
-
-            if (activeHabits.isEmpty()) {
-                return new HashMap<>(); // Retourner une map vide plutôt que null
-            }
-
-            return activeHabits.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            habit -> habit.getCategory().name(),
-                            java.util.stream.Collectors.counting()
-                    ));
+            return statisticsService.getHabitsByCategory();
         } catch (Exception e) {
             log.error("❌ Erreur lors du calcul de la répartition par catégorie", e);
             return new HashMap<>(); // Retourner une map vide en cas d'erreur
@@ -434,43 +236,8 @@ public class AdminController {
      * ✅ CORRECTION: Statistiques globales avec gestion d'erreurs robuste
      */
     private Map<String, Object> buildGlobalStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
         try {
-            long totalUsers = userRepository.count();
-            long activeUsers = userRepository.countByIsActive(true);
-            long totalHabits = habitRepository.count();
-            long totalProgress = progressRepository.count();
-            // Si vous avez AchievementRepository, sinon laisser à 0
-            long totalAchievements = 0;
-            try {
-                totalAchievements = achievementRepository.count();
-            } catch (Exception e) {
-                log.debug("AchievementRepository non disponible, achievements = 0");
-            }
-
-            stats.put("totalUsers", totalUsers);
-            stats.put("activeUsers", activeUsers);
-            stats.put("totalHabits", totalHabits);
-            stats.put("totalProgress", totalProgress);
-            stats.put("totalAchievements", totalAchievements);
-
-            // Calculs dérivés avec vérifications
-            double activeUserRate = totalUsers > 0 ? ((double) activeUsers / totalUsers) * 100 : 0;
-            stats.put("activeUserRate", Math.round(activeUserRate * 100.0) / 100.0);
-
-            // Éviter division par zéro
-            long nonAdminUsers = 0;
-            try {
-                nonAdminUsers = userRepository.countByRole(com.habittracker.entity.User.Role.USER);
-            } catch (Exception e) {
-                log.debug("Erreur lors du comptage des utilisateurs non-admin: {}", e.getMessage());
-                nonAdminUsers = totalUsers; // Fallback
-            }
-
-            double avgHabitsPerUser = nonAdminUsers > 0 ? (double) totalHabits / nonAdminUsers : 0;
-            stats.put("avgHabitsPerUser", Math.round(avgHabitsPerUser * 100.0) / 100.0);
-
+            Map<String, Object> stats = statisticsService.getGlobalStatistics();
             log.debug("📊 Statistiques globales: {}", stats);
             return stats;
 
@@ -485,26 +252,7 @@ public class AdminController {
      */
     private Map<String, Object> buildChartData() {
         try {
-            Map<String, Object> chartData = new HashMap<>();
-
-            // Vérifier qu'il y a des données à afficher
-            long currentUsers = userRepository.count();
-            if (currentUsers == 0) {
-                log.debug("📊 Aucun utilisateur pour les graphiques");
-                return new HashMap<>(); // Retourner map vide
-            }
-
-            // Graphique simple d'évolution (6 derniers mois)
-            Map<String, Object> userGrowth = buildUserGrowthData();
-            if (userGrowth != null && !userGrowth.isEmpty()) {
-                chartData.put("userGrowth", userGrowth);
-            }
-
-            Map<String, Object> weeklyActivity = buildWeeklyActivityData();
-            if (weeklyActivity != null && !weeklyActivity.isEmpty()) {
-                chartData.put("weeklyActivity", weeklyActivity);
-            }
-
+            Map<String, Object> chartData = statisticsService.getChartData();
             log.debug("📊 Données de graphiques construites: {} éléments", chartData.size());
             return chartData;
 
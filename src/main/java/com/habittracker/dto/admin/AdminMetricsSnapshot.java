@@ -0,0 +1,74 @@
+package com.habittracker.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instantané pré-calculé des métriques d'administration
+ * Les séries journalières sont indexées par date ISO (yyyy-MM-dd)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminMetricsSnapshot {
+
+    private LocalDateTime computedAt;
+
+    // Compteurs globaux
+    private long totalUsers;
+    private long activeUsers;
+    private long nonAdminUsers;
+    private long usersWithHabits;
+    private long totalHabits;
+    private long activeHabits;
+    private long totalProgress;
+    private long totalAchievements;
+
+    // Activité récente
+    private long newUsersThisWeek;
+    private long weeklyActiveUsers;
+    private long monthlyActiveUsers;
+
+    // Séries temporelles
+    private Map<String, Long> dailyProgress;
+    private Map<String, Long> dailyActiveUsers;
+    private List<String> userGrowthLabels;
+    private List<Long> userGrowthData;
+
+    // Habitudes
+    private Map<String, Long> habitsByCategory;
+    private Map<String, String> popularHabits;
+
+    /**
+     * Nombre de progressions enregistrées après une date (exclue)
+     */
+    public long progressAfter(LocalDate date) {
+        return sumAfter(dailyProgress, date);
+    }
+
+    /**
+     * Moyenne journalière d'utilisateurs actifs après une date (exclue)
+     */
+    public double averageActiveUsersAfter(LocalDate date, int days) {
+        return days > 0 ? (double) sumAfter(dailyActiveUsers, date) / days : 0.0;
+    }
+
+    private static long sumAfter(Map<String, Long> series, LocalDate date) {
+        if (series == null) {
+            return 0;
+        }
+
+        return series.entrySet().stream()
+                .filter(entry -> LocalDate.parse(entry.getKey()).isAfter(date))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+}
@@ -0,0 +1,25 @@
+package com.habittracker.dto.progress;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Import groupé de progressions, toutes habitudes confondues
+ * Les entrées ne sont pas validées en cascade : une entrée invalide est rejetée seule
+ */
+@Value
+@Builder
+@Jacksonized
+public class ProgressBatchRequest {
+
+    public static final int MAX_ENTRIES = 5000;
+
+    @NotEmpty(message = "Au moins une progression est requise")
+    @Size(max = MAX_ENTRIES, message = "Un import est limité à " + MAX_ENTRIES + " progressions")
+    List<ProgressBatchEntry> entries;
+}
@@ -0,0 +1,48 @@
+package com.habittracker.dto.progress;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résultat d'un import groupé : totaux et statut de chaque entrée (dans l'ordre reçu)
+ */
+@Value
+@Builder
+public class ProgressBatchResponse {
+
+    int received;
+    int created;
+    int duplicates;
+    int rejected;
+    List<EntryResult> results;
+
+    // Habitudes modifiées et leur propriétaire (invalidation des caches, non exposé)
+    @JsonIgnore
+    Map<Long, Long> ownersByHabit;
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID, NOT_FOUND, FORBIDDEN
+    }
+
+    @Value
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class EntryResult {
+        int index;
+        Long habitId;
+
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        LocalDate date;
+
+        Status status;
+        Long progressId;
+        String message;
+    }
+}
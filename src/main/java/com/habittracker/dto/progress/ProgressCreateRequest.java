@@ -1,6 +1,7 @@
 package com.habittracker.dto.progress;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.habittracker.entity.Progress;
 import lombok.Builder;
 import lombok.Value;
 import lombok.extern.jackson.Jacksonized;
@@ -25,4 +26,7 @@ public class ProgressCreateRequest {
 
     @Size(max = 500, message = "La note ne peut pas dépasser 500 caractères")
     String note;
+
+    // Journée déjà saisie : refus (par défaut), remplacement ou cumul de la valeur
+    Progress.WriteMode mode;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.habittracker.dto.progress;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDate;
+
+@Value
+@Builder
+@Jacksonized
+public class ProgressIncrementRequest {
+
+    // Journée incrémentée (aujourd'hui par défaut)
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    LocalDate date;
+
+    @NotNull(message = "L'incrément est obligatoire")
+    @Positive(message = "L'incrément doit être positif")
+    Double delta;
+}
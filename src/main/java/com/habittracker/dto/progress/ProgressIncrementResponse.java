@@ -0,0 +1,24 @@
+package com.habittracker.dto.progress;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Incrément accepté : journalisé localement, écrit en base au prochain vidage du tampon
+ */
+@Value
+@Builder
+public class ProgressIncrementResponse {
+    Long habitId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    LocalDate date;
+
+    Double delta;
+
+    // Cumul des incréments de la journée pas encore écrits en base
+    Double pendingValue;
+}
@@ -45,6 +45,22 @@ public class ProgressResponse {
                 .build();
     }
 
+    /**
+     * Même progression avec une autre valeur (incréments en attente), complétion recalculée
+     */
+    public ProgressResponse withValue(Double value) {
+        return ProgressResponse.builder()
+                .id(this.id)
+                .userId(this.userId)
+                .habitId(this.habitId)
+                .date(this.date)
+                .value(value)
+                .note(this.note)
+                .createdAt(this.createdAt)
+                .build()
+                .withHabitInfo(habitTitle, habitUnit, habitTarget);
+    }
+
     public ProgressResponse withHabitInfo(String habitTitle, String habitUnit, Double habitTarget) {
         Double completion = null;
         Boolean targetReached = null;
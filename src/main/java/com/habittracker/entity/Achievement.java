@@ -10,13 +10,19 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "achievement",
+        uniqueConstraints = @UniqueConstraint(name = "uk_achievement_user_name", columnNames = {"user_id", "name"}),
+        indexes = {
+        @Index(name = "idx_achievement_user_type", columnList = "user_id, achievement_type, name"),
+        @Index(name = "idx_achievement_user_unlocked", columnList = "user_id, unlocked_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Achievement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @NotNull
@@ -0,0 +1,37 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégats journaliers des progressions d'une habitude
+ */
+@Entity
+@Table(name = "daily_habit_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"habit_id", "date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyHabitRollup extends ProgressRollup {
+
+    @NotNull
+    @Column(name = "habit_id")
+    private Long habitId;
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private LocalDate date;
+
+    public DailyHabitRollup(Long habitId, Long userId, LocalDate date) {
+        this.habitId = habitId;
+        this.userId = userId;
+        this.date = date;
+    }
+}
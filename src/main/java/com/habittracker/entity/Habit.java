@@ -12,6 +12,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "habit", indexes = @Index(name = "idx_habit_user_active", columnList = "user_id, is_active"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +20,7 @@ import java.time.LocalDateTime;
 public class Habit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @NotNull
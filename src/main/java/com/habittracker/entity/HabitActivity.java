@@ -0,0 +1,41 @@
+package com.habittracker.entity;
+
+import com.habittracker.util.ActivityBitmap;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Bitmap d'activité d'une habitude (un bit par jour depuis la date d'origine)
+ */
+@Entity
+@Table(name = "habit_activity")
+@Getter
+@Setter
+@NoArgsConstructor
+public class HabitActivity {
+
+    @Id
+    private Long habitId;
+
+    private LocalDate originDate;
+
+    @Column(length = 65536)
+    private byte[] bits;
+
+    public HabitActivity(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public ActivityBitmap toBitmap() {
+        return ActivityBitmap.fromBytes(originDate, bits);
+    }
+
+    public void update(ActivityBitmap bitmap) {
+        this.originDate = bitmap.getOrigin();
+        this.bits = bitmap.toBytes();
+    }
+}
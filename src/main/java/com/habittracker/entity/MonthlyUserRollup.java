@@ -0,0 +1,34 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégats mensuels des progressions d'un utilisateur (mois identifié par son premier jour)
+ */
+@Entity
+@Table(name = "monthly_user_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "month_start"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class MonthlyUserRollup extends ProgressRollup {
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    public MonthlyUserRollup(Long userId, LocalDate monthStart) {
+        this.userId = userId;
+        this.monthStart = monthStart;
+    }
+}
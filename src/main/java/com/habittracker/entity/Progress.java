@@ -12,6 +12,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(name = "progress",
+        uniqueConstraints = @UniqueConstraint(name = "uk_progress_habit_date", columnNames = {"habit_id", "date"}),
+        // (habit_id, date) : index de la contrainte unique ; valeur et utilisateur en fin de clé pour les agrégats
+        indexes = {
+                @Index(name = "idx_progress_user_date", columnList = "user_id, date, value"),
+                @Index(name = "idx_progress_date_user", columnList = "date, user_id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,13 +26,14 @@ import java.time.LocalDateTime;
 public class Progress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @NotNull
     private Long userId;
 
     @NotNull
+    @Column(name = "habit_id")
     private Long habitId;
 
     @NotNull
@@ -40,6 +48,14 @@ public class Progress {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Écriture d'une progression sur une journée déjà saisie : refus, remplacement ou cumul
+     * (compteurs comme les verres d'eau)
+     */
+    public enum WriteMode {
+        CREATE, REPLACE, ACCUMULATE
+    }
+
     public Progress(Long userId, Long habitId, LocalDate date, Double value) {
         this.userId = userId;
         this.habitId = habitId;
@@ -0,0 +1,33 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Segment du journal des incréments déjà écrit en base (enregistré dans la transaction du lot)
+ * Un segment marqué n'est jamais rejoué
+ */
+@Entity
+@Table(name = "progress_increment_batch",
+        indexes = @Index(name = "idx_progress_increment_batch_applied", columnList = "applied_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProgressIncrementBatch {
+
+    @Id
+    @Column(length = 36)
+    private String segment;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    public ProgressIncrementBatch(String segment, LocalDateTime appliedAt) {
+        this.segment = segment;
+        this.appliedAt = appliedAt;
+    }
+}
@@ -0,0 +1,54 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cumul d'incréments écarté définitivement au vidage (habitude supprimée, donnée refusée par la base)
+ * Conservé pour analyse ou reprise manuelle
+ */
+@Entity
+@Table(name = "progress_increment_dead_letter",
+        indexes = @Index(name = "idx_progress_increment_dead_letter_user", columnList = "user_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProgressIncrementDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    private Long habitId;
+
+    @NotNull
+    private LocalDate date;
+
+    @NotNull
+    private Double delta;
+
+    @Column(length = 500)
+    private String reason;
+
+    private LocalDateTime failedAt;
+
+    public ProgressIncrementDeadLetter(Progress increment, String reason) {
+        this.userId = increment.getUserId();
+        this.habitId = increment.getHabitId();
+        this.date = increment.getDate();
+        this.delta = increment.getValue();
+        this.reason = reason != null && reason.length() > 500 ? reason.substring(0, 500) : reason;
+        this.failedAt = LocalDateTime.now();
+    }
+}
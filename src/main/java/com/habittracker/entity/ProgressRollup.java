@@ -0,0 +1,56 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Agrégats pré-calculés d'un ensemble de progressions (nombre, somme, min, max, objectifs atteints)
+ */
+@MappedSuperclass
+@Getter
+@Setter
+public abstract class ProgressRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    private long entryCount;
+
+    private double valueSum;
+
+    private Double minValue;
+
+    private Double maxValue;
+
+    private long targetHits;
+
+    /**
+     * Ajoute une progression aux agrégats
+     */
+    public void add(double value, boolean targetReached) {
+        entryCount++;
+        valueSum += value;
+        minValue = minValue != null ? Math.min(minValue, value) : value;
+        maxValue = maxValue != null ? Math.max(maxValue, value) : value;
+        if (targetReached) {
+            targetHits++;
+        }
+    }
+
+    /**
+     * Remplace les agrégats par des valeurs recalculées
+     */
+    public void reset(long entryCount, double valueSum, Double minValue, Double maxValue, long targetHits) {
+        this.entryCount = entryCount;
+        this.valueSum = valueSum;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.targetHits = targetHits;
+    }
+
+    public double getAverageValue() {
+        return entryCount > 0 ? valueSum / entryCount : 0.0;
+    }
+}
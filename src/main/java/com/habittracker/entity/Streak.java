@@ -0,0 +1,54 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Index de série maintenu à l'écriture (par habitude ou par utilisateur)
+ */
+@Entity
+@Table(name = "streaks", uniqueConstraints = @UniqueConstraint(columnNames = {"scope", "owner_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class Streak {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Scope scope;
+
+    @NotNull
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    private int currentStreak;
+
+    private int longestStreak;
+
+    private LocalDate lastActiveDate;
+
+    public enum Scope {
+        HABIT, USER
+    }
+
+    public Streak(Scope scope, Long ownerId) {
+        this.scope = scope;
+        this.ownerId = ownerId;
+    }
+
+    /**
+     * Série en cours à une date donnée (0 si aucune progression ce jour-là)
+     */
+    public int getCurrentStreakAt(LocalDate date) {
+        return date.equals(lastActiveDate) ? currentStreak : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.habittracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Compteurs par utilisateur maintenus à l'écriture pour l'évaluation des achievements
+ */
+@Entity
+@Table(name = "user_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserMetrics {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long progressCount;
+
+    private long activeHabitCount;
+
+    private long categoryCount;
+
+    public UserMetrics(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,7 @@
+package com.habittracker.event;
+
+/**
+ * Événement publié lorsqu'une habitude est créée ou réactivée
+ */
+public record HabitActivatedEvent(Long userId, Long habitId) {
+}
@@ -0,0 +1,7 @@
+package com.habittracker.event;
+
+/**
+ * Événement publié lorsque les caches d'une habitude sont invalidés après une écriture
+ */
+public record HabitCachesInvalidatedEvent(Long userId, Long habitId) {
+}
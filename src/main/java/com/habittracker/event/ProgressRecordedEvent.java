@@ -0,0 +1,9 @@
+package com.habittracker.event;
+
+import java.time.LocalDate;
+
+/**
+ * Événement publié lorsqu'une progression est enregistrée
+ */
+public record ProgressRecordedEvent(Long userId, Long habitId, LocalDate date) {
+}
@@ -0,0 +1,15 @@
+package com.habittracker.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Tampon des incréments plein (base indisponible ou trop lente) : nouvelle journée refusée
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IncrementBufferFullException extends RuntimeException {
+
+    public IncrementBufferFullException(String message) {
+        super(message);
+    }
+}
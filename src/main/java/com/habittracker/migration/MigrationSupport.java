@@ -0,0 +1,45 @@
+package com.habittracker.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Vérifications de schéma communes aux migrations Java (PostgreSQL en production, H2 en test)
+ */
+final class MigrationSupport {
+
+    private MigrationSupport() {
+    }
+
+    static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    /**
+     * Table présente dans le schéma courant (absente sur une base neuve : Hibernate la créera)
+     */
+    static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name,
+                new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    static boolean constraintExists(Connection connection, String table, String constraint) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.table_constraints " +
+                        "WHERE UPPER(table_name) = UPPER(?) AND UPPER(constraint_name) = UPPER(?)")) {
+            query.setString(1, table);
+            query.setString(2, constraint);
+            try (ResultSet constraints = query.executeQuery()) {
+                return constraints.next();
+            }
+        }
+    }
+}
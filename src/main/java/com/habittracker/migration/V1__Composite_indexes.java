@@ -0,0 +1,81 @@
+package com.habittracker.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Index composites et couvrants des progressions, habitudes et achievements
+ * PostgreSQL : CREATE INDEX CONCURRENTLY hors transaction, les écritures ne sont pas bloquées ;
+ * un index laissé invalide par une construction interrompue est supprimé puis reconstruit
+ * Base neuve (tables absentes) : rien à faire, Hibernate crée les tables avec leurs index
+ */
+@Component
+@Slf4j
+public class V1__Composite_indexes extends BaseJavaMigration {
+
+    // Mêmes noms que les @Index des entités : ddl-auto=update les trouve et ne les recrée pas
+    private static final List<IndexDefinition> INDEXES = List.of(
+            new IndexDefinition("progress", "idx_progress_user_date", "user_id, date, value"),
+            new IndexDefinition("progress", "idx_progress_date_user", "date, user_id"),
+            new IndexDefinition("habit", "idx_habit_user_active", "user_id, is_active"),
+            new IndexDefinition("achievement", "idx_achievement_user_type", "user_id, achievement_type, name"),
+            new IndexDefinition("achievement", "idx_achievement_user_unlocked", "user_id, unlocked_at"));
+
+    private record IndexDefinition(String table, String name, String columns) {
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        // CREATE INDEX CONCURRENTLY est refusé dans un bloc de transaction
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean postgres = MigrationSupport.isPostgres(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            for (IndexDefinition index : INDEXES) {
+                if (!MigrationSupport.tableExists(connection, index.table())) {
+                    continue;
+                }
+
+                if (postgres) {
+                    dropIfInvalid(connection, statement, index.name());
+                    statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index.name()
+                            + " ON " + index.table() + " (" + index.columns() + ")");
+                } else {
+                    statement.execute("CREATE INDEX IF NOT EXISTS " + index.name()
+                            + " ON " + index.table() + " (" + index.columns() + ")");
+                }
+                log.info("🗂️ Index {} sur {} ({})", index.name(), index.table(), index.columns());
+            }
+        }
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void dropIfInvalid(Connection connection, Statement statement, String index) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                        "WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace AND NOT i.indisvalid")) {
+            query.setString(1, index);
+            try (ResultSet invalid = query.executeQuery()) {
+                if (invalid.next()) {
+                    statement.execute("DROP INDEX CONCURRENTLY " + index);
+                    log.warn("🗂️ Index invalide {} supprimé avant reconstruction", index);
+                }
+            }
+        }
+    }
+}
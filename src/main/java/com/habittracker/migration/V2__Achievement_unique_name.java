@@ -0,0 +1,45 @@
+package com.habittracker.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Unicité (user_id, name) des achievements : un doublon débloqué par deux instances en parallèle
+ * est supprimé (le plus ancien est conservé), puis la contrainte est ajoutée
+ * PostgreSQL : la table est verrouillée en écriture le temps du nettoyage et de la construction
+ * de l'index, aucune insertion ne peut se glisser entre les deux
+ */
+@Component
+@Slf4j
+public class V2__Achievement_unique_name extends BaseJavaMigration {
+
+    static final String CONSTRAINT = "uk_achievement_user_name";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        if (!MigrationSupport.tableExists(connection, "achievement")
+                || MigrationSupport.constraintExists(connection, "achievement", CONSTRAINT)) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            if (MigrationSupport.isPostgres(connection)) {
+                statement.execute("LOCK TABLE achievement IN SHARE ROW EXCLUSIVE MODE");
+            }
+
+            int duplicates = statement.executeUpdate("DELETE FROM achievement WHERE id NOT IN " +
+                    "(SELECT MIN(id) FROM achievement GROUP BY user_id, name)");
+            statement.execute("ALTER TABLE achievement ADD CONSTRAINT " + CONSTRAINT + " UNIQUE (user_id, name)");
+
+            log.info("🏆 Contrainte {} ajoutée ({} doublons supprimés)", CONSTRAINT, duplicates);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.habittracker.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migration des identifiants IDENTITY vers des séquences (optimiseur pooled), avant le démarrage de JPA
+ * Chaque séquence est créée si besoin puis placée au-delà du plus grand identifiant (jamais reculée)
+ * PostgreSQL : une colonne id encore générée par la base (IDENTITY ou serial) prend la séquence
+ * comme valeur par défaut ; pendant un déploiement progressif, les instances encore en IDENTITY
+ * tirent leurs identifiants de la même séquence que les nouvelles, sans collision
+ */
+@Component
+@Slf4j
+public class V3__Id_sequences extends BaseJavaMigration {
+
+    // allocationSize JPA par défaut : chaque valeur de séquence couvre [valeur - 49, valeur]
+    static final int ALLOCATION_SIZE = 50;
+
+    // Tables dont l'identifiant est généré (séquence implicite Hibernate : <table>_seq)
+    static final List<String> TABLES = List.of(
+            "users", "habit", "progress", "achievement", "streaks", "daily_habit_rollup", "monthly_user_rollup");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean postgres = MigrationSupport.isPostgres(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                if (!MigrationSupport.tableExists(connection, table)) {
+                    continue;
+                }
+
+                if (postgres) {
+                    migratePostgres(connection, statement, table, table + "_seq");
+                } else {
+                    // H2 des tests : tables créées par Hibernate avec leurs séquences, rien à convertir
+                    statement.execute("CREATE SEQUENCE IF NOT EXISTS " + table + "_seq START WITH "
+                            + (maxId(statement, table) + ALLOCATION_SIZE) + " INCREMENT BY " + ALLOCATION_SIZE);
+                }
+            }
+        }
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void migratePostgres(Connection connection, Statement statement, String table, String sequence)
+            throws SQLException {
+        // Aucune insertion entre la lecture du plus grand identifiant et le changement de valeur par défaut
+        statement.execute("LOCK TABLE " + table + " IN SHARE ROW EXCLUSIVE MODE");
+        statement.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+        statement.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+
+        if (generatedByDatabase(connection, table, sequence)) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+            log.info("🔢 {}.id généré par la séquence {}", table, sequence);
+        }
+
+        // Prochain bloc [valeur + 1, valeur + 50] entièrement au-delà des identifiants existants
+        try (ResultSet aligned = statement.executeQuery("SELECT setval('" + sequence + "', GREATEST("
+                + "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), (SELECT last_value FROM " + sequence + "), 1))")) {
+            aligned.next();
+            log.info("🔢 Séquence {} alignée sur {}", sequence, aligned.getLong(1));
+        }
+    }
+
+    /**
+     * Colonne id IDENTITY, ou serial dont la valeur par défaut n'est pas encore la séquence Hibernate
+     */
+    private boolean generatedByDatabase(Connection connection, String table, String sequence) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT is_identity, column_default FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'")) {
+            query.setString(1, table);
+            try (ResultSet column = query.executeQuery()) {
+                if (!column.next()) {
+                    return false;
+                }
+                String columnDefault = column.getString("column_default");
+                return "YES".equals(column.getString("is_identity"))
+                        || (columnDefault != null && columnDefault.startsWith("nextval(")
+                        && !columnDefault.startsWith("nextval('" + sequence + "'"));
+            }
+        }
+    }
+
+    private long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            max.next();
+            return max.getLong(1);
+        }
+    }
+}
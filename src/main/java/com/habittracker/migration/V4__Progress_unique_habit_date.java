@@ -0,0 +1,203 @@
+package com.habittracker.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unicité (habit_id, date) des progressions : les journées saisies plusieurs fois sont fusionnées
+ * en une seule ligne (valeurs additionnées, plus petit id et plus ancienne date de création conservés,
+ * notes réunies), les rollups des journées et mois touchés sont recalculés, puis la contrainte est ajoutée
+ * PostgreSQL : la table est verrouillée en écriture le temps de la fusion et de la construction de l'index
+ * Les bitmaps d'activité et les séries ne changent pas : l'ensemble des dates saisies reste le même
+ */
+@Component
+@Slf4j
+public class V4__Progress_unique_habit_date extends BaseJavaMigration {
+
+    static final String CONSTRAINT = "uk_progress_habit_date";
+
+    private static final String NOTE_SEPARATOR = " | ";
+
+    private static final String ROLLUP_AGGREGATES = "COUNT(*), SUM(p.value), MIN(p.value), MAX(p.value), " +
+            "SUM(CASE WHEN h.target_value > 0 AND p.value >= h.target_value THEN 1 ELSE 0 END) " +
+            "FROM progress p LEFT JOIN habit h ON h.id = p.habit_id ";
+
+    // Clé de la contrainte
+    private record Day(long habitId, LocalDate date) {
+    }
+
+    private record Month(long userId, LocalDate monthStart) {
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        if (!MigrationSupport.tableExists(connection, "progress")
+                || MigrationSupport.constraintExists(connection, "progress", CONSTRAINT)) {
+            return;
+        }
+
+        boolean postgres = MigrationSupport.isPostgres(connection);
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("LOCK TABLE progress IN SHARE ROW EXCLUSIVE MODE");
+            }
+
+            Map<Day, Long> merged = mergeDuplicates(connection);
+            if (!merged.isEmpty()) {
+                rebuildRollups(connection, merged, postgres);
+            }
+            statement.execute("ALTER TABLE progress ADD CONSTRAINT " + CONSTRAINT + " UNIQUE (habit_id, date)");
+
+            log.info("📈 Contrainte {} ajoutée ({} journées fusionnées)", CONSTRAINT, merged.size());
+        }
+    }
+
+    // === FUSION DES DOUBLONS ===
+
+    /**
+     * Fusionne chaque journée en double dans sa plus ancienne ligne et retourne les journées touchées
+     * avec leur propriétaire
+     */
+    private Map<Day, Long> mergeDuplicates(Connection connection) throws SQLException {
+        Map<Day, List<Long>> idsByDay = new LinkedHashMap<>();
+        Map<Day, Long> owners = new LinkedHashMap<>();
+        Map<Day, Double> sums = new LinkedHashMap<>();
+        Map<Day, Timestamp> createdAts = new LinkedHashMap<>();
+        Map<Day, Set<String>> notes = new LinkedHashMap<>();
+
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT p.id, p.user_id, p.habit_id, p.date, p.value, p.note, p.created_at FROM progress p " +
+                        "JOIN (SELECT habit_id, date FROM progress GROUP BY habit_id, date HAVING COUNT(*) > 1) d " +
+                        "ON d.habit_id = p.habit_id AND d.date = p.date ORDER BY p.habit_id, p.date, p.id");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                Day day = new Day(rows.getLong("habit_id"), rows.getDate("date").toLocalDate());
+                owners.putIfAbsent(day, rows.getLong("user_id"));
+                idsByDay.computeIfAbsent(day, key -> new ArrayList<>()).add(rows.getLong("id"));
+                sums.merge(day, rows.getDouble("value"), Double::sum);
+
+                Timestamp createdAt = rows.getTimestamp("created_at");
+                if (createdAt != null) {
+                    createdAts.merge(day, createdAt, (current, next) -> next.before(current) ? next : current);
+                }
+
+                String note = rows.getString("note");
+                Set<String> dayNotes = notes.computeIfAbsent(day, key -> new LinkedHashSet<>());
+                if (note != null && !note.isBlank()) {
+                    dayNotes.add(note.trim());
+                }
+            }
+        }
+
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE progress SET value = ?, note = ?, created_at = ? WHERE id = ?");
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM progress WHERE id = ?")) {
+            for (Map.Entry<Day, List<Long>> entry : idsByDay.entrySet()) {
+                Day day = entry.getKey();
+                List<Long> ids = entry.getValue();
+
+                update.setDouble(1, sums.get(day));
+                update.setString(2, notes.get(day).isEmpty() ? null : String.join(NOTE_SEPARATOR, notes.get(day)));
+                update.setTimestamp(3, createdAts.get(day));
+                update.setLong(4, ids.get(0));
+                update.addBatch();
+
+                for (Long extra : ids.subList(1, ids.size())) {
+                    delete.setLong(1, extra);
+                    delete.addBatch();
+                }
+            }
+            update.executeBatch();
+            delete.executeBatch();
+        }
+        return owners;
+    }
+
+    // === ROLLUPS ===
+
+    /**
+     * Le nombre de progressions des journées fusionnées a changé : rollups supprimés puis recalculés
+     * (RollupService ne reconstruit au démarrage que des tables vides)
+     */
+    private void rebuildRollups(Connection connection, Map<Day, Long> days, boolean postgres) throws SQLException {
+        if (MigrationSupport.tableExists(connection, "daily_habit_rollup")) {
+            for (Map.Entry<Day, Long> entry : days.entrySet()) {
+                Day day = entry.getKey();
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM daily_habit_rollup WHERE habit_id = ? AND date = ?")) {
+                    delete.setLong(1, day.habitId());
+                    delete.setDate(2, Date.valueOf(day.date()));
+                    delete.executeUpdate();
+                }
+                insertRollup(connection, postgres, "daily_habit_rollup", "habit_id, user_id, date",
+                        List.of(day.habitId(), entry.getValue(), Date.valueOf(day.date())),
+                        "WHERE p.habit_id = ? AND p.date = ?", List.of(day.habitId(), Date.valueOf(day.date())));
+            }
+        }
+
+        if (MigrationSupport.tableExists(connection, "monthly_user_rollup")) {
+            Set<Month> months = new LinkedHashSet<>();
+            days.forEach((day, userId) -> months.add(new Month(userId, day.date().withDayOfMonth(1))));
+
+            for (Month month : months) {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM monthly_user_rollup WHERE user_id = ? AND month_start = ?")) {
+                    delete.setLong(1, month.userId());
+                    delete.setDate(2, Date.valueOf(month.monthStart()));
+                    delete.executeUpdate();
+                }
+                Date start = Date.valueOf(month.monthStart());
+                insertRollup(connection, postgres, "monthly_user_rollup", "user_id, month_start",
+                        List.of(month.userId(), start), "WHERE p.user_id = ? AND p.date BETWEEN ? AND ?",
+                        List.of(month.userId(), start, Date.valueOf(month.monthStart().plusMonths(1).minusDays(1))));
+            }
+        }
+    }
+
+    /**
+     * Insère le rollup d'une clé à partir de ses progressions (aucune ligne si la clé n'en a plus)
+     */
+    private void insertRollup(Connection connection, boolean postgres, String table, String keyColumns,
+                              List<Object> keys, String filter, List<Object> filterValues) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(nextId(connection, postgres, table + "_seq"));
+        parameters.addAll(keys);
+        parameters.addAll(filterValues);
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, " + keyColumns + ", entry_count, value_sum, min_value, max_value, target_hits) " +
+                        "SELECT ?" + ", ?".repeat(keys.size()) + ", " + ROLLUP_AGGREGATES + filter + " HAVING COUNT(*) > 0")) {
+            for (int i = 0; i < parameters.size(); i++) {
+                insert.setObject(i + 1, parameters.get(i));
+            }
+            insert.executeUpdate();
+        }
+    }
+
+    private long nextId(Connection connection, boolean postgres, String sequence) throws SQLException {
+        String sql = postgres ? "SELECT nextval('" + sequence + "')" : "SELECT NEXT VALUE FOR " + sequence;
+        try (Statement statement = connection.createStatement(); ResultSet next = statement.executeQuery(sql)) {
+            next.next();
+            return next.getLong(1);
+        }
+    }
+}
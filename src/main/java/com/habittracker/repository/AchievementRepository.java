@@ -1,16 +1,20 @@
 package com.habittracker.repository;
 
 import com.habittracker.entity.Achievement;
+import com.habittracker.repository.projection.AchievementHolderCount;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Repository
-public interface AchievementRepository extends JpaRepository<Achievement, Long> {
+public interface AchievementRepository extends JpaRepository<Achievement, Long>, AchievementUnlockRepository {
 
     Page<Achievement> findByUserIdOrderByUnlockedAtDesc(Long userId, Pageable pageable);
     List<Achievement> findByUserId(Long userId);
@@ -19,6 +23,19 @@ public interface AchievementRepository extends JpaRepository<Achievement, Long>
 
     List<Achievement> findByUserIdAndUnlockedAtAfter(Long userId, LocalDateTime date);
 
+    /**
+     * Noms des achievements déjà débloqués par un utilisateur
+     */
+    @Query("SELECT a.name FROM Achievement a WHERE a.userId = :userId")
+    Set<String> findNamesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Nombre d'utilisateurs distincts par nom d'achievement (table de rareté)
+     */
+    @Query("SELECT new com.habittracker.repository.projection.AchievementHolderCount(a.name, COUNT(DISTINCT a.userId)) " +
+            "FROM Achievement a GROUP BY a.name")
+    List<AchievementHolderCount> countHoldersByName();
+
     boolean existsByUserIdAndNameAndAchievementType(Long userId, String name, Achievement.AchievementType type);
 
     long countByUserId(Long userId);
@@ -0,0 +1,17 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Achievement;
+
+import java.util.List;
+
+/**
+ * Enregistrement idempotent des achievements, appuyé sur la contrainte unique (user_id, name)
+ */
+public interface AchievementUnlockRepository {
+
+    /**
+     * Insère les achievements que l'utilisateur ne possède pas encore et retourne uniquement ceux insérés
+     * (un achievement débloqué en parallèle par une autre instance est ignoré)
+     */
+    List<Achievement> insertIfAbsent(List<Achievement> achievements);
+}
@@ -0,0 +1,90 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Achievement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implémentation de {@link AchievementUnlockRepository}
+ * PostgreSQL : INSERT ... ON CONFLICT (user_id, name) DO NOTHING, la transaction reste utilisable
+ * Autres bases (H2 des tests) : INSERT simple, le doublon est ignoré
+ */
+@RequiredArgsConstructor
+public class AchievementUnlockRepositoryImpl implements AchievementUnlockRepository {
+
+    private static final String INSERT =
+            "INSERT INTO achievement (id, user_id, name, description, icon, achievement_type, unlocked_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Achievement> insertIfAbsent(List<Achievement> achievements) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        boolean postgres = session.getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        List<Achievement> inserted = new ArrayList<>();
+
+        for (Achievement achievement : achievements) {
+            achievement.setId(nextId(session, achievement));
+
+            if (postgres) {
+                if (jdbcTemplate.update(INSERT + " ON CONFLICT (user_id, name) DO NOTHING",
+                        ps -> bindInsert(ps, achievement)) > 0) {
+                    inserted.add(achievement);
+                }
+                continue;
+            }
+
+            try {
+                jdbcTemplate.update(INSERT, ps -> bindInsert(ps, achievement));
+                inserted.add(achievement);
+            } catch (DuplicateKeyException e) {
+                // Déjà débloqué par une évaluation concurrente
+            }
+        }
+        return inserted;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Long nextId(SharedSessionContractImplementor session, Achievement achievement) {
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session
+                .getEntityPersister(null, achievement).getGenerator();
+        return (Long) generator.generate(session, achievement, null, EventType.INSERT);
+    }
+
+    private void bindInsert(PreparedStatement ps, Achievement achievement) throws SQLException {
+        ps.setLong(1, achievement.getId());
+        ps.setLong(2, achievement.getUserId());
+        ps.setString(3, achievement.getName());
+        if (achievement.getDescription() != null) {
+            ps.setString(4, achievement.getDescription());
+        } else {
+            ps.setNull(4, Types.VARCHAR);
+        }
+        ps.setString(5, achievement.getIcon());
+        if (achievement.getAchievementType() != null) {
+            ps.setString(6, achievement.getAchievementType().name());
+        } else {
+            ps.setNull(6, Types.VARCHAR);
+        }
+        ps.setTimestamp(7, Timestamp.valueOf(achievement.getUnlockedAt()));
+    }
+}
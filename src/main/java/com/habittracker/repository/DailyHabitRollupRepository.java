@@ -0,0 +1,26 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.DailyHabitRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyHabitRollupRepository extends JpaRepository<DailyHabitRollup, Long> {
+
+    Optional<DailyHabitRollup> findByHabitIdAndDate(Long habitId, LocalDate date);
+
+    List<DailyHabitRollup> findByHabitIdAndDateBetweenOrderByDate(Long habitId, LocalDate start, LocalDate end);
+
+    List<DailyHabitRollup> findByUserIdAndDateBetween(Long userId, LocalDate start, LocalDate end);
+
+    @Modifying
+    @Query("DELETE FROM DailyHabitRollup r WHERE r.habitId = :habitId")
+    void deleteByHabitId(@Param("habitId") Long habitId);
+}
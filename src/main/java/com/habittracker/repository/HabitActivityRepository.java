@@ -0,0 +1,29 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.HabitActivity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HabitActivityRepository extends JpaRepository<HabitActivity, Long> {
+
+    /**
+     * Lecture verrouillante (SELECT ... FOR UPDATE) avant une modification du bitmap
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM HabitActivity a WHERE a.habitId = :habitId")
+    Optional<HabitActivity> findForUpdate(@Param("habitId") Long habitId);
+
+    /**
+     * Habitudes n'ayant pas encore de bitmap d'activité
+     */
+    @Query("SELECT h.id FROM Habit h WHERE NOT EXISTS (SELECT 1 FROM HabitActivity a WHERE a.habitId = h.id)")
+    List<Long> findHabitIdsWithoutActivity();
+}
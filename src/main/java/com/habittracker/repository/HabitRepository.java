@@ -1,12 +1,16 @@
 package com.habittracker.repository;
 
 import com.habittracker.entity.Habit;
+import com.habittracker.repository.projection.CategoryCount;
+import com.habittracker.repository.projection.HabitInfo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,6 +44,12 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
 
     long countByUserId(Long userId);
 
+    /**
+     * Compte les catégories distinctes des habitudes d'un utilisateur
+     */
+    @Query("SELECT COUNT(DISTINCT h.category) FROM Habit h WHERE h.userId = :userId")
+    long countDistinctCategoriesByUserId(@Param("userId") Long userId);
+
     /**
      * Compte le nombre d'utilisateurs distincts ayant au moins une habitude
      */
@@ -47,12 +57,33 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
     long countDistinctByUserId();
 
     /**
-     * Trouve la première habitude active
+     * Compte les habitudes par statut actif
      */
-    Optional<Habit> findFirstByIsActiveTrue();
+    long countByIsActive(boolean isActive);
 
     /**
-     * Compte les habitudes par statut actif
+     * Compte les habitudes actives par catégorie
      */
-    long countByIsActive(boolean isActive);
-}
\ No newline at end of file
+    @Query("SELECT new com.habittracker.repository.projection.CategoryCount(h.category, COUNT(h)) " +
+            "FROM Habit h WHERE h.isActive = true GROUP BY h.category")
+    List<CategoryCount> countActiveByCategory();
+
+    /**
+     * Titre, unité et objectif de plusieurs habitudes en une seule requête
+     */
+    @Query("SELECT new com.habittracker.repository.projection.HabitInfo(h.id, h.title, h.unit, h.targetValue) " +
+            "FROM Habit h WHERE h.id IN :ids")
+    List<HabitInfo> findHabitInfoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Identifiants d'habitudes par pages, après un identifiant donné (parcours complet sans OFFSET)
+     */
+    @Query("SELECT h.id FROM Habit h WHERE h.id > :afterId ORDER BY h.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Verrouille la ligne d'une habitude jusqu'à la fin de la transaction (sérialise la création de ses index)
+     */
+    @Query(value = "SELECT id FROM habit WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+}
@@ -0,0 +1,29 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.MonthlyUserRollup;
+import com.habittracker.repository.projection.MonthlyProgressAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MonthlyUserRollupRepository extends JpaRepository<MonthlyUserRollup, Long> {
+
+    Optional<MonthlyUserRollup> findByUserIdAndMonthStart(Long userId, LocalDate monthStart);
+
+    /**
+     * Agrégats mensuels d'un utilisateur (nombre, moyenne, somme) sans chargement d'entités
+     */
+    @Query("SELECT new com.habittracker.repository.projection.MonthlyProgressAggregate(" +
+            "YEAR(r.monthStart), MONTH(r.monthStart), r.entryCount, r.valueSum) " +
+            "FROM MonthlyUserRollup r WHERE r.userId = :userId AND r.monthStart BETWEEN :start AND :end " +
+            "ORDER BY r.monthStart")
+    List<MonthlyProgressAggregate> aggregateByUserIdAndMonthBetween(@Param("userId") Long userId,
+                                                                    @Param("start") LocalDate start,
+                                                                    @Param("end") LocalDate end);
+}
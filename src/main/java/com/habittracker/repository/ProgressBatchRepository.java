@@ -0,0 +1,18 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Progress;
+
+import java.util.List;
+
+/**
+ * Écritures groupées de progressions (insertions par lots JDBC)
+ */
+public interface ProgressBatchRepository {
+
+    /**
+     * Insère par lots les progressions dont la journée (habitude, date) n'existe pas encore
+     * et renseigne leurs identifiants ; retourne seulement les progressions insérées
+     * (une journée saisie entre-temps par une autre requête est ignorée, pas d'erreur)
+     */
+    List<Progress> insertIfAbsent(List<Progress> progresses);
+}
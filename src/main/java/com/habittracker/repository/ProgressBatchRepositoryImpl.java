@@ -0,0 +1,115 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Progress;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implémentation de {@link ProgressBatchRepository} : identifiants pris dans la séquence (optimiseur pooled)
+ * PostgreSQL : un INSERT multi-lignes ... ON CONFLICT (habit_id, date) DO NOTHING RETURNING id
+ * par tranche de {@value #CHUNK_SIZE} ; un doublon concurrent n'annule pas l'import
+ * Autres bases (H2 des tests) : INSERT ligne par ligne, le doublon est ignoré
+ */
+@RequiredArgsConstructor
+public class ProgressBatchRepositoryImpl implements ProgressBatchRepository {
+
+    private static final String INSERT = "INSERT INTO progress (id, user_id, habit_id, date, value, note, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 7;
+
+    // 500 lignes x 7 paramètres, loin de la limite de 65535 paramètres par requête
+    private static final int CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Progress> insertIfAbsent(List<Progress> progresses) {
+        if (progresses.isEmpty()) {
+            return List.of();
+        }
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Progress progress : progresses) {
+            progress.setId(nextId(session, progress));
+            progress.setCreatedAt(now);
+        }
+
+        if (!(session.getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            return insertOneByOne(progresses);
+        }
+
+        List<Progress> inserted = new ArrayList<>();
+        for (int from = 0; from < progresses.size(); from += CHUNK_SIZE) {
+            List<Progress> chunk = progresses.subList(from, Math.min(from + CHUNK_SIZE, progresses.size()));
+            String sql = INSERT + String.join(", ", Collections.nCopies(chunk.size(), ROW)) +
+                    " ON CONFLICT (habit_id, date) DO NOTHING RETURNING id";
+
+            Set<Long> insertedIds = new HashSet<>(jdbcTemplate.query(sql, ps -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    bindInsert(ps, i * COLUMNS, chunk.get(i));
+                }
+            }, (rs, rowNum) -> rs.getLong(1)));
+
+            chunk.stream().filter(progress -> insertedIds.contains(progress.getId())).forEach(inserted::add);
+        }
+        return inserted;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private List<Progress> insertOneByOne(List<Progress> progresses) {
+        List<Progress> inserted = new ArrayList<>();
+        for (Progress progress : progresses) {
+            try {
+                jdbcTemplate.update(INSERT + ROW, ps -> bindInsert(ps, 0, progress));
+                inserted.add(progress);
+            } catch (DuplicateKeyException e) {
+                // Journée saisie par une requête concurrente
+            }
+        }
+        return inserted;
+    }
+
+    private Long nextId(SharedSessionContractImplementor session, Progress progress) {
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session
+                .getEntityPersister(null, progress).getGenerator();
+        return (Long) generator.generate(session, progress, null, EventType.INSERT);
+    }
+
+    private void bindInsert(PreparedStatement ps, int offset, Progress progress) throws SQLException {
+        ps.setLong(offset + 1, progress.getId());
+        ps.setLong(offset + 2, progress.getUserId());
+        ps.setLong(offset + 3, progress.getHabitId());
+        ps.setDate(offset + 4, Date.valueOf(progress.getDate()));
+        ps.setDouble(offset + 5, progress.getValue());
+        if (progress.getNote() != null) {
+            ps.setString(offset + 6, progress.getNote());
+        } else {
+            ps.setNull(offset + 6, Types.VARCHAR);
+        }
+        ps.setTimestamp(offset + 7, Timestamp.valueOf(progress.getCreatedAt()));
+    }
+}
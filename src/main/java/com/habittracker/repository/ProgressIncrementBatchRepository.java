@@ -0,0 +1,31 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.ProgressIncrementBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProgressIncrementBatchRepository extends JpaRepository<ProgressIncrementBatch, String> {
+
+    /**
+     * Segments déjà écrits en base parmi ceux trouvés dans le journal
+     */
+    @Query("SELECT b.segment FROM ProgressIncrementBatch b WHERE b.segment IN :segments")
+    List<String> findAppliedSegments(@Param("segments") Collection<String> segments);
+
+    /**
+     * Purge des marqueurs anciens : leurs segments sont supprimés depuis longtemps
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProgressIncrementBatch b WHERE b.appliedAt < :before")
+    int deleteAppliedBefore(@Param("before") LocalDateTime before);
+}
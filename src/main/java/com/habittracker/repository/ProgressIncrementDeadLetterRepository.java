@@ -0,0 +1,13 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.ProgressIncrementDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProgressIncrementDeadLetterRepository extends JpaRepository<ProgressIncrementDeadLetter, Long> {
+
+    List<ProgressIncrementDeadLetter> findByUserId(Long userId);
+}
@@ -2,17 +2,37 @@
 package com.habittracker.repository;
 
 import com.habittracker.entity.Progress;
+import com.habittracker.repository.projection.DailyActivityCount;
+import com.habittracker.repository.projection.DailyRollupAggregate;
+import com.habittracker.repository.projection.HabitDate;
+import com.habittracker.repository.projection.HabitProgressAggregate;
+import com.habittracker.repository.projection.HabitRanking;
+import com.habittracker.repository.projection.MonthlyRollupAggregate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProgressRepository extends JpaRepository<Progress, Long> {
+public interface ProgressRepository extends JpaRepository<Progress, Long>, ProgressBatchRepository,
+        ProgressUpsertRepository {
+
+    String DAILY_ROLLUP_SELECT = "SELECT new com.habittracker.repository.projection.DailyRollupAggregate(" +
+            "p.habitId, p.userId, p.date, COUNT(p), SUM(p.value), MIN(p.value), MAX(p.value), " +
+            "SUM(CASE WHEN h.targetValue > 0 AND p.value >= h.targetValue THEN 1 ELSE 0 END)) " +
+            "FROM Progress p LEFT JOIN Habit h ON h.id = p.habitId ";
+
+    String MONTHLY_ROLLUP_SELECT = "SELECT new com.habittracker.repository.projection.MonthlyRollupAggregate(" +
+            "p.userId, YEAR(p.date), MONTH(p.date), COUNT(p), SUM(p.value), MIN(p.value), MAX(p.value), " +
+            "SUM(CASE WHEN h.targetValue > 0 AND p.value >= h.targetValue THEN 1 ELSE 0 END)) " +
+            "FROM Progress p LEFT JOIN Habit h ON h.id = p.habitId ";
 
     // Recherche par utilisateur et habitude
     Optional<Progress> findByUserIdAndHabitIdAndDate(Long userId, Long habitId, LocalDate date);
@@ -40,6 +60,15 @@ public interface ProgressRepository extends JpaRepository<Progress, Long> {
 
     boolean existsByHabitIdAndDate(Long habitId, LocalDate date);
 
+    /**
+     * Couples (habitude, date) déjà saisis, en une requête ensembliste (import groupé)
+     */
+    @Query("SELECT new com.habittracker.repository.projection.HabitDate(p.habitId, p.date) " +
+            "FROM Progress p WHERE p.habitId IN :habitIds AND p.date BETWEEN :start AND :end")
+    List<HabitDate> findHabitDates(@Param("habitIds") Collection<Long> habitIds,
+                                   @Param("start") LocalDate start,
+                                   @Param("end") LocalDate end);
+
     // Comptage
     long countByUserId(Long userId);
 
@@ -53,4 +82,75 @@ public interface ProgressRepository extends JpaRepository<Progress, Long> {
      * Compte les progressions après une date donnée
      */
     long countByDateAfter(LocalDate date);
-}
\ No newline at end of file
+
+    // Dates distinctes (reconstruction des index de série)
+    @Query("SELECT DISTINCT p.date FROM Progress p WHERE p.habitId = :habitId ORDER BY p.date")
+    List<LocalDate> findDistinctDatesByHabitId(@Param("habitId") Long habitId);
+
+    @Query("SELECT DISTINCT p.date FROM Progress p WHERE p.userId = :userId ORDER BY p.date")
+    List<LocalDate> findDistinctDatesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Agrège en une requête les progressions de plusieurs habitudes
+     * (total, jours actifs sur la période, dernière date)
+     */
+    @Query("SELECT new com.habittracker.repository.projection.HabitProgressAggregate(p.habitId, COUNT(p), " +
+            "COUNT(DISTINCT CASE WHEN p.date BETWEEN :start AND :end THEN p.date END), MAX(p.date)) " +
+            "FROM Progress p WHERE p.habitId IN :habitIds GROUP BY p.habitId")
+    List<HabitProgressAggregate> aggregateByHabitIds(@Param("habitIds") Collection<Long> habitIds,
+                                                     @Param("start") LocalDate start,
+                                                     @Param("end") LocalDate end);
+
+    // Agrégats sources des rollups (reconstruction complète ou par compartiment)
+    @Query(DAILY_ROLLUP_SELECT + "WHERE p.habitId IN :habitIds GROUP BY p.habitId, p.userId, p.date")
+    List<DailyRollupAggregate> aggregateDailyByHabitIdIn(@Param("habitIds") Collection<Long> habitIds);
+
+    @Query(DAILY_ROLLUP_SELECT + "WHERE p.habitId = :habitId GROUP BY p.habitId, p.userId, p.date")
+    List<DailyRollupAggregate> aggregateDailyByHabitId(@Param("habitId") Long habitId);
+
+    @Query(DAILY_ROLLUP_SELECT + "WHERE p.habitId = :habitId AND p.date = :date GROUP BY p.habitId, p.userId, p.date")
+    List<DailyRollupAggregate> aggregateDailyByHabitIdAndDate(@Param("habitId") Long habitId,
+                                                              @Param("date") LocalDate date);
+
+    @Query(DAILY_ROLLUP_SELECT + "WHERE p.habitId = :habitId AND p.date BETWEEN :start AND :end " +
+            "GROUP BY p.habitId, p.userId, p.date")
+    List<DailyRollupAggregate> aggregateDailyByHabitIdAndDateBetween(@Param("habitId") Long habitId,
+                                                                     @Param("start") LocalDate start,
+                                                                     @Param("end") LocalDate end);
+
+    @Query(MONTHLY_ROLLUP_SELECT + "WHERE p.userId IN :userIds GROUP BY p.userId, YEAR(p.date), MONTH(p.date)")
+    List<MonthlyRollupAggregate> aggregateMonthlyByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query(MONTHLY_ROLLUP_SELECT + "WHERE p.userId = :userId AND p.date BETWEEN :start AND :end " +
+            "GROUP BY p.userId, YEAR(p.date), MONTH(p.date)")
+    List<MonthlyRollupAggregate> aggregateMonthlyByUserId(@Param("userId") Long userId,
+                                                          @Param("start") LocalDate start,
+                                                          @Param("end") LocalDate end);
+
+    // Classements globaux (administration)
+    @Query("SELECT new com.habittracker.repository.projection.HabitRanking(h.id, h.title, COUNT(p)) " +
+            "FROM Progress p JOIN Habit h ON h.id = p.habitId WHERE h.isActive = true " +
+            "GROUP BY h.id, h.title ORDER BY COUNT(p) DESC")
+    List<HabitRanking> findTopHabitsByProgressCount(Pageable pageable);
+
+    @Query("SELECT new com.habittracker.repository.projection.HabitRanking(h.id, h.title, COUNT(DISTINCT p.date)) " +
+            "FROM Progress p JOIN Habit h ON h.id = p.habitId WHERE h.isActive = true AND p.date >= :start " +
+            "GROUP BY h.id, h.title ORDER BY COUNT(DISTINCT p.date) DESC")
+    List<HabitRanking> findTopHabitsByActiveDaysSince(@Param("start") LocalDate start, Pageable pageable);
+
+    // Activité globale (métriques d'administration)
+    @Query("SELECT new com.habittracker.repository.projection.DailyActivityCount(p.date, COUNT(p), COUNT(DISTINCT p.userId)) " +
+            "FROM Progress p WHERE p.date >= :start GROUP BY p.date")
+    List<DailyActivityCount> countDailyActivitySince(@Param("start") LocalDate start);
+
+    @Query("SELECT COUNT(DISTINCT p.userId) FROM Progress p WHERE p.date >= :start")
+    long countDistinctUsersSince(@Param("start") LocalDate start);
+
+    // Utilisateurs et habitudes les plus actifs (préchauffage des caches)
+    @Query("SELECT p.userId FROM Progress p WHERE p.date >= :start GROUP BY p.userId ORDER BY COUNT(p) DESC")
+    List<Long> findMostActiveUserIdsSince(@Param("start") LocalDate start, Pageable pageable);
+
+    @Query("SELECT DISTINCT p.habitId FROM Progress p WHERE p.userId IN :userIds AND p.date >= :start")
+    List<Long> findHabitIdsByUserIdInSince(@Param("userIds") Collection<Long> userIds,
+                                           @Param("start") LocalDate start);
+}
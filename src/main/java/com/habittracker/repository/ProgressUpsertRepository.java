@@ -0,0 +1,24 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Progress;
+import com.habittracker.repository.projection.ProgressUpsert;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Écriture atomique de la progression d'une journée, appuyée sur la contrainte unique (habit_id, date)
+ */
+public interface ProgressUpsertRepository {
+
+    /**
+     * Insère la progression ou, si la journée est déjà saisie, applique le mode d'écriture
+     * (vide en mode CREATE quand la journée existe déjà)
+     */
+    Optional<ProgressUpsert> upsert(Progress progress, Progress.WriteMode mode);
+
+    /**
+     * Cumule les valeurs d'un lot sur leurs journées (création si absente), en un seul lot JDBC
+     */
+    void accumulateAll(List<Progress> progresses);
+}
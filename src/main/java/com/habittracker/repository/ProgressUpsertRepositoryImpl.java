@@ -0,0 +1,168 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Progress;
+import com.habittracker.repository.projection.ProgressUpsert;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implémentation de {@link ProgressUpsertRepository}
+ * PostgreSQL : un seul INSERT ... ON CONFLICT (habit_id, date) ... RETURNING
+ * Autres bases (H2 des tests) : lecture verrouillante puis INSERT ou UPDATE
+ */
+@RequiredArgsConstructor
+public class ProgressUpsertRepositoryImpl implements ProgressUpsertRepository {
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO progress (id, user_id, habit_id, date, value, note, created_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (habit_id, date) DO %s " +
+            "RETURNING id, value, note, created_at, (xmax = 0) AS created";
+
+    private static final String ON_CONFLICT_REPLACE =
+            "UPDATE SET value = EXCLUDED.value, note = COALESCE(EXCLUDED.note, progress.note)";
+
+    private static final String ON_CONFLICT_ACCUMULATE =
+            "UPDATE SET value = progress.value + EXCLUDED.value, note = COALESCE(EXCLUDED.note, progress.note)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<ProgressUpsert> upsert(Progress progress, Progress.WriteMode mode) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+
+        // Identifiant pris dans le bloc pooled d'Hibernate (perdu seulement en cas de conflit)
+        progress.setId(nextId(session, progress));
+        progress.setCreatedAt(LocalDateTime.now());
+
+        return session.getJdbcServices().getDialect() instanceof PostgreSQLDialect
+                ? upsertOnConflict(progress, mode)
+                : upsertWithLock(progress, mode);
+    }
+
+    @Override
+    public void accumulateAll(List<Progress> progresses) {
+        if (progresses.isEmpty()) {
+            return;
+        }
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Progress progress : progresses) {
+            progress.setId(nextId(session, progress));
+            progress.setCreatedAt(now);
+        }
+
+        if (!(session.getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+            progresses.forEach(progress -> upsertWithLock(progress, Progress.WriteMode.ACCUMULATE));
+            return;
+        }
+
+        String sql = "INSERT INTO progress (id, user_id, habit_id, date, value, note, created_at) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (habit_id, date) DO " + ON_CONFLICT_ACCUMULATE;
+        jdbcTemplate.batchUpdate(sql, progresses, BATCH_SIZE, this::bindInsert);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Optional<ProgressUpsert> upsertOnConflict(Progress progress, Progress.WriteMode mode) {
+        String action = switch (mode) {
+            case CREATE -> "NOTHING";
+            case REPLACE -> ON_CONFLICT_REPLACE;
+            case ACCUMULATE -> ON_CONFLICT_ACCUMULATE;
+        };
+
+        List<ProgressUpsert> rows = jdbcTemplate.query(POSTGRES_UPSERT.formatted(action),
+                ps -> bindInsert(ps, progress),
+                (rs, rowNum) -> new ProgressUpsert(read(rs, progress), rs.getBoolean("created")));
+
+        return rows.stream().findFirst();
+    }
+
+    private Optional<ProgressUpsert> upsertWithLock(Progress progress, Progress.WriteMode mode) {
+        List<Progress> existing = jdbcTemplate.query(
+                "SELECT id, value, note, created_at FROM progress WHERE habit_id = ? AND date = ? FOR UPDATE",
+                (rs, rowNum) -> read(rs, progress),
+                progress.getHabitId(), Date.valueOf(progress.getDate()));
+
+        if (existing.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO progress (id, user_id, habit_id, date, value, note, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", ps -> bindInsert(ps, progress));
+                return Optional.of(new ProgressUpsert(progress, true));
+            } catch (DuplicateKeyException e) {
+                // Insertion concurrente de la même journée : la ligne existe désormais
+                return upsertWithLock(progress, mode);
+            }
+        }
+
+        if (mode == Progress.WriteMode.CREATE) {
+            return Optional.empty();
+        }
+
+        Progress current = existing.get(0);
+        current.setValue(mode == Progress.WriteMode.ACCUMULATE
+                ? current.getValue() + progress.getValue() : progress.getValue());
+        if (progress.getNote() != null) {
+            current.setNote(progress.getNote());
+        }
+
+        jdbcTemplate.update("UPDATE progress SET value = ?, note = ? WHERE id = ?",
+                current.getValue(), current.getNote(), current.getId());
+        return Optional.of(new ProgressUpsert(current, false));
+    }
+
+    private Long nextId(SharedSessionContractImplementor session, Progress progress) {
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session
+                .getEntityPersister(null, progress).getGenerator();
+        return (Long) generator.generate(session, progress, null, EventType.INSERT);
+    }
+
+    private void bindInsert(PreparedStatement ps, Progress progress) throws SQLException {
+        ps.setLong(1, progress.getId());
+        ps.setLong(2, progress.getUserId());
+        ps.setLong(3, progress.getHabitId());
+        ps.setDate(4, Date.valueOf(progress.getDate()));
+        ps.setDouble(5, progress.getValue());
+        if (progress.getNote() != null) {
+            ps.setString(6, progress.getNote());
+        } else {
+            ps.setNull(6, Types.VARCHAR);
+        }
+        ps.setTimestamp(7, Timestamp.valueOf(progress.getCreatedAt()));
+    }
+
+    /**
+     * Ligne écrite (ou existante) de la journée ; utilisateur, habitude et date sont ceux demandés
+     */
+    private Progress read(ResultSet rs, Progress requested) throws SQLException {
+        Progress progress = new Progress(requested.getUserId(), requested.getHabitId(),
+                requested.getDate(), rs.getDouble("value"));
+        progress.setId(rs.getLong("id"));
+        progress.setNote(rs.getString("note"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        progress.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        return progress;
+    }
+}
@@ -0,0 +1,71 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.Streak;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StreakRepository extends JpaRepository<Streak, Long> {
+
+    Optional<Streak> findByScopeAndOwnerId(Streak.Scope scope, Long ownerId);
+
+    List<Streak> findByScopeAndOwnerIdIn(Streak.Scope scope, Collection<Long> ownerIds);
+
+    /**
+     * Lecture verrouillante (SELECT ... FOR UPDATE) avant une mise à jour incrémentale
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Streak s WHERE s.scope = :scope AND s.ownerId = :ownerId")
+    Optional<Streak> findForUpdate(@Param("scope") Streak.Scope scope, @Param("ownerId") Long ownerId);
+
+    /**
+     * Habitudes n'ayant pas encore d'index de série
+     */
+    @Query("SELECT h.id FROM Habit h WHERE NOT EXISTS " +
+            "(SELECT 1 FROM Streak s WHERE s.scope = :scope AND s.ownerId = h.id)")
+    List<Long> findHabitIdsWithoutStreak(@Param("scope") Streak.Scope scope);
+
+    /**
+     * Utilisateurs n'ayant pas encore d'index de série
+     */
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS " +
+            "(SELECT 1 FROM Streak s WHERE s.scope = :scope AND s.ownerId = u.id)")
+    List<Long> findUserIdsWithoutStreak(@Param("scope") Streak.Scope scope);
+
+    /**
+     * Habitudes dont l'index ne correspond plus à leur dernière journée de progression
+     */
+    @Query("SELECT s.ownerId FROM Streak s WHERE s.scope = :scope AND s.lastActiveDate IS DISTINCT FROM " +
+            "(SELECT MAX(p.date) FROM Progress p WHERE p.habitId = s.ownerId)")
+    List<Long> findStaleHabitIds(@Param("scope") Streak.Scope scope);
+
+    /**
+     * Utilisateurs dont l'index ne correspond plus à leur dernière journée de progression
+     */
+    @Query("SELECT s.ownerId FROM Streak s WHERE s.scope = :scope AND s.lastActiveDate IS DISTINCT FROM " +
+            "(SELECT MAX(p.date) FROM Progress p WHERE p.userId = s.ownerId)")
+    List<Long> findStaleUserIds(@Param("scope") Streak.Scope scope);
+
+    /**
+     * Supprime les index d'habitudes qui n'existent plus
+     */
+    @Modifying
+    @Query("DELETE FROM Streak s WHERE s.scope = :scope AND NOT EXISTS (SELECT 1 FROM Habit h WHERE h.id = s.ownerId)")
+    int deleteOrphanHabitStreaks(@Param("scope") Streak.Scope scope);
+
+    /**
+     * Supprime les index d'utilisateurs qui n'existent plus
+     */
+    @Modifying
+    @Query("DELETE FROM Streak s WHERE s.scope = :scope AND NOT EXISTS (SELECT 1 FROM User u WHERE u.id = s.ownerId)")
+    int deleteOrphanUserStreaks(@Param("scope") Streak.Scope scope);
+}
@@ -0,0 +1,39 @@
+package com.habittracker.repository;
+
+import com.habittracker.entity.UserMetrics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserMetricsRepository extends JpaRepository<UserMetrics, Long> {
+
+    /**
+     * Incrémente atomiquement le compteur de progressions (retourne 0 si la ligne n'existe pas)
+     */
+    @Modifying
+    @Query("UPDATE UserMetrics m SET m.progressCount = m.progressCount + :delta WHERE m.userId = :userId")
+    int incrementProgressCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * Met à jour les seuls compteurs d'habitudes, sans toucher au compteur de progressions
+     * (retourne 0 si la ligne n'existe pas)
+     */
+    @Modifying
+    @Query("UPDATE UserMetrics m SET m.activeHabitCount = :activeHabitCount, m.categoryCount = :categoryCount " +
+            "WHERE m.userId = :userId")
+    int updateHabitCounts(@Param("userId") Long userId,
+                          @Param("activeHabitCount") long activeHabitCount,
+                          @Param("categoryCount") long categoryCount);
+
+    /**
+     * Utilisateurs n'ayant pas encore de compteurs
+     */
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS " +
+            "(SELECT 1 FROM UserMetrics m WHERE m.userId = u.id)")
+    List<Long> findUserIdsWithoutMetrics();
+}
@@ -5,9 +5,12 @@ import com.habittracker.entity.User.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -31,8 +34,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Page<User> findByCreatedAtAfter(LocalDateTime date, Pageable pageable);
 
+    long countByCreatedAtAfter(LocalDateTime date);
+
+    /**
+     * Compte les utilisateurs inscrits avant une date (date d'inscription inconnue incluse)
+     */
+    long countByCreatedAtIsNullOrCreatedAtBefore(LocalDateTime date);
+
     /**
      * Compte les utilisateurs par rôle
      */
     long countByRole(Role role);
+
+    /**
+     * Identifiants d'utilisateurs par pages, après un identifiant donné (parcours complet sans OFFSET)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Verrouille la ligne d'un utilisateur jusqu'à la fin de la transaction (sérialise la création de ses index)
+     */
+    @Query(value = "SELECT id FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
 }
\ No newline at end of file
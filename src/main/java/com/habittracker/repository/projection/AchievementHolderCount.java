@@ -0,0 +1,7 @@
+package com.habittracker.repository.projection;
+
+/**
+ * Nombre d'utilisateurs détenant un achievement donné
+ */
+public record AchievementHolderCount(String name, Long holders) {
+}
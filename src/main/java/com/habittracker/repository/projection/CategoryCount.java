@@ -0,0 +1,12 @@
+package com.habittracker.repository.projection;
+
+import com.habittracker.entity.Habit;
+
+/**
+ * Nombre d'habitudes par catégorie
+ *
+ * @param category catégorie
+ * @param count    nombre d'habitudes
+ */
+public record CategoryCount(Habit.Category category, Long count) {
+}
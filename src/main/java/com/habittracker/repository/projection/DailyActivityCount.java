@@ -0,0 +1,13 @@
+package com.habittracker.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Activité globale d'une journée
+ *
+ * @param date          jour
+ * @param progressCount nombre de progressions
+ * @param activeUsers   nombre d'utilisateurs distincts ayant progressé
+ */
+public record DailyActivityCount(LocalDate date, Long progressCount, Long activeUsers) {
+}
@@ -0,0 +1,19 @@
+package com.habittracker.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat des progressions d'une habitude pour une journée (source des rollups journaliers)
+ *
+ * @param habitId    identifiant de l'habitude
+ * @param userId     identifiant de l'utilisateur
+ * @param date       jour agrégé
+ * @param entryCount nombre de progressions
+ * @param valueSum   somme des valeurs
+ * @param minValue   valeur minimale
+ * @param maxValue   valeur maximale
+ * @param targetHits nombre de progressions ayant atteint l'objectif
+ */
+public record DailyRollupAggregate(Long habitId, Long userId, LocalDate date, Long entryCount,
+                                   Double valueSum, Double minValue, Double maxValue, Long targetHits) {
+}
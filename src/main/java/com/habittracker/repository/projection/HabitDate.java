@@ -0,0 +1,9 @@
+package com.habittracker.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Couple (habitude, date) identifiant une progression (détection des doublons)
+ */
+public record HabitDate(Long habitId, LocalDate date) {
+}
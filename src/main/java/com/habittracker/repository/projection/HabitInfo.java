@@ -0,0 +1,7 @@
+package com.habittracker.repository.projection;
+
+/**
+ * Informations d'habitude nécessaires à l'enrichissement des progressions
+ */
+public record HabitInfo(Long id, String title, String unit, Double targetValue) {
+}
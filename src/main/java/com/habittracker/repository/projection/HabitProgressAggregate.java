@@ -0,0 +1,14 @@
+package com.habittracker.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat de progression par habitude (une ligne par habitude)
+ *
+ * @param habitId       identifiant de l'habitude
+ * @param progressCount nombre total de progressions
+ * @param activeDays    nombre de jours distincts avec progression sur la période demandée
+ * @param lastDate      date de la dernière progression
+ */
+public record HabitProgressAggregate(Long habitId, Long progressCount, Long activeDays, LocalDate lastDate) {
+}
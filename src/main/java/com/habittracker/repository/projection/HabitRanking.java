@@ -0,0 +1,11 @@
+package com.habittracker.repository.projection;
+
+/**
+ * Habitude classée selon une mesure (nombre de progressions, jours actifs...)
+ *
+ * @param habitId identifiant de l'habitude
+ * @param title   titre de l'habitude
+ * @param value   valeur de la mesure
+ */
+public record HabitRanking(Long habitId, String title, Long value) {
+}
@@ -0,0 +1,27 @@
+package com.habittracker.repository.projection;
+
+/**
+ * Agrégat mensuel des progressions d'un utilisateur (une ligne par mois)
+ *
+ * @param year         année
+ * @param month        mois (1-12)
+ * @param count        nombre de progressions
+ * @param averageValue valeur moyenne
+ * @param sumValue     somme des valeurs
+ */
+public record MonthlyProgressAggregate(Integer year, Integer month, Long count, Double averageValue, Double sumValue) {
+
+    /**
+     * Construit l'agrégat à partir du nombre et de la somme (moyenne calculée côté Java)
+     */
+    public MonthlyProgressAggregate(Integer year, Integer month, Long count, Double sumValue) {
+        this(year, month, count, count > 0 ? sumValue / count : 0.0, sumValue);
+    }
+
+    /**
+     * Clé du mois au format "2024-01"
+     */
+    public String monthKey() {
+        return year + "-" + String.format("%02d", month);
+    }
+}
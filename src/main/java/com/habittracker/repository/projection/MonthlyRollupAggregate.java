@@ -0,0 +1,23 @@
+package com.habittracker.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Agrégat des progressions d'un utilisateur pour un mois (source des rollups mensuels)
+ *
+ * @param userId     identifiant de l'utilisateur
+ * @param year       année
+ * @param month      mois (1-12)
+ * @param entryCount nombre de progressions
+ * @param valueSum   somme des valeurs
+ * @param minValue   valeur minimale
+ * @param maxValue   valeur maximale
+ * @param targetHits nombre de progressions ayant atteint l'objectif
+ */
+public record MonthlyRollupAggregate(Long userId, Integer year, Integer month, Long entryCount,
+                                     Double valueSum, Double minValue, Double maxValue, Long targetHits) {
+
+    public LocalDate monthStart() {
+        return LocalDate.of(year, month, 1);
+    }
+}
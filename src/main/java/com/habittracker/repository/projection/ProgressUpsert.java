@@ -0,0 +1,9 @@
+package com.habittracker.repository.projection;
+
+import com.habittracker.entity.Progress;
+
+/**
+ * Résultat d'un upsert : progression du jour telle qu'écrite, et création ou mise à jour
+ */
+public record ProgressUpsert(Progress progress, boolean created) {
+}
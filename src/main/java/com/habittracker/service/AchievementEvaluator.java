@@ -0,0 +1,137 @@
+package com.habittracker.service;
+
+import com.habittracker.achievement.AchievementMetric;
+import com.habittracker.achievement.AchievementRuleRegistry;
+import com.habittracker.achievement.AchievementTrigger;
+import com.habittracker.achievement.MetricsVector;
+import com.habittracker.entity.Achievement;
+import com.habittracker.entity.UserMetrics;
+import com.habittracker.event.HabitActivatedEvent;
+import com.habittracker.event.ProgressRecordedEvent;
+import com.habittracker.repository.AchievementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Évaluation des achievements pilotée par les événements métier
+ * Chaque événement ne vérifie que les règles qu'il peut affecter, à partir des compteurs
+ * maintenus à l'écriture, hors du chemin de la requête (après commit, pool dédié)
+ */
+@Service
+@Slf4j
+public class AchievementEvaluator {
+
+    private final AchievementRepository achievementRepository;
+    private final UserMetricsService userMetricsService;
+    private final StreakService streakService;
+    private final AchievementRuleRegistry ruleRegistry;
+    private final AchievementRarityService achievementRarityService;
+    private final CacheService cacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    public AchievementEvaluator(AchievementRepository achievementRepository,
+                                UserMetricsService userMetricsService,
+                                StreakService streakService,
+                                AchievementRuleRegistry ruleRegistry,
+                                AchievementRarityService achievementRarityService,
+                                CacheService cacheService,
+                                PlatformTransactionManager transactionManager) {
+        this.achievementRepository = achievementRepository;
+        this.userMetricsService = userMetricsService;
+        this.streakService = streakService;
+        this.ruleRegistry = ruleRegistry;
+        this.achievementRarityService = achievementRarityService;
+        this.cacheService = cacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // === ÉCOUTE DES ÉVÉNEMENTS ===
+
+    @Async("achievementExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgressRecorded(ProgressRecordedEvent event) {
+        evaluateQuietly(event.userId(), EnumSet.of(AchievementTrigger.PROGRESS));
+    }
+
+    @Async("achievementExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitActivated(HabitActivatedEvent event) {
+        evaluateQuietly(event.userId(), EnumSet.of(AchievementTrigger.HABIT));
+    }
+
+    // === ÉVALUATION ===
+
+    /**
+     * Évalue toutes les règles d'un utilisateur (vérification manuelle)
+     */
+    public List<Achievement> evaluateAll(Long userId) {
+        return evaluate(userId, EnumSet.allOf(AchievementTrigger.class));
+    }
+
+    /**
+     * Vecteur de métriques d'un utilisateur (compteurs et série la plus longue)
+     */
+    public MetricsVector getMetricsVector(Long userId) {
+        UserMetrics metrics = userMetricsService.getMetrics(userId);
+
+        return new MetricsVector()
+                .with(AchievementMetric.PROGRESS_COUNT, metrics.getProgressCount())
+                .with(AchievementMetric.ACTIVE_HABITS, metrics.getActiveHabitCount())
+                .with(AchievementMetric.DISTINCT_CATEGORIES, metrics.getCategoryCount())
+                .with(AchievementMetric.LONGEST_STREAK, streakService.getUserLongestStreak(userId));
+    }
+
+    /**
+     * Évalue les règles affectées par les déclencheurs et enregistre les nouveaux achievements
+     * (évaluations concurrentes, sur cette instance ou une autre : la contrainte (user_id, name)
+     * ne laisse passer qu'une insertion, seule celle-ci est comptée)
+     */
+    public List<Achievement> evaluate(Long userId, Set<AchievementTrigger> triggers) {
+        List<Achievement> unlocked = transactionTemplate.execute(status -> unlock(userId, triggers));
+
+        if (unlocked != null && !unlocked.isEmpty()) {
+            achievementRarityService.recordUnlocks(unlocked.stream().map(Achievement::getName).toList());
+            cacheService.evictUserCaches(userId);
+            log.info("🏆 {} nouveaux achievements débloqués pour l'utilisateur {}", unlocked.size(), userId);
+        }
+        return unlocked != null ? unlocked : List.of();
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void evaluateQuietly(Long userId, Set<AchievementTrigger> triggers) {
+        try {
+            evaluate(userId, triggers);
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'évaluation des achievements de l'utilisateur {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Une lecture des métriques, puis un seul passage sur les règles concernées
+     */
+    private List<Achievement> unlock(Long userId, Set<AchievementTrigger> triggers) {
+        Set<String> alreadyUnlocked = achievementRepository.findNamesByUserId(userId);
+        MetricsVector vector = getMetricsVector(userId);
+        List<Achievement> newAchievements = new ArrayList<>();
+
+        for (AchievementRuleRegistry.CompiledRule compiled : ruleRegistry.rulesFor(triggers)) {
+            if (!alreadyUnlocked.contains(compiled.rule().name()) && compiled.matches(vector)) {
+                newAchievements.add(compiled.rule().toAchievement(userId));
+            }
+        }
+
+        return newAchievements.isEmpty() ? newAchievements : achievementRepository.insertIfAbsent(newAchievements);
+    }
+}
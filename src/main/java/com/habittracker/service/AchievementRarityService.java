@@ -0,0 +1,92 @@
+package com.habittracker.service;
+
+import com.habittracker.repository.AchievementRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.projection.AchievementHolderCount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table de rareté globale des achievements (part des utilisateurs détenant chaque badge)
+ * Recalculée périodiquement et mise à jour à chaque déblocage, lue depuis la mémoire
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AchievementRarityService {
+
+    private final AchievementRepository achievementRepository;
+    private final UserRepository userRepository;
+
+    private volatile Map<String, Long> holdersByName = new ConcurrentHashMap<>();
+    private volatile long totalUsers;
+    private volatile boolean loaded;
+
+    /**
+     * Pourcentage d'utilisateurs détenant l'achievement
+     */
+    public int getRarity(String achievementName) {
+        ensureLoaded();
+
+        long users = totalUsers;
+        if (users <= 0) {
+            return 0;
+        }
+
+        long holders = holdersByName.getOrDefault(achievementName, 0L);
+        return (int) Math.min(100, (double) holders / users * 100);
+    }
+
+    /**
+     * Prend en compte des achievements nouvellement débloqués (un par utilisateur et par nom)
+     */
+    public void recordUnlocks(Collection<String> achievementNames) {
+        if (!loaded) {
+            return; // Sera pris en compte au premier chargement
+        }
+        achievementNames.forEach(name -> holdersByName.merge(name, 1L, Long::sum));
+    }
+
+    /**
+     * Recalcul planifié de la table
+     */
+    @Scheduled(fixedDelayString = "${app.achievements.rarity.refresh-interval:600}",
+            initialDelayString = "${app.achievements.rarity.refresh-interval:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("❌ Erreur lors du rafraîchissement de la rareté des achievements: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcule la table depuis la base (une requête groupée et un comptage)
+     */
+    public synchronized void refresh() {
+        Map<String, Long> holders = new ConcurrentHashMap<>();
+        for (AchievementHolderCount count : achievementRepository.countHoldersByName()) {
+            holders.put(count.name(), count.holders());
+        }
+
+        holdersByName = holders;
+        totalUsers = userRepository.count();
+        loaded = true;
+
+        log.debug("🏆 Table de rareté recalculée: {} achievements, {} utilisateurs", holders.size(), totalUsers);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            refresh();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.habittracker.service;
 
+import com.habittracker.achievement.AchievementRule;
+import com.habittracker.achievement.AchievementRuleRegistry;
+import com.habittracker.achievement.MetricsVector;
 import com.habittracker.dto.achievement.*;
 import com.habittracker.entity.Achievement;
 import com.habittracker.entity.User;
@@ -14,10 +17,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,8 +28,9 @@ public class AchievementService {
 
     private final AchievementRepository achievementRepository;
     private final UserRepository userRepository;
-    private final HabitRepository habitRepository;
-    private final ProgressRepository progressRepository;
+    private final AchievementEvaluator achievementEvaluator;
+    private final AchievementRuleRegistry ruleRegistry;
+    private final AchievementRarityService achievementRarityService;
 
     /**
      * Récupère tous les achievements d'un utilisateur
@@ -76,28 +78,17 @@ public class AchievementService {
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur", request.getUserId()));
 
-        List<Achievement> newAchievements = new ArrayList<>();
+        // Même évaluation que celle déclenchée par les événements, toutes règles confondues
+        List<Achievement> savedAchievements = achievementEvaluator.evaluateAll(user.getId());
 
-        // Vérifier les différents types d'achievements
-        newAchievements.addAll(checkConsistencyAchievements(user));
-        newAchievements.addAll(checkMilestoneAchievements(user));
-        newAchievements.addAll(checkStreakAchievements(user));
-        newAchievements.addAll(checkDedicationAchievements(user));
-        newAchievements.addAll(checkVarietyAchievements(user));
-
-        if (newAchievements.isEmpty()) {
+        if (savedAchievements.isEmpty()) {
             return AchievementCheckResponse.noNewAchievements(request.getUserId());
         }
 
-        // Sauvegarder les nouveaux achievements
-        List<Achievement> savedAchievements = achievementRepository.saveAll(newAchievements);
         List<AchievementResponse> achievementResponses = savedAchievements.stream()
                 .map(this::toEnrichedResponse)
                 .toList();
 
-        log.info("🏆 {} nouveaux achievements débloqués pour l'utilisateur {}",
-                newAchievements.size(), user.getUsername());
-
         return AchievementCheckResponse.withNewAchievements(request.getUserId(), achievementResponses);
     }
 
@@ -112,10 +103,17 @@ public class AchievementService {
 
         List<Achievement> userAchievements = achievementRepository.findByUserId(userId);
 
-        // Calculs des statistiques
+        // Calculs des statistiques (le total possible est celui du registre de règles)
         int totalAchievements = userAchievements.size();
-        int totalPossible = 50; // Nombre total d'achievements possibles
-        double completionPercentage = totalPossible > 0 ? (double) totalAchievements / totalPossible * 100 : 0;
+        int totalPossible = ruleRegistry.size();
+        long unlockedRules = userAchievements.stream()
+                .map(Achievement::getName)
+                .filter(ruleRegistry.getRuleNames()::contains)
+                .distinct()
+                .count();
+        double completionPercentage = totalPossible > 0 ? (double) unlockedRules / totalPossible * 100 : 0;
+        MetricsVector metrics = achievementEvaluator.getMetricsVector(userId);
+        AchievementRule nextRule = findNextRule(metrics, userAchievements);
 
         // Grouper par type
         Map<String, Integer> achievementsByType = new HashMap<>();
@@ -162,20 +160,18 @@ public class AchievementService {
                 .rareAchievements(rare)
                 .epicAchievements(epic)
                 .legendaryAchievements(legendary)
-                .nextPossibleAchievement("Prochain objectif disponible")
-                .progressToNextAchievement(calculateProgressToNext(userId))
+                .nextPossibleAchievement(nextRule != null ? nextRule.name() : null)
+                .progressToNextAchievement(nextRule != null
+                        ? Math.round(nextRule.progress(metrics) * 10000.0) / 100.0
+                        : 100.0)
                 .build();
     }
 
     // === MÉTHODES PRIVÉES ===
 
     private AchievementResponse toEnrichedResponse(Achievement achievement) {
-        // Calcul de la rareté (pourcentage d'utilisateurs qui ont ce badge)
-        long totalUsers = userRepository.count();
-        long usersWithThisAchievement = achievementRepository.countByUserIdAndAchievementType(
-                achievement.getUserId(), achievement.getAchievementType());
-
-        int rarity = totalUsers > 0 ? (int) ((double) usersWithThisAchievement / totalUsers * 100) : 0;
+        // Rareté globale : pourcentage d'utilisateurs qui ont ce badge (table en mémoire)
+        int rarity = achievementRarityService.getRarity(achievement.getName());
 
         // Vérifier si c'est récent (moins de 3 jours)
         boolean isNew = achievement.getUnlockedAt().isAfter(LocalDateTime.now().minusDays(3));
@@ -197,108 +193,16 @@ public class AchievementService {
         };
     }
 
-    // === VÉRIFICATIONS DES ACHIEVEMENTS ===
-
-    private List<Achievement> checkConsistencyAchievements(User user) {
-        List<Achievement> newAchievements = new ArrayList<>();
-
-        // 7 jours consécutifs
-        if (!achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Semaine parfaite", Achievement.AchievementType.CONSISTENCY)) {
-
-            long consecutiveDays = calculateConsecutiveDays(user.getId());
-            if (consecutiveDays >= 7) {
-                newAchievements.add(new Achievement(user.getId(), "Semaine parfaite",
-                        "7 jours consécutifs de progression", "🔥", Achievement.AchievementType.CONSISTENCY));
-            }
-        }
-
-        return newAchievements;
-    }
-
-    private List<Achievement> checkMilestoneAchievements(User user) {
-        List<Achievement> newAchievements = new ArrayList<>();
-
-        long totalProgress = progressRepository.countByUserId(user.getId());
-
-        // 10 progressions
-        if (totalProgress >= 10 && !achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Première dizaine", Achievement.AchievementType.MILESTONE)) {
-            newAchievements.add(new Achievement(user.getId(), "Première dizaine",
-                    "10 progressions enregistrées", "🎯", Achievement.AchievementType.MILESTONE));
-        }
-
-        // 50 progressions
-        if (totalProgress >= 50 && !achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Demi-siècle", Achievement.AchievementType.MILESTONE)) {
-            newAchievements.add(new Achievement(user.getId(), "Demi-siècle",
-                    "50 progressions enregistrées", "🏅", Achievement.AchievementType.MILESTONE));
-        }
-
-        return newAchievements;
-    }
-
-    private List<Achievement> checkStreakAchievements(User user) {
-        List<Achievement> newAchievements = new ArrayList<>();
-
-        // Série de 15 jours
-        if (!achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Série impressionnante", Achievement.AchievementType.STREAK)) {
-
-            long consecutiveDays = calculateConsecutiveDays(user.getId());
-            if (consecutiveDays >= 15) {
-                newAchievements.add(new Achievement(user.getId(), "Série impressionnante",
-                        "15 jours consécutifs", "⚡", Achievement.AchievementType.STREAK));
-            }
-        }
-
-        return newAchievements;
-    }
-
-    private List<Achievement> checkDedicationAchievements(User user) {
-        List<Achievement> newAchievements = new ArrayList<>();
-
-        long activeHabits = habitRepository.countByUserIdAndIsActive(user.getId(), true);
-
-        // 5 habitudes actives
-        if (activeHabits >= 5 && !achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Multi-tâches", Achievement.AchievementType.DEDICATION)) {
-            newAchievements.add(new Achievement(user.getId(), "Multi-tâches",
-                    "5 habitudes actives en même temps", "🎪", Achievement.AchievementType.DEDICATION));
-        }
-
-        return newAchievements;
-    }
-
-    private List<Achievement> checkVarietyAchievements(User user) {
-        List<Achievement> newAchievements = new ArrayList<>();
-
-        // Vérifier si l'utilisateur a des habitudes dans 3 catégories différentes
-        // (Implementation simplifiée)
-        if (!achievementRepository.existsByUserIdAndNameAndAchievementType(
-                user.getId(), "Polyvalent", Achievement.AchievementType.VARIETY)) {
-
-            long distinctCategories = habitRepository.countByUserId(user.getId()); // Simplification
-            if (distinctCategories >= 3) {
-                newAchievements.add(new Achievement(user.getId(), "Polyvalent",
-                        "Habitudes dans 3 catégories différentes", "🌈", Achievement.AchievementType.VARIETY));
-            }
-        }
-
-        return newAchievements;
-    }
-
-    private long calculateConsecutiveDays(Long userId) {
-        // Implémentation simplifiée
-        // Dans une vraie app, on calculerait les jours consécutifs avec progression
-        return progressRepository.countByUserIdAndDateAfter(userId,
-                java.time.LocalDate.now().minusDays(30));
-    }
-
-    private double calculateProgressToNext(Long userId) {
-        // Calcul simplifié du progrès vers le prochain achievement
-        long totalProgress = progressRepository.countByUserId(userId);
-        long nextMilestone = ((totalProgress / 10) + 1) * 10; // Prochain multiple de 10
-        return ((double) totalProgress / nextMilestone) * 100;
+    /**
+     * Règle non débloquée la plus proche de son seuil
+     */
+    private AchievementRule findNextRule(MetricsVector metrics, List<Achievement> userAchievements) {
+        Set<String> unlocked = userAchievements.stream()
+                .map(Achievement::getName)
+                .collect(Collectors.toSet());
+        return ruleRegistry.getRules().stream()
+                .filter(rule -> !unlocked.contains(rule.name()))
+                .max(Comparator.comparingDouble(rule -> rule.progress(metrics)))
+                .orElse(null);
     }
 }
\ No newline at end of file
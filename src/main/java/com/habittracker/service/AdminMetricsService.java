@@ -0,0 +1,230 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.dto.admin.AdminMetricsSnapshot;
+import com.habittracker.entity.User;
+import com.habittracker.repository.AchievementRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.projection.CategoryCount;
+import com.habittracker.repository.projection.DailyActivityCount;
+import com.habittracker.repository.projection.HabitRanking;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Service de calcul des métriques d'administration
+ * Un instantané est recalculé périodiquement, conservé en mémoire et partagé via Redis
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminMetricsService {
+
+    private static final String SNAPSHOT_KEY = "admin:metrics:snapshot";
+    // Profondeur de l'historique d'activité journalière conservé dans l'instantané
+    public static final int ACTIVITY_WINDOW_DAYS = 366;
+    private static final int GROWTH_MONTHS = 6;
+    private static final int BEST_COMPLETION_DAYS = 30;
+    private static final String[] MONTH_LABELS =
+            {"Jan", "Fév", "Mar", "Avr", "Mai", "Juin", "Juil", "Août", "Sep", "Oct", "Nov", "Déc"};
+
+    private final UserRepository userRepository;
+    private final HabitRepository habitRepository;
+    private final ProgressRepository progressRepository;
+    private final AchievementRepository achievementRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<AdminMetricsSnapshot> currentSnapshot = new AtomicReference<>();
+
+    @Value("${app.admin.metrics.refresh-interval:300}") // 5 minutes
+    private long refreshInterval;
+
+    /**
+     * Instantané courant (mémoire, puis Redis, puis calcul immédiat)
+     */
+    public AdminMetricsSnapshot getSnapshot() {
+        AdminMetricsSnapshot snapshot = currentSnapshot.get();
+        return snapshot != null ? snapshot : loadInitialSnapshot();
+    }
+
+    /**
+     * Rafraîchissement planifié de l'instantané
+     */
+    @Scheduled(fixedDelayString = "${app.admin.metrics.refresh-interval:300}",
+            initialDelayString = "${app.admin.metrics.initial-delay:30}",
+            timeUnit = TimeUnit.SECONDS)
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("❌ Erreur lors du rafraîchissement des métriques admin: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcule l'instantané et le publie en mémoire et dans Redis
+     * (un seul calcul à la fois, les lecteurs continuent de servir l'instantané précédent)
+     */
+    public synchronized AdminMetricsSnapshot refresh() {
+        long startTime = System.currentTimeMillis();
+
+        AdminMetricsSnapshot snapshot = computeSnapshot();
+        currentSnapshot.set(snapshot);
+        saveToRedis(snapshot);
+
+        log.debug("📊 Métriques admin recalculées en {}ms", System.currentTimeMillis() - startTime);
+        return snapshot;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Premier instantané (démarrage à froid) : un seul chargement, les appels concurrents
+     * attendent puis réutilisent son résultat
+     */
+    private synchronized AdminMetricsSnapshot loadInitialSnapshot() {
+        AdminMetricsSnapshot snapshot = currentSnapshot.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        snapshot = loadFromRedis();
+        if (snapshot != null) {
+            currentSnapshot.set(snapshot);
+            return snapshot;
+        }
+
+        return refresh();
+    }
+
+    private AdminMetricsSnapshot computeSnapshot() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Long> dailyProgress = new TreeMap<>();
+        Map<String, Long> dailyActiveUsers = new TreeMap<>();
+        for (DailyActivityCount activity : progressRepository.countDailyActivitySince(today.minusDays(ACTIVITY_WINDOW_DAYS - 1))) {
+            dailyProgress.put(activity.date().toString(), activity.progressCount());
+            dailyActiveUsers.put(activity.date().toString(), activity.activeUsers());
+        }
+
+        List<CategoryCount> categoryCounts = habitRepository.countActiveByCategory();
+
+        return AdminMetricsSnapshot.builder()
+                .computedAt(now)
+                .totalUsers(userRepository.count())
+                .activeUsers(userRepository.countByIsActive(true))
+                .nonAdminUsers(userRepository.countByRole(User.Role.USER))
+                .usersWithHabits(habitRepository.countDistinctByUserId())
+                .totalHabits(habitRepository.count())
+                .activeHabits(habitRepository.countByIsActive(true))
+                .totalProgress(progressRepository.count())
+                .totalAchievements(achievementRepository.count())
+                .newUsersThisWeek(userRepository.countByCreatedAtAfter(now.minusDays(7)))
+                .weeklyActiveUsers(progressRepository.countDistinctUsersSince(today.minusDays(6)))
+                .monthlyActiveUsers(progressRepository.countDistinctUsersSince(today.minusDays(29)))
+                .dailyProgress(dailyProgress)
+                .dailyActiveUsers(dailyActiveUsers)
+                .userGrowthLabels(buildGrowthLabels(today))
+                .userGrowthData(buildGrowthData(today))
+                .habitsByCategory(buildHabitsByCategory(categoryCounts))
+                .popularHabits(buildPopularHabits(categoryCounts, today))
+                .build();
+    }
+
+    /**
+     * Libellés des 6 derniers mois (mois courant inclus)
+     */
+    private List<String> buildGrowthLabels(LocalDate today) {
+        List<String> labels = new ArrayList<>();
+        for (int i = GROWTH_MONTHS - 1; i >= 0; i--) {
+            labels.add(MONTH_LABELS[today.minusMonths(i).getMonthValue() - 1]);
+        }
+        return labels;
+    }
+
+    /**
+     * Nombre cumulé d'utilisateurs à la fin de chacun des 6 derniers mois
+     */
+    private List<Long> buildGrowthData(LocalDate today) {
+        List<Long> data = new ArrayList<>();
+        for (int i = GROWTH_MONTHS - 1; i >= 0; i--) {
+            LocalDateTime monthEnd = today.minusMonths(i).withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            data.add(userRepository.countByCreatedAtIsNullOrCreatedAtBefore(monthEnd));
+        }
+        return data;
+    }
+
+    private Map<String, Long> buildHabitsByCategory(List<CategoryCount> categoryCounts) {
+        return categoryCounts.stream()
+                .collect(Collectors.toMap(count -> count.category().name(), CategoryCount::count));
+    }
+
+    private Map<String, String> buildPopularHabits(List<CategoryCount> categoryCounts, LocalDate today) {
+        Map<String, String> popular = new HashMap<>();
+
+        // Catégorie la plus représentée
+        String mostPopularCategory = categoryCounts.stream()
+                .max(Comparator.comparing(CategoryCount::count))
+                .map(count -> count.category().name())
+                .orElse("Aucune");
+
+        popular.put("mostCreated", mostPopularCategory);
+
+        // Habitude avec le plus de progressions
+        String mostProgressed = progressRepository.findTopHabitsByProgressCount(PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(HabitRanking::title)
+                .orElse("Aucune");
+
+        popular.put("mostProgressed", mostProgressed);
+
+        // Meilleur taux de complétion (jours actifs sur les 30 derniers jours)
+        String bestCompletion = progressRepository.findTopHabitsByActiveDaysSince(
+                        today.minusDays(BEST_COMPLETION_DAYS - 1), PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(ranking -> String.format("%s (%d%%)", ranking.title(),
+                        Math.round(ranking.value() * 100.0 / BEST_COMPLETION_DAYS)))
+                .orElse("Aucune");
+
+        popular.put("bestCompletion", bestCompletion);
+
+        return popular;
+    }
+
+    private AdminMetricsSnapshot loadFromRedis() {
+        try {
+            String json = stringRedisTemplate.opsForValue().get(SNAPSHOT_KEY);
+            return json != null ? objectMapper.readValue(json, AdminMetricsSnapshot.class) : null;
+        } catch (Exception e) {
+            log.warn("❌ Lecture des métriques admin depuis Redis impossible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveToRedis(AdminMetricsSnapshot snapshot) {
+        try {
+            // Expire après deux intervalles pour ne jamais servir un instantané abandonné
+            stringRedisTemplate.opsForValue().set(SNAPSHOT_KEY, objectMapper.writeValueAsString(snapshot),
+                    Duration.ofSeconds(refreshInterval * 2));
+        } catch (Exception e) {
+            log.warn("❌ Écriture des métriques admin dans Redis impossible: {}", e.getMessage());
+        }
+    }
+}
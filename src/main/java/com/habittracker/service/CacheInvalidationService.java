@@ -0,0 +1,209 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Diffusion des invalidations de cache local entre les instances via Redis pub/sub
+ * Les invalidations sont regroupées et publiées par lots pour ne pas saturer le canal
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationService {
+
+    private static final String CHANNEL = "cache:invalidation";
+    private static final int MAX_ENTRIES_PER_MESSAGE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final ObjectMapper objectMapper;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPrefixes = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> resyncListeners = new CopyOnWriteArrayList<>();
+
+    // Vrai après le premier abonnement ou un échec : tout abonnement suivant a pu manquer des messages
+    private final AtomicBoolean resubscription = new AtomicBoolean();
+
+    private volatile RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Lot d'invalidations : clés exactes et préfixes de clés
+     */
+    public record Invalidation(String origin, Collection<String> keys, Collection<String> prefixes) {
+    }
+
+    /**
+     * Abonnement au canal, réessayé périodiquement tant que Redis est indisponible
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.subscribe-retry-interval:30}",
+            timeUnit = TimeUnit.SECONDS)
+    public synchronized void ensureSubscribed() {
+        if (listenerContainer != null && listenerContainer.isListening()) {
+            return;
+        }
+
+        unsubscribe();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(new ChannelListener(), new ChannelTopic(CHANNEL));
+
+        try {
+            container.afterPropertiesSet();
+            container.start();
+            listenerContainer = container;
+            log.info("📡 Abonné au canal d'invalidation des caches ({})", CHANNEL);
+        } catch (Exception e) {
+            destroyQuietly(container);
+            resubscription.set(true);
+            log.warn("❌ Abonnement aux invalidations de cache impossible: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void unsubscribe() {
+        if (listenerContainer != null) {
+            destroyQuietly(listenerContainer);
+            listenerContainer = null;
+        }
+    }
+
+    /**
+     * Enregistre un consommateur des invalidations reçues des autres instances
+     */
+    public void addListener(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Enregistre une action de resynchronisation (vider le cache local), exécutée à chaque réabonnement :
+     * les invalidations publiées pendant la coupure ne seront jamais reçues
+     */
+    public void addResyncListener(Runnable listener) {
+        resyncListeners.add(listener);
+    }
+
+    /**
+     * Planifie la diffusion de l'invalidation d'une clé
+     */
+    public void publishKey(String key) {
+        pendingKeys.add(key);
+    }
+
+    /**
+     * Planifie la diffusion de l'invalidation de toutes les clés d'un préfixe
+     */
+    public void publishPrefix(String prefix) {
+        pendingPrefixes.add(prefix);
+    }
+
+    /**
+     * Publie les invalidations en attente (un message par lot) ;
+     * les lots non publiés sont remis en attente pour la tentative suivante
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        if (pendingKeys.isEmpty() && pendingPrefixes.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = drain(pendingKeys);
+        List<String> prefixes = drain(pendingPrefixes);
+
+        int published = 0;
+        try {
+            for (; published < Math.max(keys.size(), prefixes.size()); published += MAX_ENTRIES_PER_MESSAGE) {
+                Invalidation batch = new Invalidation(nodeId, slice(keys, published), slice(prefixes, published));
+                stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(batch));
+            }
+            log.debug("📣 Invalidations publiées: {} clés, {} préfixes", keys.size(), prefixes.size());
+        } catch (Exception e) {
+            pendingKeys.addAll(keys.subList(Math.min(published, keys.size()), keys.size()));
+            pendingPrefixes.addAll(prefixes.subList(Math.min(published, prefixes.size()), prefixes.size()));
+            log.warn("❌ Publication des invalidations impossible, remises en attente: {}", e.getMessage());
+        }
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Réception des messages et des confirmations d'abonnement (y compris après une reprise
+     * automatique de la connexion par le conteneur)
+     */
+    private class ChannelListener implements MessageListener, SubscriptionListener {
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            CacheInvalidationService.this.onMessage(message, pattern);
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            if (resubscription.getAndSet(true)) {
+                resyncListeners.forEach(Runnable::run);
+                log.info("📡 Réabonné au canal d'invalidation : caches locaux vidés");
+            }
+        }
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), Invalidation.class);
+
+            if (nodeId.equals(invalidation.origin())) {
+                return; // Déjà appliquée localement
+            }
+
+            listeners.forEach(listener -> listener.accept(invalidation));
+            log.debug("📥 Invalidations reçues: {} clés, {} préfixes",
+                    invalidation.keys().size(), invalidation.prefixes().size());
+        } catch (Exception e) {
+            log.warn("❌ Message d'invalidation illisible: {}", e.getMessage());
+        }
+    }
+
+    private void destroyQuietly(RedisMessageListenerContainer container) {
+        try {
+            container.destroy();
+        } catch (Exception e) {
+            log.debug("Arrêt du conteneur d'abonnement: {}", e.getMessage());
+        }
+    }
+
+    private List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private List<String> slice(List<String> values, int from) {
+        return from >= values.size() ? List.of() : values.subList(from, Math.min(values.size(), from + MAX_ENTRIES_PER_MESSAGE));
+    }
+}
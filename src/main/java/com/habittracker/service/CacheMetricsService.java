@@ -0,0 +1,156 @@
+package com.habittracker.service;
+
+import com.habittracker.config.CacheSpec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques Micrometer par cache logique : succès et échecs par niveau (L1 mémoire, L2 Redis),
+ * temps de calcul, invalidations et taille des valeurs stockées dans Redis
+ * Meters : app.cache.requests, app.cache.load, app.cache.evictions, app.cache.payload.size
+ */
+@Service
+public class CacheMetricsService {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    public enum Level {
+        L1, L2
+    }
+
+    private final Map<CacheSpec, Meters> meters = new EnumMap<>(CacheSpec.class);
+
+    public CacheMetricsService(MeterRegistry meterRegistry) {
+        for (CacheSpec spec : CacheSpec.values()) {
+            meters.put(spec, new Meters(meterRegistry, spec.getCacheName()));
+        }
+    }
+
+    /**
+     * Compteurs et distributions d'un cache
+     */
+    private static final class Meters {
+
+        private final Counter l1Hits;
+        private final Counter l1Misses;
+        private final Counter l2Hits;
+        private final Counter l2Misses;
+        private final Counter evictions;
+        private final Timer loads;
+        private final DistributionSummary payloadSizes;
+
+        private Meters(MeterRegistry registry, String cacheName) {
+            this.l1Hits = requests(registry, cacheName, Level.L1, "hit");
+            this.l1Misses = requests(registry, cacheName, Level.L1, "miss");
+            this.l2Hits = requests(registry, cacheName, Level.L2, "hit");
+            this.l2Misses = requests(registry, cacheName, Level.L2, "miss");
+            this.evictions = Counter.builder("app.cache.evictions")
+                    .description("Invalidations explicites (clés, préfixes ou générations)")
+                    .tag("cache", cacheName)
+                    .register(registry);
+            this.loads = Timer.builder("app.cache.load")
+                    .description("Temps de calcul des valeurs manquantes")
+                    .tag("cache", cacheName)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+            this.payloadSizes = DistributionSummary.builder("app.cache.payload.size")
+                    .description("Taille des valeurs écrites dans Redis")
+                    .baseUnit("bytes")
+                    .tag("cache", cacheName)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+        }
+
+        private static Counter requests(MeterRegistry registry, String cacheName, Level level, String result) {
+            return Counter.builder("app.cache.requests")
+                    .description("Lectures du cache par niveau et résultat")
+                    .tag("cache", cacheName)
+                    .tag("level", level.name().toLowerCase())
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+
+    // === ENREGISTREMENT ===
+
+    public void recordHit(String key, Level level) {
+        Meters m = meters.get(CacheSpec.forKey(key));
+        (level == Level.L1 ? m.l1Hits : m.l2Hits).increment();
+    }
+
+    public void recordMiss(String key, Level level) {
+        Meters m = meters.get(CacheSpec.forKey(key));
+        (level == Level.L1 ? m.l1Misses : m.l2Misses).increment();
+    }
+
+    public void recordLoad(String key, long nanos) {
+        meters.get(CacheSpec.forKey(key)).loads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPayload(String key, int bytes) {
+        meters.get(CacheSpec.forKey(key)).payloadSizes.record(bytes);
+    }
+
+    public void recordEviction(CacheSpec spec) {
+        meters.get(spec).evictions.increment();
+    }
+
+    // === CONSULTATION ===
+
+    /**
+     * Synthèse par cache : taux de succès, temps de calcul et tailles (percentiles)
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+
+        meters.forEach((spec, m) -> {
+            // Toute lecture commence par le L1 ; un succès L2 rattrape un échec L1
+            double hits = m.l1Hits.count() + m.l2Hits.count();
+            double lookups = m.l1Hits.count() + m.l1Misses.count();
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("ttlSeconds", spec.getTtl().toSeconds());
+            values.put("l1Hits", (long) m.l1Hits.count());
+            values.put("l1Misses", (long) m.l1Misses.count());
+            values.put("l2Hits", (long) m.l2Hits.count());
+            values.put("l2Misses", (long) m.l2Misses.count());
+            values.put("hitRate", lookups > 0 ? Math.min(100.0, Math.round(hits * 10000.0 / lookups) / 100.0) : 0.0);
+            values.put("evictions", (long) m.evictions.count());
+            values.put("loads", m.loads.count());
+            values.put("loadMeanMs", round(m.loads.mean(TimeUnit.MILLISECONDS)));
+            values.put("loadMaxMs", round(m.loads.max(TimeUnit.MILLISECONDS)));
+            values.put("loadPercentilesMs", percentiles(m.loads.takeSnapshot().percentileValues(), true));
+            values.put("payloadCount", m.payloadSizes.count());
+            values.put("payloadMeanBytes", round(m.payloadSizes.mean()));
+            values.put("payloadMaxBytes", round(m.payloadSizes.max()));
+            values.put("payloadPercentilesBytes", percentiles(m.payloadSizes.takeSnapshot().percentileValues(), false));
+            stats.put(spec.getCacheName(), values);
+        });
+
+        return stats;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Map<String, Double> percentiles(ValueAtPercentile[] values, boolean time) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (ValueAtPercentile value : values) {
+            double v = time ? value.value(TimeUnit.MILLISECONDS) : value.value();
+            result.put("p" + Math.round(value.percentile() * 100), round(v));
+        }
+        return result;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.habittracker.service;
+
+import com.habittracker.config.CachePayloadFormat;
+import com.habittracker.config.CachePayloadSerializer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comparaison des formats de sérialisation des caches sur une charge réelle
+ * (taille, temps moyen d'encodage et de décodage, avec et sans compression)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CachePayloadBenchmarkService {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int COMPRESS_ALWAYS = 0;
+    private static final int COMPRESS_NEVER = -1;
+
+    private final ChartStatisticsIntegrationService chartStatisticsIntegrationService;
+    private final CachePayloadSerializer cachePayloadSerializer;
+
+    /**
+     * Mesure chaque format sur les données complètes d'une habitude (payload le plus volumineux)
+     */
+    public Map<String, Object> benchmarkHabitData(Long habitId, int days, int iterations) {
+        Map<String, Object> sample = chartStatisticsIntegrationService.getCompleteHabitData(habitId, days);
+        return benchmark(sample, iterations);
+    }
+
+    /**
+     * Mesure chaque format sur une valeur donnée, comparée au JSON non compressé
+     */
+    public Map<String, Object> benchmark(Object sample, int iterations) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        long jsonSize = 0;
+
+        for (CachePayloadFormat format : CachePayloadFormat.values()) {
+            for (int threshold : new int[]{COMPRESS_NEVER, COMPRESS_ALWAYS}) {
+                Map<String, Object> result = measure(new CachePayloadSerializer(format, threshold), sample, iterations);
+                if (format == CachePayloadFormat.JSON && threshold == COMPRESS_NEVER) {
+                    jsonSize = (long) result.get("sizeBytes");
+                }
+                results.add(result);
+            }
+        }
+
+        for (Map<String, Object> result : results) {
+            long size = (long) result.get("sizeBytes");
+            result.put("sizeVsJson", jsonSize > 0 ? Math.round(size * 1000.0 / jsonSize) / 10.0 : 0.0);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("iterations", iterations);
+        report.put("configuredFormat", cachePayloadSerializer.getFormat());
+        report.put("compressionEnabled", cachePayloadSerializer.isCompressionEnabled());
+        report.put("results", results);
+
+        log.info("📦 Benchmark sérialisation: {} formats mesurés sur {} itérations", results.size(), iterations);
+        return report;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Map<String, Object> measure(CachePayloadSerializer serializer, Object sample, int iterations) {
+        byte[] payload = serializer.serialize(sample);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            serializer.deserialize(serializer.serialize(sample), Map.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            payload = serializer.serialize(sample);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            serializer.deserialize(payload, Map.class);
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", serializer.getFormat());
+        result.put("lz4", serializer.isCompressionEnabled());
+        result.put("sizeBytes", (long) payload.length);
+        result.put("encodeMicros", Math.round(encodeNanos / 10.0 / iterations) / 100.0);
+        result.put("decodeMicros", Math.round(decodeNanos / 10.0 / iterations) / 100.0);
+        return result;
+    }
+}
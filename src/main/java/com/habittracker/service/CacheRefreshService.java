@@ -0,0 +1,118 @@
+package com.habittracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.dto.progress.ProgressStatsResponse;
+import com.habittracker.event.HabitCachesInvalidatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rafraîchissement des caches après écriture (refresh-ahead)
+ * Les variantes lues récemment (fenêtre de jours, type de graphique) sont mémorisées par
+ * habitude ; après le commit d'une écriture elles sont recalculées en arrière-plan et
+ * republiées, pour que les lecteurs d'habitudes actives ne subissent pas de recalcul
+ */
+@Service
+@Slf4j
+public class CacheRefreshService {
+
+    private static final int MAX_VARIANTS_PER_HABIT = 16;
+
+    private final CacheService cacheService;
+    private final ProgressService progressService;
+    private final boolean enabled;
+
+    // Habitudes lues récemment et variantes demandées
+    private final Cache<Long, Set<Variant>> activeVariants;
+
+    public CacheRefreshService(CacheService cacheService,
+                               ProgressService progressService,
+                               @Value("${app.cache.refresh.enabled:true}") boolean enabled,
+                               @Value("${app.cache.refresh.active-window:30}") long activeWindowMinutes,
+                               @Value("${app.cache.refresh.max-habits:10000}") long maxHabits) {
+        this.cacheService = cacheService;
+        this.progressService = progressService;
+        this.enabled = enabled;
+        this.activeVariants = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(activeWindowMinutes))
+                .maximumSize(maxHabits)
+                .build();
+    }
+
+    /**
+     * Variante lue : statistiques (chartType null) ou graphique d'une fenêtre de jours
+     */
+    private record Variant(int days, String chartType) {
+    }
+
+    // === SUIVI DES LECTURES ===
+
+    public void trackHabitStats(Long habitId, int days) {
+        track(habitId, new Variant(days, null));
+    }
+
+    public void trackChartData(Long habitId, int days, String chartType) {
+        track(habitId, new Variant(days, chartType));
+    }
+
+    // === RAFRAÎCHISSEMENT ===
+
+    @Async("cacheRefreshExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHabitCachesInvalidated(HabitCachesInvalidatedEvent event) {
+        if (enabled) {
+            refreshHabit(event.habitId());
+        }
+    }
+
+    /**
+     * Recalcule et republie toutes les variantes actives d'une habitude
+     */
+    public int refreshHabit(Long habitId) {
+        Set<Variant> variants = activeVariants.getIfPresent(habitId);
+        if (variants == null || variants.isEmpty()) {
+            return 0;
+        }
+
+        int refreshed = 0;
+        for (Variant variant : variants) {
+            try {
+                if (variant.chartType() == null) {
+                    cacheService.refreshHabitStats(habitId, variant.days(), ProgressStatsResponse.class,
+                            () -> progressService.getHabitStatistics(habitId, variant.days()));
+                } else {
+                    cacheService.refreshChartData(habitId, variant.days(), variant.chartType(),
+                            () -> progressService.getChartData(habitId, variant.days(), variant.chartType()));
+                }
+                refreshed++;
+            } catch (Exception e) {
+                log.warn("❌ Rafraîchissement du cache de l'habitude {} ({}) impossible: {}",
+                        habitId, variant, e.getMessage());
+            }
+        }
+
+        log.debug("♻️ Habitude {}: {} variantes de cache rafraîchies", habitId, refreshed);
+        return refreshed;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void track(Long habitId, Variant variant) {
+        if (!enabled) {
+            return;
+        }
+
+        Set<Variant> variants = activeVariants.get(habitId, id -> ConcurrentHashMap.newKeySet());
+        if (variants.size() < MAX_VARIANTS_PER_HABIT) {
+            variants.add(variant);
+        }
+    }
+}
@@ -1,70 +1,276 @@
 package com.habittracker.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.habittracker.config.CacheKey;
+import com.habittracker.config.CachePayloadSerializer;
+import com.habittracker.config.CacheSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.Map;
-import java.util.Optional;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Cache à deux niveaux : cache local borné en mémoire (L1) devant Redis (L2)
+ * Les limites du L1 sont configurables par cache (app.cache.l1.{cache}.max-size / ttl)
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CacheService {
 
+    private static final String LOCK_PREFIX = "lock:";
+    // Caches dont les clés portent la génération de l'habitude
+    private static final Set<CacheSpec> GENERATION_SCOPED =
+            EnumSet.of(CacheSpec.HABIT_STATS, CacheSpec.CHART_DATA, CacheSpec.HABIT_COMPLETE_DATA);
+    private static final long LOCK_POLL_MS = 50;
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
     private final StringRedisTemplate stringRedisTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RedisTemplate<String, byte[]> cacheRedisTemplate;
+    private final CachePayloadSerializer cachePayloadSerializer;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final ThreadPoolTaskExecutor cacheRefreshExecutor;
+    private final CacheMetricsService cacheMetricsService;
+
+    private final Map<CacheSpec, Cache<String, LocalEntry>> localCaches = new EnumMap<>(CacheSpec.class);
+    private final Map<CacheSpec, Duration> localTtls = new EnumMap<>(CacheSpec.class);
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.stampede.distributed-lock:false}")
+    private boolean distributedLock;
 
-    // === CACHE SIMPLE AVEC STRING REDIS TEMPLATE ===
+    @Value("${app.cache.stampede.lock-ttl-ms:5000}")
+    private long lockTtlMs;
+
+    @Value("${app.cache.stampede.lock-wait-ms:500}")
+    private long lockWaitMs;
+
+    @Value("${app.cache.stampede.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${app.cache.stampede.default-compute-ms:100}")
+    private long defaultComputeMs;
 
     /**
-     * Met en cache une valeur avec TTL (JSON String)
+     * Entrée du cache local avec sa propre durée de vie (jamais plus longue que celle du cache)
      */
-    public void cache(String key, Object value, Duration ttl) {
-        try {
-            String jsonValue = objectMapper.writeValueAsString(value);
-            stringRedisTemplate.opsForValue().set(key, jsonValue, ttl);
-            log.debug("✅ Cached: {} (TTL: {})", key, ttl);
-        } catch (Exception e) {
-            log.warn("❌ Cache error: {}", e.getMessage());
+    private record LocalEntry(Object value, Duration ttl, long expiresAt, long computeNanos) {
+    }
+
+    /**
+     * Expiration propre à chaque entrée, fixée à l'écriture
+     */
+    private static class LocalEntryExpiry implements Expiry<String, LocalEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, LocalEntry entry, long currentTime) {
+            return entry.ttl().toNanos();
         }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Crée un cache local par cache applicatif, avec statistiques exposées via Micrometer
+     */
+    @PostConstruct
+    void initLocalCaches() {
+        for (CacheSpec spec : CacheSpec.values()) {
+            String prefix = "app.cache.l1." + spec.getCacheName();
+            long maxSize = environment.getProperty(prefix + ".max-size", Long.class, spec.getDefaultMaxSize());
+            long ttlSeconds = environment.getProperty(prefix + ".ttl", Long.class, spec.getLocalTtl().toSeconds());
+
+            Cache<String, LocalEntry> cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(new LocalEntryExpiry())
+                    .recordStats()
+                    .build();
+
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "l1-" + spec.getCacheName());
+            localCaches.put(spec, cache);
+            localTtls.put(spec, Duration.ofSeconds(ttlSeconds));
+            log.debug("⚙️ Cache local {}: {} entrées max, TTL {}s", spec.getCacheName(), maxSize, ttlSeconds);
+        }
+
+        // Invalidations émises par les autres instances
+        cacheInvalidationService.addListener(invalidation -> {
+            invalidation.keys().forEach(this::invalidateLocal);
+            invalidation.prefixes().forEach(this::invalidateLocalByPrefix);
+        });
+
+        // Invalidations manquées pendant une coupure de l'abonnement : le L1 repart de Redis
+        cacheInvalidationService.addResyncListener(() -> localCaches.values().forEach(Cache::invalidateAll));
+    }
+
+    // === CACHE À DEUX NIVEAUX ===
+
+    /**
+     * Met en cache une valeur avec TTL (L1 en mémoire, L2 Redis au format configuré)
+     */
+    public void cache(String key, Object value, Duration ttl) {
+        putLocal(key, value, ttl);
+        writeRemote(key, value, ttl);
     }
 
     /**
-     * Récupère une valeur du cache
+     * Récupère une valeur du cache (L1, puis L2 avec remplissage du L1)
      */
     @SuppressWarnings("unchecked")
     public <T> Optional<Map<String, Object>> get(String key, Class<T> type) {
-        try {
-            String jsonValue = stringRedisTemplate.opsForValue().get(key);
-            if (jsonValue != null) {
-                T value = objectMapper.readValue(jsonValue, type);
-                log.debug("🎯 Cache hit: {}", key);
-                return (Optional<Map<String, Object>>) Optional.of(value);
+        LocalEntry local = getLocalEntry(key);
+        if (local != null) {
+            log.debug("🎯 L1 hit: {}", key);
+            return (Optional<Map<String, Object>>) Optional.of(asType(local.value(), type));
+        }
+
+        return (Optional<Map<String, Object>>) getRemote(key, type);
+    }
+
+    /**
+     * Récupère une valeur ou la calcule, avec un seul calcul par clé et par instance
+     * Une entrée proche de l'expiration est recalculée par anticipation en arrière-plan
+     * (probabilité croissante à l'approche du TTL, pondérée par le temps de calcul)
+     */
+    public <T> T getOrLoad(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        LocalEntry local = getLocalEntry(key);
+        if (local != null) {
+            if (shouldRefreshEarly(local) && !inFlightLoads.containsKey(key)) {
+                log.debug("♻️ Rafraîchissement anticipé: {}", key);
+                refreshAsync(key, type, ttl, loader);
             }
-            log.debug("⚡ Cache miss: {}", key);
-            return Optional.empty();
-        } catch (Exception e) {
-            log.warn("❌ Cache read error: {}", e.getMessage());
-            return Optional.empty();
+            return asType(local.value(), type);
         }
+
+        Optional<T> remote = getRemote(key, type);
+        if (remote.isPresent()) {
+            return remote.get();
+        }
+
+        return load(key, type, ttl, loader, true);
     }
 
     /**
-     * Supprime une clé du cache
+     * Recalcule une valeur et la republie (L1 et L2), même si elle est déjà en cache
      */
-    public void evict(String key) {
+    public <T> T refresh(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        // Jamais de jonction avec un calcul en cours : il a pu lire les données d'avant l'écriture.
+        // Les lecteurs qui arrivent pendant le rafraîchissement attendent sa valeur
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        inFlightLoads.put(key, flight);
+
         try {
-            stringRedisTemplate.delete(key);
-            log.debug("🗑️ Evicted: {}", key);
-        } catch (Exception e) {
-            log.warn("❌ Cache evict error: {}", e.getMessage());
+            T value = compute(key, ttl, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, flight);
+        }
+    }
+
+    /**
+     * Met en cache une valeur uniquement dans le cache local de l'instance
+     */
+    public void cacheLocal(String key, Object value, Duration ttl) {
+        putLocal(key, value, ttl);
+    }
+
+    /**
+     * Récupère une valeur du cache local de l'instance
+     */
+    public <T> Optional<T> getLocal(String key, Class<T> type) {
+        LocalEntry local = getLocalEntry(key);
+        return local != null ? Optional.of(asType(local.value(), type)) : Optional.empty();
+    }
+
+    /**
+     * Valeur du cache local de l'instance, calculée une fois si absente (sans Redis)
+     */
+    public <T> T getOrLoadLocal(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        Optional<T> local = getLocal(key, type);
+        if (local.isPresent()) {
+            return local.get();
         }
+
+        long start = System.nanoTime();
+        T value = loader.get();
+        long computeNanos = System.nanoTime() - start;
+
+        cacheMetricsService.recordLoad(key, computeNanos);
+        putLocal(key, value, ttl, computeNanos);
+        return value;
+    }
+
+    /**
+     * Supprime une clé du cache (L1 de toutes les instances et L2)
+     */
+    public void evict(String key) {
+        evictAll(List.of(key));
+    }
+
+    /**
+     * Statistiques des caches locaux (succès, échecs, taille)
+     */
+    public Map<String, Map<String, Object>> getLocalCacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+
+        localCaches.forEach((spec, cache) -> {
+            CacheStats cacheStats = cache.stats();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", cache.estimatedSize());
+            values.put("hits", cacheStats.hitCount());
+            values.put("misses", cacheStats.missCount());
+            values.put("hitRate", Math.round(cacheStats.hitRate() * 10000.0) / 100.0);
+            values.put("evictions", cacheStats.evictionCount());
+            stats.put(spec.getCacheName(), values);
+        });
+
+        return stats;
     }
 
     // === MÉTHODES SPÉCIALISÉES ===
@@ -74,42 +280,203 @@ public class CacheService {
      */
     @Cacheable(value = "user-stats", key = "#userId")
     public void cacheUserStats(Long userId, Map<String, Object> stats) {
-        cache("user:stats:" + userId, stats, Duration.ofHours(1));
+        cache(CacheSpec.USER_STATS.getKeyPrefix() + userId, stats, CacheSpec.USER_STATS.getTtl());
     }
 
     /**
      * Récupère les stats utilisateur
      */
     public Optional<Map<String, Object>> getUserStats(Long userId) {
-        return get("user:stats:" + userId, Map.class);
+        return get(CacheSpec.USER_STATS.getKeyPrefix() + userId, Map.class);
     }
 
     /**
-     * Cache les stats d'une habitude (30min)
+     * Cache les stats d'une habitude pour une fenêtre de jours (30min)
      */
-    public void cacheHabitStats(Long habitId, Object stats) {
-        cache("habit:stats:" + habitId, stats, Duration.ofMinutes(30));
+    public void cacheHabitStats(Long habitId, int days, Object stats) {
+        cache(habitStatsKey(habitId, days), stats, CacheSpec.HABIT_STATS.getTtl());
     }
 
     /**
-     * Récupère les stats d'habitude
+     * Récupère les stats d'habitude pour une fenêtre de jours
      */
-    public <T> Optional<T> getHabitStats(Long habitId, Class<T> type) {
-        return (Optional<T>) get("habit:stats:" + habitId, type);
+    public <T> Optional<T> getHabitStats(Long habitId, int days, Class<T> type) {
+        return (Optional<T>) get(habitStatsKey(habitId, days), type);
+    }
+
+    /**
+     * Stats d'une habitude depuis le cache ou calculées une seule fois (30min)
+     */
+    public <T> T getOrLoadHabitStats(Long habitId, int days, Class<T> type, Supplier<T> loader) {
+        return getOrLoad(habitStatsKey(habitId, days), type, CacheSpec.HABIT_STATS.getTtl(), loader);
     }
 
     /**
      * Cache les données de graphique (15min)
      */
-    public void cacheChartData(Long habitId, String chartType, Object data) {
-        cache("chart:" + habitId + ":" + chartType, data, Duration.ofMinutes(15));
+    public void cacheChartData(Long habitId, int days, String chartType, Object data) {
+        cache(chartDataKey(habitId, days, chartType), data, CacheSpec.CHART_DATA.getTtl());
     }
 
     /**
      * Récupère les données de graphique
      */
-    public Optional<Map<String, Object>> getChartData(Long habitId, String chartType) {
-        return get("chart:" + habitId + ":" + chartType, Map.class);
+    public Optional<Map<String, Object>> getChartData(Long habitId, int days, String chartType) {
+        return get(chartDataKey(habitId, days, chartType), Map.class);
+    }
+
+    /**
+     * Données de graphique depuis le cache ou calculées une seule fois (15min)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getOrLoadChartData(Long habitId, int days, String chartType,
+                                                  Supplier<Map<String, Object>> loader) {
+        return getOrLoad(chartDataKey(habitId, days, chartType), Map.class,
+                CacheSpec.CHART_DATA.getTtl(), (Supplier) loader);
+    }
+
+    /**
+     * Données complètes d'une habitude (stats + graphiques) depuis le cache ou calculées une seule fois (30min)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getOrLoadHabitData(Long habitId, int days, Supplier<Map<String, Object>> loader) {
+        String key = CacheKey.of(CacheSpec.HABIT_COMPLETE_DATA, habitId)
+                .generation(getHabitGeneration(habitId))
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
+        return getOrLoad(key, Map.class, CacheSpec.HABIT_COMPLETE_DATA.getTtl(), (Supplier) loader);
+    }
+
+    /**
+     * Statistiques détaillées d'une habitude (StatisticsService) depuis le cache ou calculées une seule fois (30min)
+     * Clé distincte des ProgressStatsResponse de la même fenêtre
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getOrLoadHabitStatistics(Long habitId, int days, Supplier<Map<String, Object>> loader) {
+        String key = CacheKey.of(CacheSpec.HABIT_STATS, habitId)
+                .generation(getHabitGeneration(habitId))
+                .param("view", "detailed")
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
+        return getOrLoad(key, Map.class, CacheSpec.HABIT_STATS.getTtl(), (Supplier) loader);
+    }
+
+    /**
+     * Recalcule les stats d'une habitude sous sa génération courante
+     */
+    public <T> T refreshHabitStats(Long habitId, int days, Class<T> type, Supplier<T> loader) {
+        return refresh(habitStatsKey(habitId, days), type, CacheSpec.HABIT_STATS.getTtl(), loader);
+    }
+
+    /**
+     * Recalcule un graphique d'une habitude sous sa génération courante
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> refreshChartData(Long habitId, int days, String chartType,
+                                                Supplier<Map<String, Object>> loader) {
+        return refresh(chartDataKey(habitId, days, chartType), Map.class, CacheSpec.CHART_DATA.getTtl(), (Supplier) loader);
+    }
+
+    /**
+     * Plusieurs graphiques d'une habitude : une lecture groupée, puis calcul des manquants
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<String, Object>> getOrLoadChartDataBatch(Long habitId, int days, Collection<String> chartTypes,
+                                                                    Function<String, Map<String, Object>> loader) {
+        Map<String, String> keysByType = new LinkedHashMap<>();
+        chartTypes.forEach(chartType -> keysByType.put(chartType, chartDataKey(habitId, days, chartType)));
+
+        Map<String, Map> cached = multiGet(keysByType.values(), Map.class);
+        Map<String, Map<String, Object>> charts = new LinkedHashMap<>();
+
+        keysByType.forEach((chartType, key) -> {
+            Map<String, Object> chart = cached.get(key);
+            charts.put(chartType, chart != null ? chart : getOrLoad(key, Map.class, CacheSpec.CHART_DATA.getTtl(),
+                    () -> loader.apply(chartType)));
+        });
+        return charts;
+    }
+
+    // === GÉNÉRATIONS ===
+
+    /**
+     * Génération courante des données d'une habitude (0 tant qu'elle n'a jamais été invalidée)
+     */
+    public long getHabitGeneration(Long habitId) {
+        String key = generationKey(habitId);
+        LocalEntry local = getLocalEntry(key);
+        if (local != null) {
+            return asType(local.value(), Long.class);
+        }
+
+        // Copie locale de quelques secondes : Redis reste la référence
+        long generation = getRemote(key, Long.class).orElse(0L);
+        putLocal(key, generation, localTtls.get(CacheSpec.HABIT_GENERATION));
+        return generation;
+    }
+
+    /**
+     * Passe à la génération suivante : toutes les variantes en cache (fenêtres, dates,
+     * types de graphique) deviennent inaccessibles d'un coup et expirent d'elles-mêmes
+     * Immédiat, même dans une transaction (les méthodes evict* attendent le commit)
+     */
+    public long bumpHabitGeneration(Long habitId) {
+        return invalidateNow(List.of(), List.of(habitId)).get(habitId);
+    }
+
+    // === OPÉRATIONS GROUPÉES ===
+
+    /**
+     * Lecture groupée : L1 d'abord, puis un seul MGET Redis pour les clés manquantes
+     * Seules les clés trouvées figurent dans le résultat
+     */
+    public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> type) {
+        Map<String, T> found = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        for (String key : keys) {
+            LocalEntry local = getLocalEntry(key);
+            if (local != null) {
+                found.put(key, asType(local.value(), type));
+            } else {
+                misses.add(key);
+            }
+        }
+
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        try {
+            List<byte[]> payloads = cacheRedisTemplate.opsForValue().multiGet(misses);
+            for (int i = 0; payloads != null && i < misses.size(); i++) {
+                String key = misses.get(i);
+                if (payloads.get(i) != null) {
+                    T value = cachePayloadSerializer.deserialize(payloads.get(i), type);
+                    putLocal(key, value, CacheSpec.forKey(key).getTtl());
+                    cacheMetricsService.recordHit(key, CacheMetricsService.Level.L2);
+                    found.put(key, value);
+                } else {
+                    cacheMetricsService.recordMiss(key, CacheMetricsService.Level.L2);
+                }
+            }
+            log.debug("🎯 Multi-get: {}/{} clés trouvées", found.size(), keys.size());
+        } catch (Exception e) {
+            log.warn("❌ Cache multi-get error: {}", e.getMessage());
+        }
+        return found;
+    }
+
+    /**
+     * Suppression groupée (L1 de toutes les instances, puis un seul UNLINK Redis)
+     */
+    public void evictAll(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            List<String> evicted = List.copyOf(keys);
+            afterCommit(() -> invalidateNow(evicted, List.of()));
+        }
     }
 
     // === INVALIDATION SIMPLE ===
@@ -119,30 +486,59 @@ public class CacheService {
      */
     @CacheEvict(value = "user-stats", key = "#userId")
     public void evictUserCaches(Long userId) {
-        evict("user:stats:" + userId);
-        log.info("🧹 User {} caches evicted", userId);
+        afterCommit(() -> {
+            invalidateNow(List.of(CacheSpec.USER_STATS.getKeyPrefix() + userId), List.of());
+            evictLocalByPrefix(CacheKey.prefix(CacheSpec.USER_DASHBOARD, userId));
+            log.info("🧹 User {} caches evicted", userId);
+        });
     }
 
     /**
      * Invalide tous les caches d'une habitude
      */
     public void evictHabitCaches(Long habitId) {
-        evict("habit:stats:" + habitId);
-        // Éviter les patterns complexes, supprimer manuellement les types de graphiques courants
-        evict("chart:" + habitId + ":line");
-        evict("chart:" + habitId + ":bar");
-        log.info("🧹 Habit {} caches evicted", habitId);
+        afterCommit(() -> {
+            long generation = bumpHabitGeneration(habitId);
+            log.info("🧹 Habit {} caches evicted (generation {})", habitId, generation);
+        });
+    }
+
+    /**
+     * Invalide les caches d'une habitude et de son propriétaire en un seul aller-retour Redis
+     */
+    public void evictHabitAndUserCaches(Long habitId, Long userId) {
+        afterCommit(() -> {
+            invalidateNow(List.of(CacheSpec.USER_STATS.getKeyPrefix() + userId), List.of(habitId));
+            evictLocalByPrefix(CacheKey.prefix(CacheSpec.USER_DASHBOARD, userId));
+        });
     }
 
     /**
      * Invalide après modification de progression
      */
     public void evictProgressCaches(Long habitId, Long userId) {
-        evictHabitCaches(habitId);
-        evictUserCaches(userId);
+        evictHabitAndUserCaches(habitId, userId);
         log.info("📈 Progress caches evicted (habit: {}, user: {})", habitId, userId);
     }
 
+    /**
+     * Invalide après un import groupé : toutes les habitudes et leurs propriétaires en un seul pipeline Redis
+     */
+    public void evictProgressCaches(Map<Long, Long> ownersByHabit) {
+        if (ownersByHabit.isEmpty()) {
+            return;
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>(ownersByHabit.values());
+        Set<Long> habitIds = new LinkedHashSet<>(ownersByHabit.keySet());
+        afterCommit(() -> {
+            invalidateNow(userIds.stream().map(userId -> CacheSpec.USER_STATS.getKeyPrefix() + userId).toList(),
+                    habitIds);
+            userIds.forEach(userId -> evictLocalByPrefix(CacheKey.prefix(CacheSpec.USER_DASHBOARD, userId)));
+            log.info("📈 Progress caches evicted ({} habits, {} users)", habitIds.size(), userIds.size());
+        });
+    }
+
     // === MÉTHODES UTILITAIRES ===
 
     /**
@@ -174,7 +570,8 @@ public class CacheService {
             // Mise en cache
             cache(testKey, testData, Duration.ofMinutes(1));
 
-            // Lecture
+            // Lecture depuis Redis (sans passer par le cache local)
+            localCache(testKey).invalidate(testKey);
             Optional<Map<String, Object>> cached = get(testKey, Map.class);
 
             if (cached.isPresent()) {
@@ -199,4 +596,321 @@ public class CacheService {
             );
         }
     }
-}
\ No newline at end of file
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Dans une transaction, l'invalidation attend le commit : un lecteur qui recalculerait
+     * entre-temps lirait l'état d'avant l'écriture et le republierait sous la nouvelle génération
+     * Annulée avec la transaction (rollback) ; immédiate hors transaction
+     */
+    private void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+
+    /**
+     * Invalidation en un seul pipeline Redis : UNLINK des clés, puis INCR + EXPIRE du
+     * compteur de génération de chaque habitude. Retourne les nouvelles générations
+     */
+    private Map<Long, Long> invalidateNow(Collection<String> keys, Collection<Long> habitIds) {
+        keys.forEach(key -> {
+            invalidateLocal(key);
+            cacheInvalidationService.publishKey(key);
+            cacheMetricsService.recordEviction(CacheSpec.forKey(key));
+        });
+        habitIds.forEach(habitId -> GENERATION_SCOPED.forEach(cacheMetricsService::recordEviction));
+
+        // Générations connues localement (sans lecture Redis supplémentaire)
+        Map<Long, Long> generations = new LinkedHashMap<>();
+        habitIds.forEach(habitId -> generations.put(habitId, getLocal(generationKey(habitId), Long.class).orElse(0L)));
+
+        long generationTtl = CacheSpec.HABIT_GENERATION.getTtl().toSeconds();
+        List<Object> replies = null;
+
+        try {
+            replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                if (!keys.isEmpty()) {
+                    connection.keyCommands().unlink(keys.stream().map(this::rawKey).toArray(byte[][]::new));
+                }
+                for (Long habitId : habitIds) {
+                    byte[] generationKey = rawKey(generationKey(habitId));
+                    connection.stringCommands().incr(generationKey);
+                    connection.keyCommands().expire(generationKey, generationTtl);
+                }
+                return null;
+            });
+            log.debug("🗑️ Evicted: {} clés, {} générations", keys.size(), habitIds.size());
+        } catch (Exception e) {
+            log.warn("❌ Cache evict error: {}", e.getMessage());
+        }
+
+        int offset = keys.isEmpty() ? 0 : 1;
+        int index = 0;
+        for (Map.Entry<Long, Long> entry : generations.entrySet()) {
+            long previous = entry.getValue();
+            Object reply = replies != null ? replies.get(offset + 2 * index++) : null;
+            long generation = reply instanceof Long next ? next : previous + 1;
+
+            // Compteur Redis perdu (redémarrage) : ne jamais revenir à une génération déjà servie
+            if (replies != null && generation <= previous) {
+                generation = previous + 1;
+                restoreGeneration(entry.getKey(), generation);
+            }
+
+            String generationKey = generationKey(entry.getKey());
+            putLocal(generationKey, generation, CacheSpec.HABIT_GENERATION.getTtl());
+            cacheInvalidationService.publishKey(generationKey);
+            entry.setValue(generation);
+        }
+        return generations;
+    }
+
+    private void restoreGeneration(Long habitId, long generation) {
+        try {
+            stringRedisTemplate.opsForValue().set(generationKey(habitId), String.valueOf(generation),
+                    CacheSpec.HABIT_GENERATION.getTtl());
+        } catch (Exception e) {
+            log.warn("❌ Cache generation error: {}", e.getMessage());
+        }
+    }
+
+    private byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Supprime du cache local de toutes les instances les clés d'un préfixe
+     */
+    private void evictLocalByPrefix(String prefix) {
+        invalidateLocalByPrefix(prefix);
+        cacheMetricsService.recordEviction(CacheSpec.forKey(prefix));
+        cacheInvalidationService.publishPrefix(prefix);
+    }
+
+    private void invalidateLocal(String key) {
+        localCache(key).invalidate(key);
+    }
+
+    private void invalidateLocalByPrefix(String prefix) {
+        localCache(prefix).asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Clés paramétrées : génération de l'habitude, fenêtre demandée et date du jour
+     * (la fenêtre glisse chaque jour)
+     */
+    private String habitStatsKey(Long habitId, int days) {
+        return CacheKey.of(CacheSpec.HABIT_STATS, habitId)
+                .generation(getHabitGeneration(habitId))
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
+    }
+
+    private String chartDataKey(Long habitId, int days, String chartType) {
+        return CacheKey.of(CacheSpec.CHART_DATA, habitId)
+                .generation(getHabitGeneration(habitId))
+                .param("type", chartType)
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
+    }
+
+    private String generationKey(Long habitId) {
+        return CacheSpec.HABIT_GENERATION.getKeyPrefix() + habitId;
+    }
+
+    /**
+     * Lecture du cache local avec comptage succès / échec
+     */
+    private LocalEntry getLocalEntry(String key) {
+        LocalEntry local = localCache(key).getIfPresent(key);
+        if (local != null) {
+            cacheMetricsService.recordHit(key, CacheMetricsService.Level.L1);
+        } else {
+            cacheMetricsService.recordMiss(key, CacheMetricsService.Level.L1);
+        }
+        return local;
+    }
+
+    private Cache<String, LocalEntry> localCache(String key) {
+        return localCaches.get(CacheSpec.forKey(key));
+    }
+
+    private void putLocal(String key, Object value, Duration ttl) {
+        putLocal(key, value, ttl, TimeUnit.MILLISECONDS.toNanos(defaultComputeMs));
+    }
+
+    private void putLocal(String key, Object value, Duration ttl, long computeNanos) {
+        if (value == null) {
+            return;
+        }
+
+        Duration maxTtl = localTtls.get(CacheSpec.forKey(key));
+        Duration effectiveTtl = ttl.compareTo(maxTtl) < 0 ? ttl : maxTtl;
+
+        localCache(key).put(key, new LocalEntry(value, effectiveTtl,
+                System.nanoTime() + effectiveTtl.toNanos(), computeNanos));
+    }
+
+    /**
+     * Lecture Redis avec remplissage du cache local
+     */
+    private <T> Optional<T> getRemote(String key, Class<T> type) {
+        try {
+            byte[] payload = cacheRedisTemplate.opsForValue().get(key);
+            if (payload != null) {
+                T value = cachePayloadSerializer.deserialize(payload, type);
+                putLocal(key, value, CacheSpec.forKey(key).getTtl());
+                cacheMetricsService.recordHit(key, CacheMetricsService.Level.L2);
+                log.debug("🎯 Cache hit: {}", key);
+                return Optional.of(value);
+            }
+            cacheMetricsService.recordMiss(key, CacheMetricsService.Level.L2);
+            log.debug("⚡ Cache miss: {}", key);
+            return Optional.empty();
+        } catch (Exception e) {
+            cacheMetricsService.recordMiss(key, CacheMetricsService.Level.L2);
+            log.warn("❌ Cache read error: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Expiration anticipée probabiliste : now + calcul * beta * -ln(rand) >= expiration
+     */
+    private boolean shouldRefreshEarly(LocalEntry entry) {
+        double gap = entry.computeNanos() * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.nanoTime() + gap >= entry.expiresAt();
+    }
+
+    /**
+     * Recalcul sur le pool dédié ; abandonné si le pool est saturé
+     */
+    private <T> void refreshAsync(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        cacheRefreshExecutor.execute(() -> {
+            try {
+                load(key, type, ttl, loader, false);
+            } catch (RuntimeException e) {
+                log.warn("❌ Rafraîchissement anticipé de {} impossible: {}", key, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Calcul unique par clé : les appels concurrents attendent le résultat du premier
+     */
+    private <T> T load(String key, Class<T> type, Duration ttl, Supplier<T> loader, boolean useLock) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            try {
+                return asType(existing.join(), type);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            T value = useLock && distributedLock ? loadWithLock(key, type, ttl, loader) : compute(key, ttl, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, flight);
+        }
+    }
+
+    /**
+     * Verrou Redis court entre instances : celles qui ne l'obtiennent pas attendent la valeur
+     */
+    private <T> T loadWithLock(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        String lockKey = LOCK_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        boolean acquired;
+
+        try {
+            acquired = Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs)));
+        } catch (Exception e) {
+            log.debug("Verrou Redis indisponible pour {}: {}", key, e.getMessage());
+            return compute(key, ttl, loader);
+        }
+
+        if (!acquired) {
+            Optional<T> awaited = awaitRemote(key, type);
+            if (awaited.isPresent()) {
+                return awaited.get();
+            }
+            return compute(key, ttl, loader);
+        }
+
+        try {
+            return compute(key, ttl, loader);
+        } finally {
+            try {
+                stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
+            } catch (Exception e) {
+                log.debug("Libération du verrou {} impossible: {}", lockKey, e.getMessage());
+            }
+        }
+    }
+
+    private <T> Optional<T> awaitRemote(String key, Class<T> type) {
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            Optional<T> value = getRemote(key, type);
+            if (value.isPresent()) {
+                return value;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private <T> T compute(String key, Duration ttl, Supplier<T> loader) {
+        long start = System.nanoTime();
+        T value = loader.get();
+        long computeNanos = System.nanoTime() - start;
+
+        cacheMetricsService.recordLoad(key, computeNanos);
+        putLocal(key, value, ttl, computeNanos);
+        writeRemote(key, value, ttl);
+        return value;
+    }
+
+    private void writeRemote(String key, Object value, Duration ttl) {
+        try {
+            byte[] payload = cachePayloadSerializer.serialize(value);
+            cacheRedisTemplate.opsForValue().set(key, payload, ttl);
+            cacheMetricsService.recordPayload(key, payload.length);
+            log.debug("✅ Cached: {} (TTL: {})", key, ttl);
+        } catch (Exception e) {
+            log.warn("❌ Cache error: {}", e.getMessage());
+        }
+    }
+
+    private <T> T asType(Object value, Class<T> type) {
+        return type.isInstance(value) ? type.cast(value) : objectMapper.convertValue(value, type);
+    }
+}
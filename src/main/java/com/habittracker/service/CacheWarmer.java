@@ -0,0 +1,179 @@
+package com.habittracker.service;
+
+import com.habittracker.repository.ProgressRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préchauffage des caches au démarrage : dashboards des utilisateurs les plus actifs
+ * (statistiques, tendances, comparaison) puis statistiques et graphiques de leurs habitudes,
+ * en parallèle (concurrence bornée) et dans un budget de temps
+ * S'exécute en arrière-plan : le démarrage n'attend pas la fin du préchauffage
+ * L'avancement est exposé par l'endpoint actuator "cachewarmup"
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(110) // Après les initialisations (index, rollups, admin)
+public class CacheWarmer implements CommandLineRunner {
+
+    private static final String DEFAULT_CHART_TYPE = "line";
+
+    private final ProgressRepository progressRepository;
+    private final ChartStatisticsIntegrationService chartStatisticsIntegrationService;
+    private final CachedServices cachedServices;
+
+    @Value("${app.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.warmup.time-budget:60}")
+    private long timeBudgetSeconds;
+
+    @Value("${app.cache.warmup.max-users:200}")
+    private int maxUsers;
+
+    @Value("${app.cache.warmup.active-days:7}")
+    private int activeDays;
+
+    @Value("${app.cache.warmup.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.cache.warmup.days:30}")
+    private int days;
+
+    private final AtomicInteger totalTasks = new AtomicInteger();
+    private final AtomicInteger completedTasks = new AtomicInteger();
+    private final AtomicInteger failedTasks = new AtomicInteger();
+    private final AtomicInteger skippedTasks = new AtomicInteger();
+
+    private volatile Status status = Status.PENDING;
+    private volatile int users;
+    private volatile int habits;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public enum Status {
+        PENDING, DISABLED, RUNNING, COMPLETED, BUDGET_EXCEEDED, FAILED
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            status = Status.DISABLED;
+            return;
+        }
+
+        Thread warmup = new Thread(this::warmUp, "cache-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    /**
+     * Avancement du préchauffage
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("status", status);
+        progress.put("users", users);
+        progress.put("habits", habits);
+        progress.put("totalTasks", totalTasks.get());
+        progress.put("completedTasks", completedTasks.get());
+        progress.put("failedTasks", failedTasks.get());
+        progress.put("skippedTasks", skippedTasks.get());
+        progress.put("percent", totalTasks.get() > 0
+                ? Math.round(completedTasks.get() * 1000.0 / totalTasks.get()) / 10.0 : 0.0);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("timeBudgetSeconds", timeBudgetSeconds);
+        return progress;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void warmUp() {
+        status = Status.RUNNING;
+        startedAt = Instant.now();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeBudgetSeconds);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            LocalDate since = LocalDate.now().minusDays(activeDays);
+            List<Long> userIds = progressRepository.findMostActiveUserIdsSince(since, PageRequest.of(0, maxUsers));
+            List<Long> habitIds = userIds.isEmpty() ? List.of() : progressRepository.findHabitIdsByUserIdInSince(userIds, since);
+            users = userIds.size();
+            habits = habitIds.size();
+
+            // Utilisateurs les plus actifs d'abord : ce sont eux qui reviennent en premier
+            List<Runnable> tasks = new ArrayList<>();
+            userIds.forEach(userId -> tasks.add(() -> chartStatisticsIntegrationService.getCompleteUserDashboard(userId, days)));
+            // Mêmes entrées que celles lues par les endpoints (paramètres par défaut)
+            habitIds.forEach(habitId -> {
+                tasks.add(() -> cachedServices.getHabitStatistics(habitId, days));
+                tasks.add(() -> cachedServices.getChartData(habitId, days, DEFAULT_CHART_TYPE));
+                tasks.add(() -> chartStatisticsIntegrationService.getHabitStatistics(habitId, days));
+                tasks.add(() -> chartStatisticsIntegrationService.getHabitChart(habitId, DEFAULT_CHART_TYPE, days));
+            });
+
+            totalTasks.set(tasks.size());
+            log.info("🔥 Préchauffage des caches: {} utilisateurs actifs, {} habitudes ({} tâches, budget {}s)",
+                    users, habits, tasks.size(), timeBudgetSeconds);
+
+            tasks.forEach(task -> executor.execute(() -> runWithinBudget(task, deadline)));
+            executor.shutdown();
+
+            boolean finished = executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            status = finished && skippedTasks.get() == 0 ? Status.COMPLETED : Status.BUDGET_EXCEEDED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = Status.FAILED;
+        } catch (Exception e) {
+            log.error("❌ Erreur lors du préchauffage des caches: {}", e.getMessage());
+            status = Status.FAILED;
+        } finally {
+            executor.shutdownNow();
+            finishedAt = Instant.now();
+        }
+
+        log.info("✅ Préchauffage des caches {}: {}/{} tâches en {} ms ({} échecs, {} hors budget)",
+                status, completedTasks.get(), totalTasks.get(),
+                finishedAt.toEpochMilli() - startedAt.toEpochMilli(), failedTasks.get(),
+                totalTasks.get() - completedTasks.get() - failedTasks.get());
+    }
+
+    private void runWithinBudget(Runnable task, long deadline) {
+        if (System.nanoTime() >= deadline || Thread.currentThread().isInterrupted()) {
+            skippedTasks.incrementAndGet();
+            return;
+        }
+
+        try {
+            task.run();
+            completedTasks.incrementAndGet();
+        } catch (Exception e) {
+            failedTasks.incrementAndGet();
+            log.debug("Tâche de préchauffage en échec: {}", e.getMessage());
+        }
+    }
+}
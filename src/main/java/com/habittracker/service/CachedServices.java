@@ -3,19 +3,23 @@ package com.habittracker.service;
 import com.habittracker.dto.habit.HabitCreateRequest;
 import com.habittracker.dto.habit.HabitResponse;
 import com.habittracker.dto.habit.HabitUpdateRequest;
+import com.habittracker.dto.progress.ProgressBatchRequest;
+import com.habittracker.dto.progress.ProgressBatchResponse;
 import com.habittracker.dto.progress.ProgressCreateRequest;
 import com.habittracker.dto.progress.ProgressResponse;
 import com.habittracker.dto.progress.ProgressStatsResponse;
 import com.habittracker.dto.progress.ProgressUpdateRequest;
+import com.habittracker.event.HabitCachesInvalidatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Extensions des services avec cache Redis simple
@@ -28,41 +32,36 @@ public class CachedServices {
     private final HabitService habitService;
     private final ProgressService progressService;
     private final CacheService cacheService;
+    private final CacheRefreshService cacheRefreshService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // === HABIT SERVICE AVEC CACHE ===
 
     /**
-     * Récupère les statistiques d'une habitude avec cache
+     * Récupère les statistiques d'une habitude avec cache (un seul calcul concurrent par clé)
      */
     public ProgressStatsResponse getHabitStatistics(Long habitId, int days) {
-        // Vérifier le cache
-        Optional<ProgressStatsResponse> cached = cacheService.getHabitStats(habitId, ProgressStatsResponse.class);
-        if (cached.isPresent()) {
-            log.debug("🎯 Habit stats cache hit: {}", habitId);
-            return cached.get();
-        }
-
-        // Calculer et cacher
-        ProgressStatsResponse stats = progressService.getHabitStatistics(habitId, days);
-        cacheService.cacheHabitStats(habitId, stats);
-        return stats;
+        cacheRefreshService.trackHabitStats(habitId, days);
+        return cacheService.getOrLoadHabitStats(habitId, days, ProgressStatsResponse.class,
+                () -> progressService.getHabitStatistics(habitId, days));
     }
 
     /**
-     * Récupère les données de graphique avec cache
+     * Récupère les données de graphique avec cache (un seul calcul concurrent par clé)
      */
     public Map<String, Object> getChartData(Long habitId, int days, String chartType) {
-        // Vérifier le cache
-        Optional<Map<String, Object>> cached = cacheService.getChartData(habitId, chartType);
-        if (cached.isPresent()) {
-            log.debug("🎯 Chart data cache hit: {}/{}", habitId, chartType);
-            return cached.get();
-        }
-
-        // Calculer et cacher
-        Map<String, Object> data = progressService.getChartData(habitId, days, chartType);
-        cacheService.cacheChartData(habitId, chartType, data);
-        return data;
+        cacheRefreshService.trackChartData(habitId, days, chartType);
+        return cacheService.getOrLoadChartData(habitId, days, chartType,
+                () -> progressService.getChartData(habitId, days, chartType));
+    }
+
+    /**
+     * Récupère plusieurs graphiques d'une habitude (une seule lecture Redis groupée)
+     */
+    public Map<String, Map<String, Object>> getChartData(Long habitId, int days, Collection<String> chartTypes) {
+        chartTypes.forEach(chartType -> cacheRefreshService.trackChartData(habitId, days, chartType));
+        return cacheService.getOrLoadChartDataBatch(habitId, days, chartTypes,
+                chartType -> progressService.getChartData(habitId, days, chartType));
     }
 
     /**
@@ -82,8 +81,17 @@ public class CachedServices {
     @Transactional
     public HabitResponse updateHabit(Long id, Long userId, HabitUpdateRequest request) {
         HabitResponse habit = habitService.updateHabit(id, userId, request);
-        cacheService.evictHabitCaches(id);
-        cacheService.evictUserCaches(userId);
+        evictAndRefresh(id, userId);
+        return habit;
+    }
+
+    /**
+     * Active/désactive une habitude et invalide les caches
+     */
+    @Transactional
+    public HabitResponse toggleHabitStatus(Long id, Long userId) {
+        HabitResponse habit = habitService.toggleHabitStatus(id, userId);
+        cacheService.evictHabitAndUserCaches(id, userId);
         return habit;
     }
 
@@ -93,8 +101,7 @@ public class CachedServices {
     @Transactional
     public void deleteHabit(Long id, Long userId) {
         habitService.deleteHabit(id, userId);
-        cacheService.evictHabitCaches(id);
-        cacheService.evictUserCaches(userId);
+        cacheService.evictHabitAndUserCaches(id, userId);
     }
 
     // === PROGRESS SERVICE AVEC CACHE ===
@@ -105,7 +112,7 @@ public class CachedServices {
     @Transactional
     public ProgressResponse createProgress(Long habitId, ProgressCreateRequest request, Authentication auth) {
         ProgressResponse progress = progressService.createProgress(habitId, request, auth);
-        cacheService.evictProgressCaches(habitId, progress.getUserId());
+        evictAndRefresh(habitId, progress.getUserId());
         return progress;
     }
 
@@ -116,7 +123,7 @@ public class CachedServices {
     public ProgressResponse updateProgress(Long id, ProgressUpdateRequest request, Authentication auth) {
         ProgressResponse oldProgress = progressService.findById(id);
         ProgressResponse progress = progressService.updateProgress(id, request, auth);
-        cacheService.evictProgressCaches(oldProgress.getHabitId(), progress.getUserId());
+        evictAndRefresh(oldProgress.getHabitId(), progress.getUserId());
         return progress;
     }
 
@@ -127,7 +134,19 @@ public class CachedServices {
     public void deleteProgress(Long id, Authentication auth) {
         ProgressResponse progress = progressService.findById(id);
         progressService.deleteProgress(id, auth);
-        cacheService.evictProgressCaches(progress.getHabitId(), progress.getUserId());
+        evictAndRefresh(progress.getHabitId(), progress.getUserId());
+    }
+
+    /**
+     * Importe un lot de progressions et invalide les caches de chaque habitude touchée
+     */
+    @Transactional
+    public ProgressBatchResponse createProgressBatch(ProgressBatchRequest request, Authentication auth) {
+        ProgressBatchResponse response = progressService.createProgressBatch(request, auth);
+        cacheService.evictProgressCaches(response.getOwnersByHabit());
+        response.getOwnersByHabit().forEach((habitId, userId) ->
+                eventPublisher.publishEvent(new HabitCachesInvalidatedEvent(userId, habitId)));
+        return response;
     }
 
     // === MÉTHODES UTILITAIRES ===
@@ -143,7 +162,17 @@ public class CachedServices {
      * Invalide tous les caches d'une habitude
      */
     public void invalidateHabitCaches(Long habitId, Long userId) {
-        cacheService.evictHabitCaches(habitId);
-        cacheService.evictUserCaches(userId);
+        cacheService.evictHabitAndUserCaches(habitId, userId);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Après le commit : invalide les caches puis fait recalculer en arrière-plan
+     * les variantes lues récemment (CacheRefreshService)
+     */
+    private void evictAndRefresh(Long habitId, Long userId) {
+        cacheService.evictProgressCaches(habitId, userId);
+        eventPublisher.publishEvent(new HabitCachesInvalidatedEvent(userId, habitId));
     }
-}
\ No newline at end of file
+}
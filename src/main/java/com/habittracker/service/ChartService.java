@@ -1,9 +1,9 @@
 package com.habittracker.service;
 
+import com.habittracker.entity.DailyHabitRollup;
 import com.habittracker.entity.Habit;
-import com.habittracker.entity.Progress;
 import com.habittracker.repository.HabitRepository;
-import com.habittracker.repository.ProgressRepository;
+import com.habittracker.util.ActivityBitmap;
 import com.habittracker.util.ValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,8 +21,9 @@ import java.util.*;
 @Slf4j
 public class ChartService {
 
-    private final ProgressRepository progressRepository;
     private final HabitRepository habitRepository;
+    private final HabitActivityService habitActivityService;
+    private final RollupService rollupService;
 
     /**
      * Génère les données de graphique en ligne pour une habitude
@@ -32,11 +33,11 @@ public class ChartService {
         ValidationUtils.validatePositive(days, "nombre de jours");
 
         Habit habit = getHabit(habitId);
-        List<Progress> progressList = getProgressForPeriod(habitId, days);
+        List<DailyHabitRollup> rollups = getRollupsForPeriod(habitId, days);
 
         Map<String, Object> chartData = new HashMap<>();
         chartData.put("type", "line");
-        chartData.put("data", buildLineDataset(progressList, habit, days));
+        chartData.put("data", buildLineDataset(rollups, habit, days));
         chartData.put("options", getLineChartOptions(habit));
 
         log.debug("📊 Données graphique ligne générées pour habitude {}", habitId);
@@ -51,11 +52,11 @@ public class ChartService {
         ValidationUtils.validatePositive(days, "nombre de jours");
 
         Habit habit = getHabit(habitId);
-        List<Progress> progressList = getProgressForPeriod(habitId, days);
+        List<DailyHabitRollup> rollups = getRollupsForPeriod(habitId, days);
 
         Map<String, Object> chartData = new HashMap<>();
         chartData.put("type", "bar");
-        chartData.put("data", buildBarDataset(progressList, habit, days));
+        chartData.put("data", buildBarDataset(rollups, habit, days));
         chartData.put("options", getBarChartOptions(habit));
 
         log.debug("📊 Données graphique barres générées pour habitude {}", habitId);
@@ -87,14 +88,15 @@ public class ChartService {
         ValidationUtils.validateId(habitId, "habitude");
         ValidationUtils.validatePositive(days, "nombre de jours");
 
-        List<Progress> progressList = getProgressForPeriod(habitId, days);
-        Map<String, Integer> heatmapData = buildHeatmapData(progressList, days);
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days - 1);
+        ActivityBitmap activity = habitActivityService.getBitmap(habitId);
 
         Map<String, Object> result = new HashMap<>();
         result.put("type", "heatmap");
-        result.put("data", heatmapData);
+        result.put("data", activity.heatmap(startDate, endDate));
         result.put("totalDays", days);
-        result.put("activeDays", heatmapData.size());
+        result.put("activeDays", activity.countBetween(startDate, endDate));
 
         log.debug("🔥 Données heatmap générées pour habitude {}", habitId);
         return result;
@@ -107,19 +109,19 @@ public class ChartService {
                 .orElseThrow(() -> new RuntimeException("Habitude non trouvée: " + habitId));
     }
 
-    private List<Progress> getProgressForPeriod(Long habitId, int days) {
+    private List<DailyHabitRollup> getRollupsForPeriod(Long habitId, int days) {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
-        return progressRepository.findByHabitIdAndDateBetween(habitId, startDate, endDate);
+        return rollupService.getHabitDailyRollups(habitId, startDate, endDate);
     }
 
     /**
      * Construit le dataset pour graphique ligne
      */
-    private Map<String, Object> buildLineDataset(List<Progress> progressList, Habit habit, int days) {
+    private Map<String, Object> buildLineDataset(List<DailyHabitRollup> rollups, Habit habit, int days) {
         // Créer une carte date -> valeur
         Map<LocalDate, Double> progressMap = new HashMap<>();
-        progressList.forEach(p -> progressMap.put(p.getDate(), p.getValue()));
+        rollups.forEach(r -> progressMap.put(r.getDate(), r.getValueSum()));
 
         // Générer les labels (dates) et données
         List<String> labels = new ArrayList<>();
@@ -171,9 +173,9 @@ public class ChartService {
     /**
      * Construit le dataset pour graphique barres
      */
-    private Map<String, Object> buildBarDataset(List<Progress> progressList, Habit habit, int days) {
+    private Map<String, Object> buildBarDataset(List<DailyHabitRollup> rollups, Habit habit, int days) {
         Map<LocalDate, Double> progressMap = new HashMap<>();
-        progressList.forEach(p -> progressMap.put(p.getDate(), p.getValue()));
+        rollups.forEach(r -> progressMap.put(r.getDate(), r.getValueSum()));
 
         List<String> labels = new ArrayList<>();
         List<Double> values = new ArrayList<>();
@@ -236,50 +238,32 @@ public class ChartService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusWeeks(8); // 8 semaines
 
-        List<Progress> progressList = progressRepository.findByHabitIdAndDateBetween(habitId, startDate, endDate);
+        List<DailyHabitRollup> rollups = rollupService.getHabitDailyRollups(habitId, startDate, endDate);
 
-        Map<String, List<Double>> weeklyGroups = new HashMap<>();
+        Map<String, double[]> weeklyTotals = new HashMap<>();
 
-        for (Progress progress : progressList) {
+        for (DailyHabitRollup rollup : rollups) {
             // Calculer la semaine (format "2024-S01")
-            LocalDate date = progress.getDate();
+            LocalDate date = rollup.getDate();
             int year = date.getYear();
             int weekOfYear = date.getDayOfYear() / 7 + 1;
             String weekKey = String.format("%d-S%02d", year, weekOfYear);
 
-            weeklyGroups.computeIfAbsent(weekKey, k -> new ArrayList<>()).add(progress.getValue());
+            double[] totals = weeklyTotals.computeIfAbsent(weekKey, k -> new double[2]);
+            totals[0] += rollup.getValueSum();
+            totals[1] += rollup.getEntryCount();
         }
 
         // Calculer les moyennes
         Map<String, Double> weeklyAverages = new HashMap<>();
-        weeklyGroups.forEach((week, values) -> {
-            double average = values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        weeklyTotals.forEach((week, totals) -> {
+            double average = totals[1] > 0 ? totals[0] / totals[1] : 0.0;
             weeklyAverages.put(week, Math.round(average * 100.0) / 100.0);
         });
 
         return weeklyAverages;
     }
 
-    /**
-     * Construit les données de heatmap
-     */
-    private Map<String, Integer> buildHeatmapData(List<Progress> progressList, int days) {
-        Map<String, Integer> heatmapData = new HashMap<>();
-
-        LocalDate currentDate = LocalDate.now().minusDays(days - 1);
-        for (int i = 0; i < days; i++) {
-            String dateKey = currentDate.toString();
-            LocalDate finalCurrentDate = currentDate;
-            boolean hasProgress = progressList.stream()
-                    .anyMatch(p -> p.getDate().equals(finalCurrentDate));
-
-            heatmapData.put(dateKey, hasProgress ? 1 : 0);
-            currentDate = currentDate.plusDays(1);
-        }
-
-        return heatmapData;
-    }
-
     /**
      * Options pour graphique ligne
      */
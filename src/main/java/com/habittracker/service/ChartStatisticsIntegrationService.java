@@ -1,12 +1,15 @@
 package com.habittracker.service;
 
+import com.habittracker.config.CacheKey;
+import com.habittracker.config.CacheSpec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Service d'intégration pour combiner graphiques et statistiques avec cache
@@ -16,76 +19,97 @@ import java.util.Map;
 @Slf4j
 public class ChartStatisticsIntegrationService {
 
+    // Le graphique hebdomadaire ne dépend pas de la fenêtre demandée
+    private static final int WEEKLY_CHART_DAYS = 7;
+
     private final ChartService chartService;
     private final StatisticsService statisticsService;
     private final CacheService cacheService;
 
+    // === LECTURES AVEC CACHE ===
+
     /**
-     * Récupère toutes les données d'une habitude (stats + graphiques)
+     * Graphique d'une habitude (line, bar, weekly, heatmap), invalidé par génération
+     * Préfixe "chart-" : mêmes entrées de cache que les graphiques de ProgressService, sans collision
      */
-    @Cacheable(value = "habit-complete-data", key = "#habitId + '_' + #days")
-    public Map<String, Object> getCompleteHabitData(Long habitId, int days) {
-        log.info("📊 Génération données complètes pour habitude {} ({} jours)", habitId, days);
-
-        Map<String, Object> completeData = new HashMap<>();
+    public Map<String, Object> getHabitChart(Long habitId, String type, int days) {
+        String chartType = type.toLowerCase();
+        Supplier<Map<String, Object>> loader = switch (chartType) {
+            case "line" -> () -> chartService.generateLineChartData(habitId, days);
+            case "bar" -> () -> chartService.generateBarChartData(habitId, days);
+            case "weekly" -> () -> chartService.generateWeeklyProgressChart(habitId);
+            case "heatmap" -> () -> chartService.generateHeatmapData(habitId, days);
+            default -> throw new IllegalArgumentException("Type de graphique non supporté: " + type);
+        };
+
+        int window = "weekly".equals(chartType) ? WEEKLY_CHART_DAYS : days;
+        return cacheService.getOrLoadChartData(habitId, window, "chart-" + chartType, loader);
+    }
 
-        try {
-            // Statistiques
-            Map<String, Object> stats = statisticsService.calculateHabitStatistics(habitId, days);
-            completeData.put("statistics", stats);
+    /**
+     * Statistiques détaillées d'une habitude, invalidées par génération
+     */
+    public Map<String, Object> getHabitStatistics(Long habitId, int days) {
+        return cacheService.getOrLoadHabitStatistics(habitId, days,
+                () -> statisticsService.calculateHabitStatistics(habitId, days));
+    }
 
-            // Graphiques
-            Map<String, Object> charts = new HashMap<>();
-            charts.put("line", chartService.generateLineChartData(habitId, days));
-            charts.put("bar", chartService.generateBarChartData(habitId, days));
-            charts.put("weekly", chartService.generateWeeklyProgressChart(habitId));
-            charts.put("heatmap", chartService.generateHeatmapData(habitId, Math.min(days, 90)));
+    /**
+     * Statistiques d'un utilisateur, mémorisées localement comme le dashboard
+     */
+    public Map<String, Object> getUserStatistics(Long userId, int days) {
+        return memoizeUserView(userId, "statistics", days, () -> statisticsService.calculateUserStatistics(userId, days));
+    }
 
-            completeData.put("charts", charts);
-            completeData.put("generatedAt", System.currentTimeMillis());
+    /**
+     * Tendances mensuelles d'un utilisateur, mémorisées localement comme le dashboard
+     */
+    public Map<String, Object> getMonthlyTrends(Long userId) {
+        return memoizeUserView(userId, "trends", null, () -> statisticsService.calculateMonthlyTrends(userId));
+    }
 
-            log.info("✅ Données complètes générées pour habitude {}", habitId);
+    /**
+     * Comparaison des habitudes d'un utilisateur, mémorisée localement comme le dashboard
+     */
+    public Map<String, Object> compareHabits(Long userId) {
+        return memoizeUserView(userId, "comparison", null, () -> statisticsService.compareHabits(userId));
+    }
 
+    /**
+     * Récupère toutes les données d'une habitude (stats + graphiques), avec cache
+     * (invalidé par génération lors des écritures sur l'habitude)
+     */
+    public Map<String, Object> getCompleteHabitData(Long habitId, int days) {
+        try {
+            return cacheService.getOrLoadHabitData(habitId, days, () -> buildCompleteHabitData(habitId, days));
         } catch (Exception e) {
             log.error("❌ Erreur génération données habitude {}: {}", habitId, e.getMessage());
+            Map<String, Object> completeData = new HashMap<>();
             completeData.put("error", "Erreur lors de la génération des données");
+            return completeData;
         }
-
-        return completeData;
     }
 
     /**
-     * Récupère un dashboard utilisateur complet avec cache
+     * Récupère un dashboard utilisateur complet, mémorisé localement sur l'instance
+     * (invalidé sur toutes les instances par CacheService.evictUserCaches)
      */
-    @Cacheable(value = "user-dashboard", key = "#userId + '_' + #days")
+    @SuppressWarnings("unchecked")
     public Map<String, Object> getCompleteUserDashboard(Long userId, int days) {
-        log.info("📊 Génération dashboard complet pour utilisateur {} ({} jours)", userId, days);
-
-        Map<String, Object> dashboard = new HashMap<>();
+        String memoKey = CacheKey.of(CacheSpec.USER_DASHBOARD, userId)
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
 
         try {
-            // Statistiques globales
-            dashboard.put("statistics", statisticsService.calculateUserStatistics(userId, days));
-
-            // Tendances
-            dashboard.put("trends", statisticsService.calculateMonthlyTrends(userId));
-
-            // Comparaison habitudes
-            dashboard.put("comparison", statisticsService.compareHabits(userId));
-
-            // Métadonnées
-            dashboard.put("userId", userId);
-            dashboard.put("period", days);
-            dashboard.put("generatedAt", System.currentTimeMillis());
-
-            log.info("✅ Dashboard complet généré pour utilisateur {}", userId);
-
+            return cacheService.getOrLoadLocal(memoKey, Map.class, CacheSpec.USER_DASHBOARD.getTtl(),
+                    () -> buildUserDashboard(userId, days));
         } catch (Exception e) {
             log.error("❌ Erreur génération dashboard utilisateur {}: {}", userId, e.getMessage());
+            Map<String, Object> dashboard = new HashMap<>();
             dashboard.put("error", "Erreur lors de la génération du dashboard");
+            return dashboard;
         }
-
-        return dashboard;
     }
 
     /**
@@ -202,4 +226,65 @@ public class ChartStatisticsIntegrationService {
         log.info("⚡ Test terminé en {}ms pour habitude {}", totalTime, habitId);
         return results;
     }
-}
\ No newline at end of file
+
+    // === CONSTRUCTION DES DONNÉES ===
+
+    private Map<String, Object> buildCompleteHabitData(Long habitId, int days) {
+        log.info("📊 Génération données complètes pour habitude {} ({} jours)", habitId, days);
+
+        Map<String, Object> completeData = new HashMap<>();
+
+        // Statistiques
+        Map<String, Object> stats = statisticsService.calculateHabitStatistics(habitId, days);
+        completeData.put("statistics", stats);
+
+        // Graphiques
+        Map<String, Object> charts = new HashMap<>();
+        charts.put("line", chartService.generateLineChartData(habitId, days));
+        charts.put("bar", chartService.generateBarChartData(habitId, days));
+        charts.put("weekly", chartService.generateWeeklyProgressChart(habitId));
+        charts.put("heatmap", chartService.generateHeatmapData(habitId, Math.min(days, 90)));
+
+        completeData.put("charts", charts);
+        completeData.put("generatedAt", System.currentTimeMillis());
+
+        log.info("✅ Données complètes générées pour habitude {}", habitId);
+        return completeData;
+    }
+
+    private Map<String, Object> buildUserDashboard(Long userId, int days) {
+        log.info("📊 Génération dashboard complet pour utilisateur {} ({} jours)", userId, days);
+
+        Map<String, Object> dashboard = new HashMap<>();
+
+        // Statistiques globales
+        dashboard.put("statistics", getUserStatistics(userId, days));
+
+        // Tendances
+        dashboard.put("trends", getMonthlyTrends(userId));
+
+        // Comparaison habitudes
+        dashboard.put("comparison", compareHabits(userId));
+
+        // Métadonnées
+        dashboard.put("userId", userId);
+        dashboard.put("period", days);
+        dashboard.put("generatedAt", System.currentTimeMillis());
+
+        log.info("✅ Dashboard complet généré pour utilisateur {}", userId);
+        return dashboard;
+    }
+
+    /**
+     * Sous le préfixe du dashboard de l'utilisateur : invalidé avec lui (CacheService.evictUserCaches)
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> memoizeUserView(Long userId, String view, Integer days, Supplier<Map<String, Object>> loader) {
+        String memoKey = CacheKey.of(CacheSpec.USER_DASHBOARD, userId)
+                .param("view", view)
+                .param("days", days)
+                .param("date", LocalDate.now())
+                .build();
+        return cacheService.getOrLoadLocal(memoKey, Map.class, CacheSpec.USER_DASHBOARD.getTtl(), (Supplier) loader);
+    }
+}
@@ -0,0 +1,161 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.HabitActivity;
+import com.habittracker.repository.HabitActivityRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.util.ActivityBitmap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Service de maintenance des bitmaps d'activité par habitude
+ * Un seul chargement suffit pour les séries, le taux de complétion et la heatmap
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(40) // Avant la construction des index de séries
+public class HabitActivityService implements CommandLineRunner {
+
+    private final HabitActivityRepository habitActivityRepository;
+    private final ProgressRepository progressRepository;
+    private final HabitRepository habitRepository;
+
+    /**
+     * Construit les bitmaps manquants (données existantes ou importées)
+     */
+    @Override
+    @Transactional
+    public void run(String... args) {
+        try {
+            List<Long> habitIds = habitActivityRepository.findHabitIdsWithoutActivity();
+            habitIds.forEach(this::rebuild);
+
+            if (!habitIds.isEmpty()) {
+                log.info("🗓️ Bitmaps d'activité construits: {} habitudes", habitIds.size());
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la construction des bitmaps d'activité: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Récupère le bitmap d'activité d'une habitude
+     */
+    public ActivityBitmap getBitmap(Long habitId) {
+        return habitActivityRepository.findById(habitId)
+                .map(HabitActivity::toBitmap)
+                .orElseGet(() -> build(habitId));
+    }
+
+    /**
+     * Marque une journée comme active
+     */
+    @Transactional
+    public void markActive(Long habitId, LocalDate date) {
+        HabitActivity activity = habitActivityRepository.findForUpdate(habitId).orElse(null);
+
+        if (activity == null) {
+            rebuild(habitId);
+            return;
+        }
+
+        ActivityBitmap bitmap = activity.toBitmap();
+        bitmap.set(date);
+        activity.update(bitmap);
+        habitActivityRepository.save(activity);
+    }
+
+    /**
+     * Marque plusieurs journées comme actives en une seule écriture (import groupé)
+     * Retourne les journées qui n'étaient pas encore actives, triées (toutes si le bitmap a été reconstruit)
+     */
+    @Transactional
+    public SortedSet<LocalDate> markActive(Long habitId, Collection<LocalDate> dates) {
+        HabitActivity activity = habitActivityRepository.findForUpdate(habitId).orElse(null);
+
+        if (activity == null) {
+            rebuild(habitId);
+            return new TreeSet<>(dates);
+        }
+
+        ActivityBitmap bitmap = activity.toBitmap();
+        SortedSet<LocalDate> activated = new TreeSet<>();
+        for (LocalDate date : dates) {
+            if (!bitmap.get(date)) {
+                bitmap.set(date);
+                activated.add(date);
+            }
+        }
+
+        if (!activated.isEmpty()) {
+            activity.update(bitmap);
+            habitActivityRepository.save(activity);
+        }
+        return activated;
+    }
+
+    /**
+     * Marque une journée comme inactive si plus aucune progression n'y est rattachée
+     */
+    @Transactional
+    public void markInactive(Long habitId, LocalDate date) {
+        HabitActivity activity = habitActivityRepository.findForUpdate(habitId).orElse(null);
+
+        if (activity == null) {
+            rebuild(habitId);
+            return;
+        }
+
+        // Vérifié sous le verrou : une saisie concurrente de la même journée a déjà posé son bit
+        if (progressRepository.existsByHabitIdAndDate(habitId, date)) {
+            return;
+        }
+
+        ActivityBitmap bitmap = activity.toBitmap();
+        bitmap.clear(date);
+        activity.update(bitmap);
+        habitActivityRepository.save(activity);
+    }
+
+    /**
+     * Reconstruit entièrement le bitmap d'une habitude
+     */
+    @Transactional
+    public void rebuild(Long habitId) {
+        HabitActivity activity = habitActivityRepository.findForUpdate(habitId)
+                .orElseGet(() -> create(habitId));
+
+        activity.update(build(habitId));
+        habitActivityRepository.save(activity);
+        log.debug("🗓️ Bitmap d'activité reconstruit pour habitude {}", habitId);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Premier bitmap d'une habitude : le verrou sur la ligne de l'habitude sérialise les créations
+     * concurrentes, la seconde transaction relit le bitmap créé par la première
+     */
+    private HabitActivity create(Long habitId) {
+        habitRepository.lockById(habitId);
+
+        return habitActivityRepository.findForUpdate(habitId)
+                .orElseGet(() -> new HabitActivity(habitId));
+    }
+
+    private ActivityBitmap build(Long habitId) {
+        return ActivityBitmap.fromDates(progressRepository.findDistinctDatesByHabitId(habitId), LocalDate.now());
+    }
+}
@@ -3,7 +3,9 @@ package com.habittracker.service;
 import com.habittracker.dto.habit.HabitCreateRequest;
 import com.habittracker.dto.habit.HabitResponse;
 import com.habittracker.dto.habit.HabitUpdateRequest;
+import com.habittracker.entity.DailyHabitRollup;
 import com.habittracker.entity.Habit;
+import com.habittracker.event.HabitActivatedEvent;
 import com.habittracker.exception.BusinessException;
 import com.habittracker.exception.ResourceNotFoundException;
 import com.habittracker.repository.HabitRepository;
@@ -11,6 +13,7 @@ import com.habittracker.repository.ProgressRepository;
 import com.habittracker.util.ValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +23,7 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +33,10 @@ public class HabitService {
 
     private final HabitRepository habitRepository;
     private final ProgressRepository progressRepository;
+    private final StreakService streakService;
+    private final RollupService rollupService;
+    private final UserMetricsService userMetricsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Trouve une habitude par son ID
@@ -101,6 +109,9 @@ public class HabitService {
         Habit habit = buildHabitFromRequest(userId, request);
         habit = habitRepository.save(habit);
 
+        userMetricsService.refreshHabitCounts(userId);
+        eventPublisher.publishEvent(new HabitActivatedEvent(userId, habit.getId()));
+
         log.info("Habitude créée: {} pour l'utilisateur {}", habit.getTitle(), userId);
         return HabitResponse.fromEntity(habit);
     }
@@ -124,9 +135,23 @@ public class HabitService {
             throw new BusinessException("Cette habitude ne vous appartient pas");
         }
 
+        Double previousTarget = habit.getTargetValue();
+        Habit.Category previousCategory = habit.getCategory();
+        boolean wasActive = Boolean.TRUE.equals(habit.getIsActive());
+
         updateHabitFields(habit, request);
         habit = habitRepository.save(habit);
 
+        // Les objectifs atteints des rollups dépendent de la valeur cible (avant le compteur : ordre des verrous)
+        if (!Objects.equals(previousTarget, habit.getTargetValue())) {
+            rollupService.rebuildHabit(habit.getId(), habit.getUserId());
+        }
+
+        if (previousCategory != habit.getCategory() || wasActive != Boolean.TRUE.equals(habit.getIsActive())) {
+            userMetricsService.refreshHabitCounts(userId);
+            publishIfActivated(habit, wasActive);
+        }
+
         log.info("Habitude mise à jour: {} pour l'utilisateur {}", habit.getTitle(), userId);
         return enrichWithStatistics(HabitResponse.fromEntity(habit));
     }
@@ -149,6 +174,8 @@ public class HabitService {
         habit.setIsActive(false);
         habitRepository.save(habit);
 
+        userMetricsService.refreshHabitCounts(userId);
+
         log.info("Habitude désactivée: {} pour l'utilisateur {}", habit.getTitle(), userId);
     }
 
@@ -167,9 +194,13 @@ public class HabitService {
             throw new BusinessException("Cette habitude ne vous appartient pas");
         }
 
-        habit.setIsActive(!habit.getIsActive());
+        boolean wasActive = Boolean.TRUE.equals(habit.getIsActive());
+        habit.setIsActive(!wasActive);
         habit = habitRepository.save(habit);
 
+        userMetricsService.refreshHabitCounts(userId);
+        publishIfActivated(habit, wasActive);
+
         log.info("Statut de l'habitude changé: {} -> {} pour l'utilisateur {}",
                 habit.getTitle(), habit.getIsActive() ? "active" : "inactive", userId);
 
@@ -186,6 +217,15 @@ public class HabitService {
                 .orElseThrow(() -> new ResourceNotFoundException("Habitude", id));
     }
 
+    /**
+     * Publie l'activation d'une habitude pour l'évaluation des achievements
+     */
+    private void publishIfActivated(Habit habit, boolean wasActive) {
+        if (!wasActive && Boolean.TRUE.equals(habit.getIsActive())) {
+            eventPublisher.publishEvent(new HabitActivatedEvent(habit.getUserId(), habit.getId()));
+        }
+    }
+
     /**
      * Enrichit la réponse avec les statistiques
      */
@@ -205,26 +245,7 @@ public class HabitService {
      * Calcule la série actuelle d'une habitude
      */
     private Long calculateCurrentStreak(Long habitId) {
-        // Implémentation simple - peut être améliorée
-        LocalDate today = LocalDate.now();
-        long streak = 0;
-
-        for (int i = 0; i < 30; i++) { // Vérifier les 30 derniers jours
-            LocalDate checkDate = today.minusDays(i);
-            boolean hasProgress = progressRepository.existsByHabitIdAndDate(habitId, checkDate);
-
-            if (hasProgress) {
-                streak++;
-            } else if (i == 0) {
-                // Si pas de progrès aujourd'hui, pas de série
-                break;
-            } else {
-                // Première interruption trouvée
-                break;
-            }
-        }
-
-        return streak;
+        return (long) streakService.getHabitCurrentStreak(habitId);
     }
 
     /**
@@ -233,18 +254,18 @@ public class HabitService {
     private Double calculateAverageCompletion(Long habitId) {
         // Implémentation simple - peut être améliorée
         LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-        List<com.habittracker.entity.Progress> progressList =
-                progressRepository.findByHabitIdAndDateBetween(habitId, thirtyDaysAgo, LocalDate.now());
+        List<DailyHabitRollup> rollups = rollupService.getHabitDailyRollups(habitId, thirtyDaysAgo, LocalDate.now());
 
-        if (progressList.isEmpty()) {
+        long totalEntries = rollups.stream().mapToLong(DailyHabitRollup::getEntryCount).sum();
+        if (totalEntries == 0) {
             return 0.0;
         }
 
-        double totalCompletion = progressList.stream()
-                .mapToDouble(com.habittracker.entity.Progress::getValue)
+        double totalCompletion = rollups.stream()
+                .mapToDouble(DailyHabitRollup::getValueSum)
                 .sum();
 
-        return totalCompletion / progressList.size();
+        return totalCompletion / totalEntries;
     }
 
     /**
@@ -0,0 +1,754 @@
+package com.habittracker.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habittracker.dto.progress.ProgressIncrementRequest;
+import com.habittracker.dto.progress.ProgressIncrementResponse;
+import com.habittracker.dto.progress.ProgressResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.event.HabitCachesInvalidatedEvent;
+import com.habittracker.exception.IncrementBufferFullException;
+import com.habittracker.exception.ResourceNotFoundException;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressIncrementBatchRepository;
+import com.habittracker.repository.projection.HabitDate;
+import com.habittracker.util.ValidationUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Écriture différée des incréments de progression (compteurs à haute fréquence)
+ * Les incréments sont cumulés en mémoire par (habitude, date) et journalisés dans un fichier
+ * local en ajout seul, puis écrits en base par lots à intervalle court ou dès que le seuil de
+ * journées en attente est atteint. Chaque lot marque ses segments écrits dans sa transaction :
+ * au démarrage, seuls les segments non marqués sont rejoués (écriture exactement une fois)
+ * Les cumuls en attente de chaque instance sont publiés dans Redis : les lectures ajoutent
+ * ceux de toutes les instances (vue locale seule si Redis est indisponible)
+ */
+@Service
+@Slf4j
+public class ProgressIncrementService {
+
+    private static final String SEGMENT_PREFIX = "increments-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String NODE_ID_FILE = "node-id";
+
+    // Première ligne d'un segment de report : valable seulement si le segment dont il dépend est marqué écrit
+    private static final String CARRY_HEADER = "#after;";
+
+    private static final String SHARED_KEY_PREFIX = "progress:pending:";
+
+    // Marqueurs conservés bien au-delà de la vie d'un segment
+    private static final Duration MARKER_RETENTION = Duration.ofDays(7);
+
+    private final ProgressService progressService;
+    private final HabitRepository habitRepository;
+    private final ProgressIncrementBatchRepository batchRepository;
+    private final UserSecurityService userSecurityService;
+    private final CacheService cacheService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Path logDir;
+    private final int maxPending;
+    private final int capacity;
+    private final boolean sync;
+    private final Duration sharedTtl;
+
+    // Identifiant de l'instance, conservé dans le répertoire du journal (même champ Redis après redémarrage)
+    private String nodeId;
+
+    // Propriétaire de chaque habitude incrémentée (contrôle d'accès sans lecture en base)
+    private final Cache<Long, Long> habitOwners;
+
+    // Cumuls pas encore écrits, et lot en cours d'écriture (encore visible des lectures)
+    private final Map<HabitDate, Pending> pending = new ConcurrentHashMap<>();
+    private volatile Map<HabitDate, Pending> flushing = Map.of();
+
+    // Journées dont la valeur publiée dans Redis est à rafraîchir au prochain vidage
+    private final Map<HabitDate, Long> dirty = new ConcurrentHashMap<>();
+
+    // Lecture : ajout d'un incrément ; écriture : rotation du segment et prise du lot
+    private final ReadWriteLock segmentLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flushExecutor;
+
+    // Segments scellés pas encore marqués écrits (accédés sous le moniteur de flush)
+    private final List<String> sealedSegments = new ArrayList<>();
+
+    // Validation groupée : écritures numérotées, dernière position forcée sur disque
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final Condition synced = journalLock.newCondition();
+    private long written;
+    private long durable;
+    private boolean syncing;
+
+    private FileChannel segment;
+    private String segmentId;
+
+    public ProgressIncrementService(ProgressService progressService,
+                                    HabitRepository habitRepository,
+                                    ProgressIncrementBatchRepository batchRepository,
+                                    UserSecurityService userSecurityService,
+                                    CacheService cacheService,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.progress.increments.log-dir:data/progress-increments}") String logDir,
+                                    @Value("${app.progress.increments.max-pending:1000}") int maxPending,
+                                    @Value("${app.progress.increments.capacity:10000}") int capacity,
+                                    @Value("${app.progress.increments.sync:true}") boolean sync,
+                                    @Value("${app.progress.increments.shared-ttl-seconds:300}") long sharedTtlSeconds) {
+        this.progressService = progressService;
+        this.habitRepository = habitRepository;
+        this.batchRepository = batchRepository;
+        this.userSecurityService = userSecurityService;
+        this.cacheService = cacheService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logDir = Path.of(logDir);
+        this.maxPending = maxPending;
+        this.capacity = capacity;
+        this.sync = sync;
+        this.sharedTtl = Duration.ofSeconds(sharedTtlSeconds);
+        this.habitOwners = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(30))
+                .maximumSize(10_000)
+                .build();
+        this.flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-increments-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Cumul en attente d'une journée et propriétaire de l'habitude
+     */
+    private record Pending(Long userId, double delta) {
+
+        Pending plus(Pending other) {
+            return new Pending(userId, delta + other.delta);
+        }
+    }
+
+    // Hash Redis des cumuls en attente d'un utilisateur pour une journée
+    private record UserDay(Long userId, LocalDate date) {
+
+        String key() {
+            return SHARED_KEY_PREFIX + userId + ":" + date;
+        }
+    }
+
+    /**
+     * Rejoue les segments laissés par un arrêt avant leur écriture en base (sauf ceux déjà marqués
+     * écrits), puis ouvre un segment neuf et republie les cumuls rejoués
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(logDir);
+        nodeId = loadNodeId();
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(logDir)) {
+            segments = files.filter(this::isSegment).toList();
+        }
+        Set<String> ids = new HashSet<>(segments.stream().map(this::idOf).toList());
+        Set<String> applied = ids.isEmpty() ? Set.of() : new HashSet<>(batchRepository.findAppliedSegments(ids));
+
+        int replayed = 0;
+        int skipped = 0;
+        for (Path path : segments) {
+            String id = idOf(path);
+            if (applied.contains(id)) {
+                Files.deleteIfExists(path);
+                skipped++;
+                continue;
+            }
+
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            if (!lines.isEmpty() && lines.get(0).startsWith(CARRY_HEADER)) {
+                // Report dont la transaction n'a pas abouti : son contenu sera rejoué depuis le segment d'origine
+                String dependency = lines.get(0).substring(CARRY_HEADER.length());
+                if (ids.contains(dependency) && !applied.contains(dependency)) {
+                    Files.deleteIfExists(path);
+                    skipped++;
+                    continue;
+                }
+            }
+
+            replayed += replay(path, lines);
+            sealedSegments.add(id);
+        }
+
+        openSegment();
+
+        if (pending.isEmpty()) {
+            deleteSegments(List.copyOf(sealedSegments));
+        } else {
+            pending.forEach((key, value) -> dirty.put(key, value.userId()));
+            publish(drainDirty());
+            log.info("📒 {} incréments de progression rejoués depuis {} segments ({} journées en attente, {} segments déjà écrits)",
+                    replayed, sealedSegments.size(), pending.size(), skipped);
+        }
+    }
+
+    // === INCRÉMENTS ===
+
+    /**
+     * Ajoute un incrément à la journée : journalisé puis cumulé en mémoire, sans transaction
+     * Une nouvelle journée est refusée quand le tampon est plein
+     */
+    public ProgressIncrementResponse increment(Long habitId, ProgressIncrementRequest request,
+                                               Authentication authentication) {
+        ValidationUtils.validateId(habitId, "habitude");
+        ValidationUtils.validateNotNull(request, "Incrément");
+
+        Long userId = habitOwners.get(habitId, this::loadOwner);
+        userSecurityService.validateUserAccess(userId, authentication);
+
+        LocalDate date = request.getDate() != null ? request.getDate() : LocalDate.now();
+        HabitDate key = new HabitDate(habitId, date);
+
+        if (!pending.containsKey(key) && pending.size() >= capacity) {
+            throw new IncrementBufferFullException("Trop d'incréments en attente d'écriture, réessayez dans un instant");
+        }
+
+        segmentLock.readLock().lock();
+        try {
+            append(key, userId, request.getDelta());
+            pending.merge(key, new Pending(userId, request.getDelta()), Pending::plus);
+        } finally {
+            segmentLock.readLock().unlock();
+        }
+        dirty.put(key, userId);
+
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+
+        return ProgressIncrementResponse.builder()
+                .habitId(habitId)
+                .date(date)
+                .delta(request.getDelta())
+                .pendingValue(localDelta(key) + publishAndReadOthers(key, userId))
+                .build();
+    }
+
+    /**
+     * Écrit les cumuls en attente en un lot puis supprime les segments correspondants
+     * Lot refusé : reprise clé par clé (échecs passagers remis en attente, définitifs en lettres mortes)
+     * Base indisponible : les cumuls sont remis en attente et les segments conservés
+     */
+    @Scheduled(fixedDelayString = "${app.progress.increments.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            publish(drainDirty());
+            return;
+        }
+
+        Map<HabitDate, Pending> batch;
+        List<String> segments;
+        segmentLock.writeLock().lock();
+        try {
+            rotateSegment();
+            batch = new HashMap<>(pending);
+            pending.clear();
+            flushing = batch;
+            segments = List.copyOf(sealedSegments);
+        } catch (IOException e) {
+            log.error("❌ Rotation du journal des incréments impossible: {}", e.getMessage());
+            return;
+        } finally {
+            segmentLock.writeLock().unlock();
+        }
+
+        List<Progress> increments = batch.entrySet().stream()
+                .map(entry -> new Progress(entry.getValue().userId(), entry.getKey().habitId(),
+                        entry.getKey().date(), entry.getValue().delta()))
+                .toList();
+
+        ProgressService.AppliedIncrements applied;
+        try {
+            applied = applyBatch(increments, segments);
+        } catch (Exception e) {
+            batch.forEach((key, value) -> pending.merge(key, value, Pending::plus));
+            flushing = Map.of();
+            batch.forEach((key, value) -> dirty.put(key, value.userId()));
+            publish(drainDirty());
+            log.error("❌ Écriture de {} cumuls d'incréments impossible, nouvel essai au prochain vidage: {}",
+                    batch.size(), e.getMessage());
+            return;
+        }
+
+        applied.retry().forEach(increment -> pending.merge(new HabitDate(increment.getHabitId(), increment.getDate()),
+                new Pending(increment.getUserId(), increment.getValue()), Pending::plus));
+        flushing = Map.of();
+        deleteSegments(segments);
+
+        // Cumuls en lettres mortes : l'habitude a pu être supprimée, propriétaire relu au prochain incrément
+        Set<Long> retried = new HashSet<>(applied.retry().stream().map(Progress::getHabitId).toList());
+        batch.keySet().stream()
+                .map(HabitDate::habitId)
+                .filter(habitId -> !applied.ownersByHabit().containsKey(habitId) && !retried.contains(habitId))
+                .forEach(habitOwners::invalidate);
+
+        batch.forEach((key, value) -> dirty.put(key, value.userId()));
+        publish(drainDirty());
+
+        Map<Long, Long> ownersByHabit = applied.ownersByHabit();
+        cacheService.evictProgressCaches(ownersByHabit);
+        ownersByHabit.forEach((habitId, userId) ->
+                eventPublisher.publishEvent(new HabitCachesInvalidatedEvent(userId, habitId)));
+    }
+
+    /**
+     * Purge quotidienne des marqueurs de lots anciens
+     */
+    @Scheduled(cron = "${app.progress.increments.marker-purge-cron:0 30 3 * * *}")
+    public void purgeAppliedMarkers() {
+        int purged = batchRepository.deleteAppliedBefore(LocalDateTime.now().minus(MARKER_RETENTION));
+        if (purged > 0) {
+            log.info("🧹 {} marqueurs de lots d'incréments purgés", purged);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("❌ Fermeture du journal des incréments impossible: {}", e.getMessage());
+        }
+    }
+
+    // === LECTURES ===
+
+    /**
+     * Cumul des incréments d'une journée pas encore écrits en base, toutes instances confondues
+     */
+    public double pendingDelta(Long habitId, LocalDate date) {
+        HabitDate key = new HabitDate(habitId, date);
+        Long userId = habitOwners.get(habitId, this::loadOwner);
+        return localDelta(key) + remoteDeltas(Set.of(new UserDay(userId, date))).getOrDefault(key, 0.0);
+    }
+
+    /**
+     * Progression avec les incréments en attente de sa journée
+     */
+    public ProgressResponse withPending(ProgressResponse progress) {
+        return withPending(List.of(progress)).get(0);
+    }
+
+    /**
+     * Page de progressions avec leurs incréments en attente (une seule lecture Redis)
+     */
+    public Page<ProgressResponse> withPending(Page<ProgressResponse> progresses) {
+        return new PageImpl<>(withPending(progresses.getContent()), progresses.getPageable(),
+                progresses.getTotalElements());
+    }
+
+    /**
+     * Progressions avec les incréments en attente de leur journée (une seule lecture Redis)
+     */
+    public List<ProgressResponse> withPending(List<ProgressResponse> progresses) {
+        Set<UserDay> days = new LinkedHashSet<>();
+        progresses.forEach(progress -> days.add(new UserDay(progress.getUserId(), progress.getDate())));
+        Map<HabitDate, Double> remote = remoteDeltas(days);
+
+        return progresses.stream()
+                .map(progress -> {
+                    HabitDate key = new HabitDate(progress.getHabitId(), progress.getDate());
+                    double delta = localDelta(key) + remote.getOrDefault(key, 0.0);
+                    return delta != 0 ? progress.withValue(progress.getValue() + delta) : progress;
+                })
+                .toList();
+    }
+
+    /**
+     * Progressions d'un utilisateur pour une journée, y compris celles qui n'existent
+     * encore que sous forme d'incréments en attente (sur cette instance ou une autre)
+     */
+    public List<ProgressResponse> withPending(Long userId, LocalDate date, List<ProgressResponse> progresses) {
+        Map<HabitDate, Double> remote = remoteDeltas(Set.of(new UserDay(userId, date)));
+
+        List<ProgressResponse> result = new ArrayList<>(progresses.stream()
+                .map(progress -> {
+                    HabitDate key = new HabitDate(progress.getHabitId(), progress.getDate());
+                    double delta = localDelta(key) + remote.getOrDefault(key, 0.0);
+                    return delta != 0 ? progress.withValue(progress.getValue() + delta) : progress;
+                })
+                .toList());
+
+        Map<Long, Double> pendingOnly = new HashMap<>();
+        Stream.of(flushing, pending).forEach(deltas -> deltas.forEach((key, value) -> {
+            if (value.userId().equals(userId) && key.date().equals(date)) {
+                pendingOnly.merge(key.habitId(), value.delta(), Double::sum);
+            }
+        }));
+        remote.forEach((key, delta) -> pendingOnly.merge(key.habitId(), delta, Double::sum));
+        progresses.forEach(progress -> pendingOnly.remove(progress.getHabitId()));
+
+        pendingOnly.forEach((habitId, delta) -> result.add(ProgressResponse.builder()
+                .userId(userId)
+                .habitId(habitId)
+                .date(date)
+                .value(delta)
+                .build()));
+
+        return result;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Long loadOwner(Long habitId) {
+        return habitRepository.findById(habitId)
+                .map(Habit::getUserId)
+                .orElseThrow(() -> new ResourceNotFoundException("Habitude", habitId));
+    }
+
+    private double localDelta(HabitDate key) {
+        return delta(pending.get(key)) + delta(flushing.get(key));
+    }
+
+    private double delta(Pending pending) {
+        return pending != null ? pending.delta() : 0;
+    }
+
+    /**
+     * Lot entier en une transaction ; en cas d'échec, reprise clé par clé dans une nouvelle transaction
+     * dont les échecs passagers sont reportés dans un segment valable seulement après son commit
+     */
+    private ProgressService.AppliedIncrements applyBatch(List<Progress> increments, List<String> segments)
+            throws IOException {
+        try {
+            return progressService.applyIncrements(increments, segments);
+        } catch (Exception e) {
+            log.warn("⚠️ Lot de {} cumuls d'incréments refusé, reprise clé par clé: {}", increments.size(), e.getMessage());
+        }
+
+        String carry = UUID.randomUUID().toString();
+        try {
+            ProgressService.AppliedIncrements applied = transactionTemplate.execute(status -> {
+                ProgressService.AppliedIncrements result = progressService.applyIncrementsOneByOne(increments, segments);
+                if (!result.retry().isEmpty()) {
+                    writeCarrySegment(carry, segments.get(0), result.retry());
+                }
+                return result;
+            });
+            if (!applied.retry().isEmpty()) {
+                sealedSegments.add(carry);
+            }
+            return applied;
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(segmentPath(carry));
+            throw e;
+        }
+    }
+
+    /**
+     * Ligne du journal : habitId;userId;date;delta (écriture sur le segment courant, puis validation groupée)
+     */
+    private void append(HabitDate key, Long userId, double delta) {
+        ByteBuffer buffer = ByteBuffer.wrap(line(key.habitId(), userId, key.date(), delta)
+                .getBytes(StandardCharsets.UTF_8));
+
+        journalLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            long position = ++written;
+            if (sync) {
+                awaitDurable(position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journalisation de l'incrément impossible", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Le premier écrivain en attente force le segment pour toutes les écritures faites jusque-là
+     * (meneur), hors verrou ; les suivants attendent son signal : un fsync par vague d'incréments
+     * Appelé avec journalLock, sous le verrou de lecture du segment (pas de rotation pendant le fsync)
+     */
+    private void awaitDurable(long position) throws IOException {
+        while (durable < position) {
+            if (syncing) {
+                synced.awaitUninterruptibly();
+                continue;
+            }
+
+            syncing = true;
+            long target = written;
+            FileChannel channel = segment;
+            journalLock.unlock();
+            try {
+                channel.force(false);
+            } finally {
+                journalLock.lock();
+                syncing = false;
+                synced.signalAll();
+            }
+            durable = Math.max(durable, target);
+        }
+    }
+
+    private String line(Long habitId, Long userId, LocalDate date, double delta) {
+        return habitId + ";" + userId + ";" + date + ";" + delta + "\n";
+    }
+
+    private int replay(Path path, List<String> lines) {
+        int replayed = 0;
+        for (String line : lines) {
+            if (line.startsWith(CARRY_HEADER)) {
+                continue;
+            }
+            String[] fields = line.split(";");
+            try {
+                HabitDate key = new HabitDate(Long.valueOf(fields[0]), LocalDate.parse(fields[2]));
+                pending.merge(key, new Pending(Long.valueOf(fields[1]), Double.parseDouble(fields[3])), Pending::plus);
+                replayed++;
+            } catch (RuntimeException e) {
+                // Dernière ligne tronquée par un arrêt brutal
+                log.warn("❌ Ligne ignorée dans {}: {}", path.getFileName(), line);
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Cumuls à réessayer journalisés dans un segment complet (écrit puis renommé), lié au premier
+     * segment du lot : ignoré au démarrage si ce segment n'a pas été marqué écrit
+     */
+    private void writeCarrySegment(String carry, String dependency, List<Progress> retry) {
+        StringBuilder content = new StringBuilder(CARRY_HEADER).append(dependency).append('\n');
+        retry.forEach(increment -> content.append(line(increment.getHabitId(), increment.getUserId(),
+                increment.getDate(), increment.getValue())));
+
+        Path temp = logDir.resolve(SEGMENT_PREFIX + carry + SEGMENT_SUFFIX + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            Files.move(temp, segmentPath(carry), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Report des incréments à réessayer impossible", e);
+        }
+    }
+
+    /**
+     * Scelle le segment courant (supprimé après le commit de son lot) et en ouvre un nouveau
+     */
+    private void rotateSegment() throws IOException {
+        segment.close();
+        sealedSegments.add(segmentId);
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        segmentId = UUID.randomUUID().toString();
+        segment = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void deleteSegments(Collection<String> ids) {
+        for (String id : ids) {
+            try {
+                Files.deleteIfExists(segmentPath(id));
+            } catch (IOException e) {
+                // Segment marqué écrit : ignoré puis supprimé au prochain démarrage
+                log.warn("❌ Suppression du segment {} impossible: {}", id, e.getMessage());
+            }
+        }
+        sealedSegments.removeAll(ids);
+    }
+
+    private String loadNodeId() throws IOException {
+        Path file = logDir.resolve(NODE_ID_FILE);
+        if (Files.exists(file)) {
+            String id = Files.readString(file, StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    private Path segmentPath(String id) {
+        return logDir.resolve(SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+    }
+
+    private boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private String idOf(Path path) {
+        String name = path.getFileName().toString();
+        return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+    }
+
+    // === VUE PARTAGÉE (REDIS) ===
+
+    private Map<HabitDate, Long> drainDirty() {
+        Map<HabitDate, Long> keys = new HashMap<>();
+        dirty.keySet().forEach(key -> {
+            Long userId = dirty.remove(key);
+            if (userId != null) {
+                keys.put(key, userId);
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * Publie la valeur absolue en attente de chaque journée sur cette instance (champ supprimé à zéro)
+     * Rejoué à chaque vidage : corrige une publication concurrente arrivée dans le désordre
+     */
+    private void publish(Map<HabitDate, Long> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                keys.forEach((key, userId) -> writeShared(redis, key, userId));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("❌ Publication des incréments en attente impossible: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publie la journée incrémentée et lit dans le même aller-retour les cumuls des autres instances
+     */
+    private double publishAndReadOthers(HabitDate key, Long userId) {
+        UserDay day = new UserDay(userId, key.date());
+        try {
+            List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                writeShared(redis, key, userId);
+                redis.hGetAll(day.key());
+                return null;
+            });
+            return othersOf(day, replies.get(replies.size() - 1)).getOrDefault(key, 0.0);
+        } catch (Exception e) {
+            dirty.put(key, userId);
+            log.warn("❌ Vue partagée des incréments indisponible: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void writeShared(StringRedisConnection redis, HabitDate key, Long userId) {
+        UserDay day = new UserDay(userId, key.date());
+        String field = key.habitId() + ":" + nodeId;
+        double delta = localDelta(key);
+        if (delta != 0) {
+            redis.hSet(day.key(), field, String.valueOf(delta));
+            redis.expire(day.key(), sharedTtl.toSeconds());
+        } else {
+            redis.hDel(day.key(), field);
+        }
+    }
+
+    /**
+     * Cumuls en attente sur les autres instances pour ces journées (vide si Redis est indisponible)
+     */
+    private Map<HabitDate, Double> remoteDeltas(Collection<UserDay> days) {
+        if (days.isEmpty()) {
+            return Map.of();
+        }
+        List<UserDay> ordered = List.copyOf(days);
+        try {
+            List<Object> replies = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                ordered.forEach(day -> redis.hGetAll(day.key()));
+                return null;
+            });
+
+            Map<HabitDate, Double> deltas = new HashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                othersOf(ordered.get(i), replies.get(i)).forEach((key, delta) -> deltas.merge(key, delta, Double::sum));
+            }
+            return deltas;
+        } catch (Exception e) {
+            log.warn("❌ Vue partagée des incréments indisponible, vue locale seule: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Map<HabitDate, Double> othersOf(UserDay day, Object reply) {
+        Map<HabitDate, Double> deltas = new LinkedHashMap<>();
+        if (!(reply instanceof Map<?, ?> fields)) {
+            return deltas;
+        }
+        fields.forEach((field, value) -> {
+            String[] parts = field.toString().split(":", 2);
+            if (parts.length == 2 && !parts[1].equals(nodeId)) {
+                deltas.merge(new HabitDate(Long.valueOf(parts[0]), day.date()),
+                        Double.parseDouble(value.toString()), Double::sum);
+            }
+        });
+        return deltas;
+    }
+}
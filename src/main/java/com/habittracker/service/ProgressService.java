@@ -1,25 +1,60 @@
 package com.habittracker.service;
 
 import com.habittracker.dto.progress.*;
+import com.habittracker.entity.DailyHabitRollup;
 import com.habittracker.entity.Habit;
 import com.habittracker.entity.Progress;
+import com.habittracker.entity.ProgressIncrementBatch;
+import com.habittracker.entity.ProgressIncrementDeadLetter;
+import com.habittracker.event.ProgressRecordedEvent;
 import com.habittracker.exception.BusinessException;
 import com.habittracker.exception.ResourceNotFoundException;
 import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressIncrementBatchRepository;
+import com.habittracker.repository.ProgressIncrementDeadLetterRepository;
 import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.projection.HabitDate;
+import com.habittracker.repository.projection.HabitInfo;
+import com.habittracker.repository.projection.ProgressUpsert;
 import com.habittracker.util.ValidationUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +65,18 @@ public class ProgressService {
     private final ProgressRepository progressRepository;
     private final HabitRepository habitRepository;
     private final UserSecurityService userSecurityService;
+    private final StreakService streakService;
+    private final HabitActivityService habitActivityService;
+    private final RollupService rollupService;
+    private final UserMetricsService userMetricsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ProgressIncrementBatchRepository batchRepository;
+    private final ProgressIncrementDeadLetterRepository deadLetterRepository;
+    private final DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     /**
      * Trouve une progression par son ID
@@ -50,7 +97,8 @@ public class ProgressService {
         ValidationUtils.validateId(habitId, "habitude");
 
         Page<Progress> progressPage = progressRepository.findByHabitId(habitId, pageable);
-        return progressPage.map(this::toEnrichedResponse);
+        Map<Long, HabitInfo> habitInfos = loadHabitInfos(progressPage.getContent());
+        return progressPage.map(progress -> toEnrichedResponse(progress, habitInfos));
     }
 
     /**
@@ -63,9 +111,7 @@ public class ProgressService {
         List<Progress> progressList = progressRepository.findByHabitIdAndDateBetween(
                 habitId, startDate, endDate);
 
-        return progressList.stream()
-                .map(this::toEnrichedResponse)
-                .toList();
+        return toEnrichedResponses(progressList);
     }
 
     /**
@@ -75,7 +121,8 @@ public class ProgressService {
         ValidationUtils.validateId(userId, "utilisateur");
 
         Page<Progress> progressPage = progressRepository.findByUserId(userId, pageable);
-        return progressPage.map(this::toEnrichedResponse);
+        Map<Long, HabitInfo> habitInfos = loadHabitInfos(progressPage.getContent());
+        return progressPage.map(progress -> toEnrichedResponse(progress, habitInfos));
     }
 
     /**
@@ -85,13 +132,12 @@ public class ProgressService {
         ValidationUtils.validateId(userId, "utilisateur");
 
         List<Progress> todayProgress = progressRepository.findByUserIdAndDate(userId, LocalDate.now());
-        return todayProgress.stream()
-                .map(this::toEnrichedResponse)
-                .toList();
+        return toEnrichedResponses(todayProgress);
     }
 
     /**
-     * Crée une nouvelle progression
+     * Crée la progression du jour en une seule écriture atomique (contrainte unique habit_id, date)
+     * Journée déjà saisie : refus, remplacement ou cumul selon le mode demandé
      */
     @Transactional
     public ProgressResponse createProgress(Long habitId, ProgressCreateRequest request, Authentication authentication) {
@@ -104,23 +150,218 @@ public class ProgressService {
 
         userSecurityService.validateUserAccess(habit.getUserId(), authentication);
 
-        // Vérifier qu'il n'y a pas déjà une progression pour cette date
-        if (progressRepository.existsByUserIdAndHabitIdAndDate(
-                habit.getUserId(), habitId, request.getDate())) {
-            throw new BusinessException("Une progression existe déjà pour cette date");
+        Progress.WriteMode mode = request.getMode() != null ? request.getMode() : Progress.WriteMode.CREATE;
+        Progress requested = new Progress(habit.getUserId(), habitId, request.getDate(), request.getValue());
+        requested.setNote(request.getNote());
+
+        ProgressUpsert upsert = progressRepository.upsert(requested, mode)
+                .orElseThrow(() -> new BusinessException("Une progression existe déjà pour cette date"));
+        Progress progress = upsert.progress();
+
+        if (upsert.created()) {
+            habitActivityService.markActive(habitId, progress.getDate());
+            streakService.recordActivity(habitId, habit.getUserId(), progress.getDate());
+            rollupService.recordProgress(progress, habit.getTargetValue());
+            userMetricsService.recordProgress(habit.getUserId(), 1);
+        } else {
+            // Journée déjà active : seule la valeur change
+            rollupService.refresh(habitId, habit.getUserId(), progress.getDate());
         }
 
-        // Créer la progression
-        Progress progress = new Progress(habit.getUserId(), habitId, request.getDate(), request.getValue());
-        progress.setNote(request.getNote());
-        progress = progressRepository.save(progress);
+        // Évaluation des achievements après commit, hors du chemin de la requête
+        eventPublisher.publishEvent(new ProgressRecordedEvent(habit.getUserId(), habitId, progress.getDate()));
 
-        log.info("Progression créée: habitude {}, date {}, valeur {}",
-                habitId, request.getDate(), request.getValue());
+        log.info("Progression {}: habitude {}, date {}, valeur {} ({})",
+                upsert.created() ? "créée" : "mise à jour", habitId, request.getDate(), progress.getValue(), mode);
 
         return enrichProgressResponse(ProgressResponse.fromEntity(progress));
     }
 
+    /**
+     * Importe un lot de progressions, toutes habitudes confondues : accès vérifié une fois
+     * par habitude, doublons détectés en une requête ensembliste, insertion par lots JDBC
+     * Chaque entrée reçoit son statut ; une entrée rejetée n'empêche pas les autres
+     */
+    @Transactional
+    public ProgressBatchResponse createProgressBatch(ProgressBatchRequest request, Authentication authentication) {
+        ValidationUtils.validateNotNull(request, "Données d'import");
+        ValidationUtils.validateNotNull(request.getEntries(), "Progressions à importer");
+
+        List<ProgressBatchEntry> entries = request.getEntries();
+        ProgressBatchResponse.EntryResult[] results = new ProgressBatchResponse.EntryResult[entries.size()];
+
+        // Validation entrée par entrée
+        Map<Integer, ProgressBatchEntry> validEntries = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ProgressBatchEntry entry = entries.get(i);
+            String error = validateBatchEntry(entry);
+            if (error != null) {
+                results[i] = batchResult(i, entry, ProgressBatchResponse.Status.INVALID, null, error);
+            } else {
+                validEntries.put(i, entry);
+            }
+        }
+
+        // Habitudes chargées en une requête, accès vérifié une fois par habitude
+        Set<Long> habitIds = validEntries.values().stream()
+                .map(ProgressBatchEntry::getHabitId)
+                .collect(Collectors.toSet());
+        Map<Long, Habit> habits = habitRepository.findAllById(habitIds).stream()
+                .collect(Collectors.toMap(Habit::getId, Function.identity()));
+        Set<Long> accessibleHabitIds = habits.values().stream()
+                .filter(habit -> userSecurityService.canAccessUser(habit.getUserId(), authentication))
+                .map(Habit::getId)
+                .collect(Collectors.toSet());
+
+        Set<HabitDate> existing = findExistingHabitDates(accessibleHabitIds, validEntries.values());
+        Set<HabitDate> seen = new HashSet<>(existing);
+
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<Progress> pending = new ArrayList<>();
+
+        for (Map.Entry<Integer, ProgressBatchEntry> indexed : validEntries.entrySet()) {
+            int index = indexed.getKey();
+            ProgressBatchEntry entry = indexed.getValue();
+            Habit habit = habits.get(entry.getHabitId());
+            HabitDate habitDate = new HabitDate(entry.getHabitId(), entry.getDate());
+
+            if (habit == null) {
+                results[index] = batchResult(index, entry, ProgressBatchResponse.Status.NOT_FOUND, null,
+                        "Habitude non trouvée");
+            } else if (!accessibleHabitIds.contains(habit.getId())) {
+                results[index] = batchResult(index, entry, ProgressBatchResponse.Status.FORBIDDEN, null,
+                        "Accès non autorisé à cette ressource");
+            } else if (!seen.add(habitDate)) {
+                results[index] = batchResult(index, entry, ProgressBatchResponse.Status.DUPLICATE, null,
+                        existing.contains(habitDate)
+                                ? "Une progression existe déjà pour cette date"
+                                : "Progression en double dans l'import");
+            } else {
+                Progress progress = new Progress(habit.getUserId(), habit.getId(), entry.getDate(), entry.getValue());
+                progress.setNote(entry.getNote());
+                pending.add(progress);
+                pendingIndexes.add(index);
+            }
+        }
+
+        // Journée saisie entre la lecture des existantes et l'insertion : ignorée, signalée en doublon
+        List<Progress> inserted = progressRepository.insertIfAbsent(pending);
+        Set<Long> insertedIds = inserted.stream().map(Progress::getId).collect(Collectors.toSet());
+        for (int k = 0; k < pending.size(); k++) {
+            int index = pendingIndexes.get(k);
+            results[index] = insertedIds.contains(pending.get(k).getId())
+                    ? batchResult(index, entries.get(index), ProgressBatchResponse.Status.CREATED,
+                            pending.get(k).getId(), null)
+                    : batchResult(index, entries.get(index), ProgressBatchResponse.Status.DUPLICATE, null,
+                            "Une progression existe déjà pour cette date");
+        }
+
+        applyBatchSideEffects(inserted, Set.of(), true);
+
+        List<ProgressBatchResponse.EntryResult> resultList = List.of(results);
+        Map<ProgressBatchResponse.Status, Long> counts = resultList.stream()
+                .collect(Collectors.groupingBy(ProgressBatchResponse.EntryResult::getStatus, Collectors.counting()));
+        int duplicates = counts.getOrDefault(ProgressBatchResponse.Status.DUPLICATE, 0L).intValue();
+
+        Map<Long, Long> ownersByHabit = new LinkedHashMap<>();
+        inserted.forEach(progress -> ownersByHabit.put(progress.getHabitId(), progress.getUserId()));
+
+        log.info("Import groupé: {} entrées, {} créées, {} doublons, {} rejetées ({} habitudes)",
+                entries.size(), inserted.size(), duplicates, entries.size() - inserted.size() - duplicates,
+                ownersByHabit.size());
+
+        return ProgressBatchResponse.builder()
+                .received(entries.size())
+                .created(inserted.size())
+                .duplicates(duplicates)
+                .rejected(entries.size() - inserted.size() - duplicates)
+                .results(resultList)
+                .ownersByHabit(ownersByHabit)
+                .build();
+    }
+
+    /**
+     * Résultat du vidage d'un lot d'incréments : propriétaire de chaque habitude écrite (invalidation
+     * des caches) et cumuls en échec passager, à remettre en attente
+     */
+    public record AppliedIncrements(Map<Long, Long> ownersByHabit, List<Progress> retry) {
+    }
+
+    /**
+     * Écrit les incréments regroupés par le tampon d'écriture différée : un cumul par
+     * (habitude, date) en un lot JDBC, puis index dérivés mis à jour par habitude et par utilisateur
+     * Les segments du journal couverts par le lot sont marqués écrits dans la même transaction
+     */
+    @Transactional
+    public AppliedIncrements applyIncrements(List<Progress> increments, Collection<String> segments) {
+        List<Progress> valid = withoutDeletedHabits(increments);
+
+        if (!valid.isEmpty()) {
+            Set<Long> habitIds = valid.stream().map(Progress::getHabitId).collect(Collectors.toSet());
+            LocalDate start = valid.stream().map(Progress::getDate).min(LocalDate::compareTo).orElseThrow();
+            LocalDate end = valid.stream().map(Progress::getDate).max(LocalDate::compareTo).orElseThrow();
+            Set<HabitDate> existing = new HashSet<>(progressRepository.findHabitDates(habitIds, start, end));
+            long newDays = valid.stream()
+                    .filter(progress -> !existing.contains(new HabitDate(progress.getHabitId(), progress.getDate())))
+                    .count();
+
+            progressRepository.accumulateAll(valid);
+            applyBatchSideEffects(valid, existing, false);
+
+            log.info("Incréments écrits: {} journées, {} nouvelles", valid.size(), newDays);
+        }
+
+        markApplied(segments);
+        return new AppliedIncrements(ownersByHabit(valid), List.of());
+    }
+
+    /**
+     * Reprise d'un lot en échec clé par clé, chacune sous un point de sauvegarde : les cumuls refusés
+     * par la base partent en lettres mortes, ceux en échec passager (verrou, délai) sont retournés
+     * pour être remis en attente ; les segments sont marqués écrits dans la même transaction
+     */
+    @Transactional
+    public AppliedIncrements applyIncrementsOneByOne(List<Progress> increments, Collection<String> segments) {
+        // Connexion de la transaction en cours (points de sauvegarde JDBC, non exposés par le dialecte JPA)
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+
+        List<Progress> written = new ArrayList<>();
+        List<Progress> retry = new ArrayList<>();
+        int deadLetters = 0;
+
+        List<Progress> valid = withoutDeletedHabits(increments);
+        entityManager.flush();
+
+        for (Progress increment : valid) {
+            Savepoint savepoint = setSavepoint(connection);
+            try {
+                Set<HabitDate> existing = new HashSet<>(progressRepository.findHabitDates(
+                        Set.of(increment.getHabitId()), increment.getDate(), increment.getDate()));
+                progressRepository.accumulateAll(List.of(increment));
+                applyBatchSideEffects(List.of(increment), existing, false);
+                entityManager.flush();
+                written.add(increment);
+            } catch (RuntimeException e) {
+                // Retour au point de sauvegarde : les entités chargées pour cette clé ne sont plus fiables
+                rollbackTo(connection, savepoint);
+                entityManager.clear();
+                if (isTransient(e)) {
+                    retry.add(increment);
+                } else {
+                    deadLetterRepository.save(new ProgressIncrementDeadLetter(increment, e.getMessage()));
+                    entityManager.flush();
+                    deadLetters++;
+                }
+            }
+        }
+
+        markApplied(segments);
+
+        log.warn("Incréments écrits clé par clé: {} écrits, {} à réessayer, {} en lettres mortes",
+                written.size(), retry.size(), deadLetters);
+        return new AppliedIncrements(ownersByHabit(written), retry);
+    }
+
     /**
      * Met à jour une progression
      */
@@ -138,6 +379,8 @@ public class ProgressService {
 
         userSecurityService.validateUserAccess(progress.getUserId(), authentication);
 
+        LocalDate previousDate = progress.getDate();
+
         // Mettre à jour les champs
         if (request.getDate() != null) {
             progress.setDate(request.getDate());
@@ -150,6 +393,25 @@ public class ProgressService {
         }
 
         progress = progressRepository.save(progress);
+        progressRepository.flush();
+
+        // Même ordre de verrouillage que la création : bitmap, séries, puis rollups
+        boolean dateChanged = !progress.getDate().equals(previousDate);
+        if (dateChanged) {
+            habitActivityService.markInactive(progress.getHabitId(), previousDate);
+            habitActivityService.markActive(progress.getHabitId(), progress.getDate());
+            streakService.refresh(progress.getHabitId(), progress.getUserId());
+        }
+
+        rollupService.refresh(progress.getHabitId(), progress.getUserId(), previousDate);
+
+        if (dateChanged) {
+            rollupService.refresh(progress.getHabitId(), progress.getUserId(), progress.getDate());
+
+            // La nouvelle date peut prolonger une série
+            eventPublisher.publishEvent(new ProgressRecordedEvent(
+                    progress.getUserId(), progress.getHabitId(), progress.getDate()));
+        }
 
         log.info("Progression mise à jour: ID {}", id);
 
@@ -169,6 +431,12 @@ public class ProgressService {
         userSecurityService.validateUserAccess(progress.getUserId(), authentication);
 
         progressRepository.delete(progress);
+        progressRepository.flush();
+
+        habitActivityService.markInactive(progress.getHabitId(), progress.getDate());
+        streakService.refresh(progress.getHabitId(), progress.getUserId());
+        rollupService.refresh(progress.getHabitId(), progress.getUserId(), progress.getDate());
+        userMetricsService.recordProgress(progress.getUserId(), -1);
 
         log.info("Progression supprimée: ID {}", id);
     }
@@ -186,10 +454,9 @@ public class ProgressService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
 
-        List<Progress> progressList = progressRepository.findByHabitIdAndDateBetween(
-                habitId, startDate, endDate);
+        List<DailyHabitRollup> rollups = rollupService.getHabitDailyRollups(habitId, startDate, endDate);
 
-        return buildStatsResponse(habit, progressList, startDate, endDate, days);
+        return buildStatsResponse(habit, rollups, startDate, endDate, days);
     }
 
     /**
@@ -221,16 +488,186 @@ public class ProgressService {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
 
-        List<Progress> progressList = progressRepository.findByUserIdAndDateBetween(
-                userId, startDate, endDate);
+        List<DailyHabitRollup> rollups = rollupService.getUserDailyRollups(userId, startDate, endDate);
 
-        return buildProgressSummary(progressList, days);
+        return buildProgressSummary(rollups, days);
     }
 
     // === MÉTHODES PRIVÉES ===
 
-    private ProgressResponse toEnrichedResponse(Progress progress) {
-        return enrichProgressResponse(ProgressResponse.fromEntity(progress));
+    private String validateBatchEntry(ProgressBatchEntry entry) {
+        if (entry == null) {
+            return "Entrée vide";
+        }
+
+        Set<ConstraintViolation<ProgressBatchEntry>> violations = validator.validate(entry);
+        return violations.isEmpty() ? null : violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private ProgressBatchResponse.EntryResult batchResult(int index, ProgressBatchEntry entry,
+                                                          ProgressBatchResponse.Status status,
+                                                          Long progressId, String message) {
+        return ProgressBatchResponse.EntryResult.builder()
+                .index(index)
+                .habitId(entry != null ? entry.getHabitId() : null)
+                .date(entry != null ? entry.getDate() : null)
+                .status(status)
+                .progressId(progressId)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Couples (habitude, date) déjà saisis pour les entrées du lot, en une seule requête
+     */
+    private Set<HabitDate> findExistingHabitDates(Set<Long> habitIds, Collection<ProgressBatchEntry> entries) {
+        if (habitIds.isEmpty()) {
+            return Set.of();
+        }
+
+        LocalDate start = entries.stream().map(ProgressBatchEntry::getDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate end = entries.stream().map(ProgressBatchEntry::getDate).max(LocalDate::compareTo).orElseThrow();
+        return new HashSet<>(progressRepository.findHabitDates(habitIds, start, end));
+    }
+
+    /**
+     * Revalide au vidage que les habitudes incrémentées existent toujours, avec le même propriétaire
+     * (les autres cumuls partent en lettres mortes)
+     */
+    private List<Progress> withoutDeletedHabits(List<Progress> increments) {
+        Set<Long> habitIds = increments.stream().map(Progress::getHabitId).collect(Collectors.toSet());
+        Map<Long, Long> owners = habitRepository.findAllById(habitIds).stream()
+                .collect(Collectors.toMap(Habit::getId, Habit::getUserId));
+
+        List<Progress> valid = new ArrayList<>();
+        for (Progress increment : increments) {
+            if (increment.getUserId().equals(owners.get(increment.getHabitId()))) {
+                valid.add(increment);
+            } else {
+                deadLetterRepository.save(new ProgressIncrementDeadLetter(increment, "Habitude supprimée"));
+            }
+        }
+        return valid;
+    }
+
+    private void markApplied(Collection<String> segments) {
+        LocalDateTime now = LocalDateTime.now();
+        batchRepository.saveAll(segments.stream()
+                .map(segment -> new ProgressIncrementBatch(segment, now))
+                .toList());
+    }
+
+    /**
+     * Échec passager (verrou, interblocage, délai dépassé) : la même écriture peut réussir plus tard
+     */
+    private boolean isTransient(RuntimeException e) {
+        RuntimeException translated = e instanceof DataAccessException
+                ? e : EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+        return translated instanceof TransientDataAccessException
+                || translated instanceof RecoverableDataAccessException;
+    }
+
+    private Savepoint setSavepoint(Connection connection) {
+        try {
+            return connection.setSavepoint();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Point de sauvegarde impossible", e);
+        }
+    }
+
+    private void rollbackTo(Connection connection, Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Retour au point de sauvegarde impossible", e);
+        }
+    }
+
+    private Map<Long, Long> ownersByHabit(List<Progress> written) {
+        Map<Long, Long> ownersByHabit = new LinkedHashMap<>();
+        written.forEach(progress -> ownersByHabit.put(progress.getHabitId(), progress.getUserId()));
+        return ownersByHabit;
+    }
+
+    /**
+     * Index dérivés d'un lot écrit : une mise à jour par habitude (bitmap, rollups du jour, série)
+     * et par utilisateur (rollups mensuels, compteur, évaluation des achievements)
+     * Seules les journées absentes de existing comptent comme nouvelles progressions
+     * Les séries sont recalculées depuis l'historique pour un import (journées rétroactives) ; pour les
+     * incréments, seules les journées devenues actives dans le bitmap sont enregistrées
+     * Utilisateurs et habitudes sont parcourus dans l'ordre des identifiants, chaque utilisateur dans l'ordre
+     * de verrouillage de la création unitaire (bitmaps, séries, rollups, compteur) : pas d'interblocage croisé
+     */
+    private void applyBatchSideEffects(List<Progress> written, Set<HabitDate> existing, boolean rebuildStreaks) {
+        Map<Long, List<Progress>> byUser = written.stream()
+                .collect(Collectors.groupingBy(Progress::getUserId, TreeMap::new, Collectors.toList()));
+
+        byUser.forEach((userId, progresses) -> {
+            Map<Long, Set<LocalDate>> datesByHabit = progresses.stream()
+                    .collect(Collectors.groupingBy(Progress::getHabitId, TreeMap::new,
+                            Collectors.mapping(Progress::getDate, Collectors.toCollection(TreeSet::new))));
+
+            Map<Long, Set<LocalDate>> activatedByHabit = new TreeMap<>();
+            datesByHabit.forEach((habitId, dates) ->
+                    activatedByHabit.put(habitId, habitActivityService.markActive(habitId, dates)));
+            if (rebuildStreaks) {
+                streakService.refresh(datesByHabit.keySet(), userId);
+            } else {
+                streakService.recordActivity(activatedByHabit, userId);
+            }
+            datesByHabit.forEach((habitId, dates) -> rollupService.refreshDays(habitId, userId, dates));
+            rollupService.refreshMonths(userId, progresses.stream().map(Progress::getDate).toList());
+            long created = progresses.stream()
+                    .filter(progress -> !existing.contains(new HabitDate(progress.getHabitId(), progress.getDate())))
+                    .count();
+            if (created > 0) {
+                userMetricsService.recordProgress(userId, created);
+            }
+
+            // Une seule évaluation des achievements par utilisateur, après commit
+            Progress latest = progresses.stream().max(Comparator.comparing(Progress::getDate)).orElseThrow();
+            eventPublisher.publishEvent(new ProgressRecordedEvent(userId, latest.getHabitId(), latest.getDate()));
+        });
+    }
+
+    /**
+     * Enrichit un lot de progressions en résolvant leurs habitudes en une seule requête
+     */
+    private List<ProgressResponse> toEnrichedResponses(List<Progress> progressList) {
+        Map<Long, HabitInfo> habitInfos = loadHabitInfos(progressList);
+        return progressList.stream()
+                .map(progress -> toEnrichedResponse(progress, habitInfos))
+                .toList();
+    }
+
+    /**
+     * Informations des habitudes distinctes d'un lot, indexées par ID
+     */
+    private Map<Long, HabitInfo> loadHabitInfos(List<Progress> progressList) {
+        Set<Long> habitIds = progressList.stream()
+                .map(Progress::getHabitId)
+                .collect(Collectors.toSet());
+
+        if (habitIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return habitRepository.findHabitInfoByIdIn(habitIds).stream()
+                .collect(Collectors.toMap(HabitInfo::id, Function.identity()));
+    }
+
+    private ProgressResponse toEnrichedResponse(Progress progress, Map<Long, HabitInfo> habitInfos) {
+        ProgressResponse response = ProgressResponse.fromEntity(progress);
+        HabitInfo habit = habitInfos.get(progress.getHabitId());
+
+        if (habit != null) {
+            return response.withHabitInfo(habit.title(), habit.unit(), habit.targetValue());
+        }
+
+        return response;
     }
 
     private ProgressResponse enrichProgressResponse(ProgressResponse response) {
@@ -253,38 +690,34 @@ public class ProgressService {
         }
     }
 
-    private ProgressStatsResponse buildStatsResponse(Habit habit, List<Progress> progressList,
+    private ProgressStatsResponse buildStatsResponse(Habit habit, List<DailyHabitRollup> rollups,
                                                      LocalDate startDate, LocalDate endDate, int totalDays) {
 
-        // Calculs statistiques simples
-        int totalEntries = progressList.size();
+        // Calculs statistiques simples (rollups journaliers triés par date)
+        int totalEntries = (int) rollups.stream().mapToLong(DailyHabitRollup::getEntryCount).sum();
         double completionRate = totalDays > 0 ? (double) totalEntries / totalDays * 100 : 0;
 
-        double totalValue = progressList.stream().mapToDouble(Progress::getValue).sum();
+        double totalValue = rollups.stream().mapToDouble(DailyHabitRollup::getValueSum).sum();
         double averageValue = totalEntries > 0 ? totalValue / totalEntries : 0;
-        double maxValue = progressList.stream().mapToDouble(Progress::getValue).max().orElse(0);
-        double minValue = progressList.stream().mapToDouble(Progress::getValue).min().orElse(0);
+        double maxValue = rollups.stream().mapToDouble(DailyHabitRollup::getMaxValue).max().orElse(0);
+        double minValue = rollups.stream().mapToDouble(DailyHabitRollup::getMinValue).min().orElse(0);
 
-        Progress lastProgress = progressList.stream()
-                .max((p1, p2) -> p1.getDate().compareTo(p2.getDate()))
-                .orElse(null);
+        DailyHabitRollup lastDay = rollups.isEmpty() ? null : rollups.get(rollups.size() - 1);
 
-        double lastValue = lastProgress != null ? lastProgress.getValue() : 0;
-        LocalDate lastEntryDate = lastProgress != null ? lastProgress.getDate() : null;
+        double lastValue = lastDay != null ? lastDay.getAverageValue() : 0;
+        LocalDate lastEntryDate = lastDay != null ? lastDay.getDate() : null;
 
         // Calcul des objectifs atteints
         int daysTargetReached = 0;
         if (habit.getTargetValue() != null && habit.getTargetValue() > 0) {
-            daysTargetReached = (int) progressList.stream()
-                    .filter(p -> p.getValue() >= habit.getTargetValue())
-                    .count();
+            daysTargetReached = (int) rollups.stream().mapToLong(DailyHabitRollup::getTargetHits).sum();
         }
         double targetReachRate = totalEntries > 0 ? (double) daysTargetReached / totalEntries * 100 : 0;
 
         // Calculs simples
-        int consecutiveDays = calculateConsecutiveDays(progressList);
+        int consecutiveDays = calculateConsecutiveDays(rollups);
         double consistencyScore = completionRate; // Simplification
-        double progressTrend = calculateSimpleTrend(progressList);
+        double progressTrend = calculateSimpleTrend(rollups);
         boolean improvementDetected = progressTrend > 0;
 
         int daysSinceLastEntry = lastEntryDate != null ?
@@ -342,16 +775,17 @@ public class ProgressService {
         return chartData;
     }
 
-    private Map<String, Object> buildProgressSummary(List<Progress> progressList, int days) {
+    private Map<String, Object> buildProgressSummary(List<DailyHabitRollup> rollups, int days) {
         Map<String, Object> summary = new HashMap<>();
 
-        summary.put("totalEntries", progressList.size());
-        summary.put("averageEntriesPerDay", days > 0 ? (double) progressList.size() / days : 0);
+        int totalEntries = (int) rollups.stream().mapToLong(DailyHabitRollup::getEntryCount).sum();
+        summary.put("totalEntries", totalEntries);
+        summary.put("averageEntriesPerDay", days > 0 ? (double) totalEntries / days : 0);
 
-        // Grouper par date
+        // Grouper par date (toutes habitudes confondues)
         Map<LocalDate, Integer> dailyProgress = new HashMap<>();
-        progressList.forEach(progress -> {
-            dailyProgress.merge(progress.getDate(), 1, Integer::sum);
+        rollups.forEach(rollup -> {
+            dailyProgress.merge(rollup.getDate(), (int) rollup.getEntryCount(), Integer::sum);
         });
 
         summary.put("activeDays", dailyProgress.size());
@@ -360,12 +794,11 @@ public class ProgressService {
         return summary;
     }
 
-    private int calculateConsecutiveDays(List<Progress> progressList) {
-        if (progressList.isEmpty()) return 0;
+    private int calculateConsecutiveDays(List<DailyHabitRollup> rollups) {
+        if (rollups.isEmpty()) return 0;
 
-        List<LocalDate> dates = progressList.stream()
-                .map(Progress::getDate)
-                .distinct()
+        List<LocalDate> dates = rollups.stream()
+                .map(DailyHabitRollup::getDate)
                 .sorted(java.util.Collections.reverseOrder())
                 .toList();
 
@@ -384,22 +817,18 @@ public class ProgressService {
         return consecutive;
     }
 
-    private double calculateSimpleTrend(List<Progress> progressList) {
-        if (progressList.size() < 2) return 0;
-
-        List<Progress> sortedProgress = progressList.stream()
-                .sorted((p1, p2) -> p1.getDate().compareTo(p2.getDate()))
-                .toList();
+    private double calculateSimpleTrend(List<DailyHabitRollup> rollups) {
+        if (rollups.size() < 2) return 0;
 
-        int midPoint = sortedProgress.size() / 2;
+        int midPoint = rollups.size() / 2;
 
-        double firstHalfAvg = sortedProgress.subList(0, midPoint).stream()
-                .mapToDouble(Progress::getValue)
+        double firstHalfAvg = rollups.subList(0, midPoint).stream()
+                .mapToDouble(DailyHabitRollup::getAverageValue)
                 .average()
                 .orElse(0);
 
-        double secondHalfAvg = sortedProgress.subList(midPoint, sortedProgress.size()).stream()
-                .mapToDouble(Progress::getValue)
+        double secondHalfAvg = rollups.subList(midPoint, rollups.size()).stream()
+                .mapToDouble(DailyHabitRollup::getAverageValue)
                 .average()
                 .orElse(0);
 
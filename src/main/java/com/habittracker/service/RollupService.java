@@ -0,0 +1,329 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.DailyHabitRollup;
+import com.habittracker.entity.MonthlyUserRollup;
+import com.habittracker.entity.Progress;
+import com.habittracker.repository.DailyHabitRollupRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.MonthlyUserRollupRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.projection.DailyRollupAggregate;
+import com.habittracker.repository.projection.MonthlyProgressAggregate;
+import com.habittracker.repository.projection.MonthlyRollupAggregate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service de maintenance des rollups de progression (journalier par habitude, mensuel par utilisateur)
+ * Une création est appliquée de façon incrémentale, une modification ou suppression
+ * recalcule uniquement les compartiments concernés
+ * Chaque écriture verrouille d'abord la ligne de l'utilisateur : les lectures-modifications des rollups
+ * journaliers (de ses habitudes) et mensuels sont sérialisées, y compris la première création d'un compartiment
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(60) // Après le chargement des données, avant l'initialisation admin
+public class RollupService implements CommandLineRunner {
+
+    // Habitudes (journaliers) ou utilisateurs (mensuels) agrégés par requête lors d'une reconstruction complète
+    private static final int REBUILD_PAGE_SIZE = 100;
+
+    private final DailyHabitRollupRepository dailyHabitRollupRepository;
+    private final MonthlyUserRollupRepository monthlyUserRollupRepository;
+    private final ProgressRepository progressRepository;
+    private final HabitRepository habitRepository;
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Construit les rollups s'ils n'existent pas encore (données existantes ou importées)
+     */
+    @Override
+    @Transactional
+    public void run(String... args) {
+        try {
+            if (dailyHabitRollupRepository.count() == 0 && progressRepository.count() > 0) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la construction des rollups: {}", e.getMessage());
+        }
+    }
+
+    // === LECTURE ===
+
+    /**
+     * Rollups journaliers d'une habitude sur une période, triés par date
+     */
+    public List<DailyHabitRollup> getHabitDailyRollups(Long habitId, LocalDate start, LocalDate end) {
+        return dailyHabitRollupRepository.findByHabitIdAndDateBetweenOrderByDate(habitId, start, end);
+    }
+
+    /**
+     * Rollups journaliers de toutes les habitudes d'un utilisateur sur une période
+     */
+    public List<DailyHabitRollup> getUserDailyRollups(Long userId, LocalDate start, LocalDate end) {
+        return dailyHabitRollupRepository.findByUserIdAndDateBetween(userId, start, end);
+    }
+
+    /**
+     * Agrégats mensuels d'un utilisateur entre deux mois inclus, triés par mois
+     */
+    public List<MonthlyProgressAggregate> getUserMonthlyAggregates(Long userId, LocalDate startMonth, LocalDate endMonth) {
+        return monthlyUserRollupRepository.aggregateByUserIdAndMonthBetween(
+                userId, startMonth.withDayOfMonth(1), endMonth.withDayOfMonth(1));
+    }
+
+    // === MISE À JOUR ===
+
+    /**
+     * Applique une nouvelle progression aux rollups du jour et du mois
+     */
+    @Transactional
+    public void recordProgress(Progress progress, Double targetValue) {
+        boolean targetReached = targetValue != null && targetValue > 0 && progress.getValue() >= targetValue;
+        lockOwner(progress.getUserId());
+
+        DailyHabitRollup daily = dailyHabitRollupRepository
+                .findByHabitIdAndDate(progress.getHabitId(), progress.getDate())
+                .orElseGet(() -> new DailyHabitRollup(progress.getHabitId(), progress.getUserId(), progress.getDate()));
+        daily.add(progress.getValue(), targetReached);
+        dailyHabitRollupRepository.save(daily);
+
+        LocalDate monthStart = progress.getDate().withDayOfMonth(1);
+        MonthlyUserRollup monthly = monthlyUserRollupRepository
+                .findByUserIdAndMonthStart(progress.getUserId(), monthStart)
+                .orElseGet(() -> new MonthlyUserRollup(progress.getUserId(), monthStart));
+        monthly.add(progress.getValue(), targetReached);
+        monthlyUserRollupRepository.save(monthly);
+    }
+
+    /**
+     * Recalcule les compartiments d'une journée après modification ou suppression
+     * (les progressions doivent avoir été flushées)
+     */
+    @Transactional
+    public void refresh(Long habitId, Long userId, LocalDate date) {
+        lockOwner(userId);
+        refreshDaily(habitId, date);
+        refreshMonthly(userId, date.withDayOfMonth(1));
+    }
+
+    /**
+     * Recalcule les compartiments journaliers d'une habitude (import groupé) :
+     * une requête d'agrégats et une lecture des rollups existants sur la période couverte
+     */
+    @Transactional
+    public void refreshDays(Long habitId, Long userId, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        lockOwner(userId);
+
+        LocalDate start = Collections.min(dates);
+        LocalDate end = Collections.max(dates);
+
+        Map<LocalDate, DailyHabitRollup> existing = dailyHabitRollupRepository
+                .findByHabitIdAndDateBetweenOrderByDate(habitId, start, end).stream()
+                .collect(Collectors.toMap(DailyHabitRollup::getDate, Function.identity()));
+        Map<LocalDate, DailyRollupAggregate> aggregates = progressRepository
+                .aggregateDailyByHabitIdAndDateBetween(habitId, start, end).stream()
+                .collect(Collectors.toMap(DailyRollupAggregate::date, Function.identity()));
+
+        List<DailyHabitRollup> updated = new ArrayList<>();
+        List<DailyHabitRollup> removed = new ArrayList<>();
+
+        for (LocalDate date : new HashSet<>(dates)) {
+            DailyRollupAggregate aggregate = aggregates.get(date);
+            DailyHabitRollup rollup = existing.get(date);
+
+            if (aggregate == null) {
+                if (rollup != null) {
+                    removed.add(rollup);
+                }
+            } else {
+                rollup = rollup != null ? rollup : new DailyHabitRollup(habitId, aggregate.userId(), date);
+                apply(rollup, aggregate);
+                updated.add(rollup);
+            }
+        }
+
+        dailyHabitRollupRepository.saveAll(updated);
+        dailyHabitRollupRepository.deleteAll(removed);
+    }
+
+    /**
+     * Recalcule une seule fois chaque mois touché par les dates d'un utilisateur (import groupé)
+     */
+    @Transactional
+    public void refreshMonths(Long userId, Collection<LocalDate> dates) {
+        lockOwner(userId);
+        dates.stream()
+                .map(date -> date.withDayOfMonth(1))
+                .distinct()
+                .forEach(monthStart -> refreshMonthly(userId, monthStart));
+    }
+
+    /**
+     * Reconstruit les rollups d'une habitude (changement d'objectif)
+     */
+    @Transactional
+    public void rebuildHabit(Long habitId, Long userId) {
+        lockOwner(userId);
+        dailyHabitRollupRepository.deleteByHabitId(habitId);
+
+        List<DailyRollupAggregate> aggregates = progressRepository.aggregateDailyByHabitId(habitId);
+        dailyHabitRollupRepository.saveAll(aggregates.stream().map(this::toDailyRollup).toList());
+
+        Set<LocalDate> months = aggregates.stream()
+                .map(aggregate -> aggregate.date().withDayOfMonth(1))
+                .collect(Collectors.toSet());
+        months.forEach(monthStart -> refreshMonthly(userId, monthStart));
+
+        log.debug("📦 Rollups reconstruits pour habitude {}", habitId);
+    }
+
+    /**
+     * Reconstruit entièrement les rollups depuis les progressions, par pages d'habitudes puis d'utilisateurs :
+     * seule une page d'agrégats est en mémoire à la fois
+     */
+    @Transactional
+    public Map<String, Object> rebuildAll() {
+        long startTime = System.currentTimeMillis();
+
+        dailyHabitRollupRepository.deleteAllInBatch();
+        monthlyUserRollupRepository.deleteAllInBatch();
+
+        int dailyRollups = 0;
+        List<Long> habitIds = habitRepository.findIdsAfter(0L, PageRequest.of(0, REBUILD_PAGE_SIZE));
+        while (!habitIds.isEmpty()) {
+            List<DailyHabitRollup> page = progressRepository.aggregateDailyByHabitIdIn(habitIds).stream()
+                    .map(this::toDailyRollup)
+                    .toList();
+            dailyHabitRollupRepository.saveAll(page);
+            dailyRollups += page.size();
+            release();
+
+            habitIds = habitRepository.findIdsAfter(habitIds.get(habitIds.size() - 1), PageRequest.of(0, REBUILD_PAGE_SIZE));
+        }
+
+        int monthlyRollups = 0;
+        List<Long> userIds = userRepository.findIdsAfter(0L, PageRequest.of(0, REBUILD_PAGE_SIZE));
+        while (!userIds.isEmpty()) {
+            List<MonthlyUserRollup> page = progressRepository.aggregateMonthlyByUserIdIn(userIds).stream()
+                    .map(this::toMonthlyRollup)
+                    .toList();
+            monthlyUserRollupRepository.saveAll(page);
+            monthlyRollups += page.size();
+            release();
+
+            userIds = userRepository.findIdsAfter(userIds.get(userIds.size() - 1), PageRequest.of(0, REBUILD_PAGE_SIZE));
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("📦 Rollups reconstruits: {} journaliers, {} mensuels en {}ms",
+                dailyRollups, monthlyRollups, duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dailyRollups", dailyRollups);
+        result.put("monthlyRollups", monthlyRollups);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Verrou sur la ligne de l'utilisateur, à prendre avant toute lecture de ses rollups (READ COMMITTED :
+     * les lectures suivantes voient les compartiments validés par la transaction précédente)
+     */
+    private void lockOwner(Long userId) {
+        userRepository.lockById(userId);
+    }
+
+    private void refreshDaily(Long habitId, LocalDate date) {
+        DailyHabitRollup existing = dailyHabitRollupRepository.findByHabitIdAndDate(habitId, date).orElse(null);
+        List<DailyRollupAggregate> aggregates = progressRepository.aggregateDailyByHabitIdAndDate(habitId, date);
+
+        if (aggregates.isEmpty()) {
+            if (existing != null) {
+                dailyHabitRollupRepository.delete(existing);
+            }
+            return;
+        }
+
+        DailyRollupAggregate aggregate = aggregates.get(0);
+        DailyHabitRollup rollup = existing != null ? existing
+                : new DailyHabitRollup(aggregate.habitId(), aggregate.userId(), aggregate.date());
+        apply(rollup, aggregate);
+        dailyHabitRollupRepository.save(rollup);
+    }
+
+    private void refreshMonthly(Long userId, LocalDate monthStart) {
+        MonthlyUserRollup existing = monthlyUserRollupRepository.findByUserIdAndMonthStart(userId, monthStart).orElse(null);
+        List<MonthlyRollupAggregate> aggregates = progressRepository.aggregateMonthlyByUserId(
+                userId, monthStart, monthStart.plusMonths(1).minusDays(1));
+
+        if (aggregates.isEmpty()) {
+            if (existing != null) {
+                monthlyUserRollupRepository.delete(existing);
+            }
+            return;
+        }
+
+        MonthlyUserRollup rollup = existing != null ? existing : new MonthlyUserRollup(userId, monthStart);
+        MonthlyRollupAggregate aggregate = aggregates.get(0);
+        rollup.reset(aggregate.entryCount(), aggregate.valueSum(), aggregate.minValue(),
+                aggregate.maxValue(), aggregate.targetHits());
+        monthlyUserRollupRepository.save(rollup);
+    }
+
+    /**
+     * Écrit la page en base et la détache du contexte de persistance
+     */
+    private void release() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private DailyHabitRollup toDailyRollup(DailyRollupAggregate aggregate) {
+        DailyHabitRollup rollup = new DailyHabitRollup(aggregate.habitId(), aggregate.userId(), aggregate.date());
+        apply(rollup, aggregate);
+        return rollup;
+    }
+
+    private MonthlyUserRollup toMonthlyRollup(MonthlyRollupAggregate aggregate) {
+        MonthlyUserRollup rollup = new MonthlyUserRollup(aggregate.userId(), aggregate.monthStart());
+        rollup.reset(aggregate.entryCount(), aggregate.valueSum(), aggregate.minValue(),
+                aggregate.maxValue(), aggregate.targetHits());
+        return rollup;
+    }
+
+    private void apply(DailyHabitRollup rollup, DailyRollupAggregate aggregate) {
+        rollup.reset(aggregate.entryCount(), aggregate.valueSum(), aggregate.minValue(),
+                aggregate.maxValue(), aggregate.targetHits());
+    }
+}
@@ -1,20 +1,21 @@
 package com.habittracker.service;
 
+import com.habittracker.dto.admin.AdminMetricsSnapshot;
+import com.habittracker.entity.DailyHabitRollup;
 import com.habittracker.entity.Habit;
 import com.habittracker.entity.Progress;
-import com.habittracker.entity.User;
 import com.habittracker.repository.AchievementRepository;
 import com.habittracker.repository.HabitRepository;
 import com.habittracker.repository.ProgressRepository;
-import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.projection.HabitProgressAggregate;
+import com.habittracker.repository.projection.MonthlyProgressAggregate;
+import com.habittracker.util.ActivityBitmap;
 import com.habittracker.util.ValidationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -30,7 +31,10 @@ public class StatisticsService {
     private final ProgressRepository progressRepository;
     private final HabitRepository habitRepository;
     private final AchievementRepository achievementRepository;
-    private final UserRepository userRepository;
+    private final StreakService streakService;
+    private final HabitActivityService habitActivityService;
+    private final RollupService rollupService;
+    private final AdminMetricsService adminMetricsService;
 
 
     /**
@@ -55,9 +59,10 @@ public class StatisticsService {
 
         // Statistiques de période
         LocalDate startDate = LocalDate.now().minusDays(days - 1);
-        List<Progress> periodProgress = progressRepository.findByUserIdAndDateBetween(userId, startDate, LocalDate.now());
+        List<DailyHabitRollup> periodRollups = rollupService.getUserDailyRollups(userId, startDate, LocalDate.now());
+        int periodProgress = (int) countEntries(periodRollups);
 
-        stats.put("periodProgress", periodProgress.size());
+        stats.put("periodProgress", periodProgress);
         stats.put("averageProgressPerDay", calculateAverageProgressPerDay(periodProgress, days));
         stats.put("currentStreak", calculateUserCurrentStreak(userId));
         stats.put("bestWeek", findBestWeek(userId));
@@ -75,8 +80,12 @@ public class StatisticsService {
         ValidationUtils.validatePositive(days, "nombre de jours");
 
         Habit habit = getHabit(habitId);
-        LocalDate startDate = LocalDate.now().minusDays(days - 1);
-        List<Progress> progressList = progressRepository.findByHabitIdAndDateBetween(habitId, startDate, LocalDate.now());
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusDays(days - 1);
+        List<DailyHabitRollup> rollups = rollupService.getHabitDailyRollups(habitId, startDate, today);
+        List<Double> dailyValues = rollups.stream().map(DailyHabitRollup::getAverageValue).toList();
+        long totalEntries = countEntries(rollups);
+        ActivityBitmap activity = habitActivityService.getBitmap(habitId);
 
         Map<String, Object> stats = new HashMap<>();
 
@@ -87,19 +96,19 @@ public class StatisticsService {
         stats.put("habitTarget", habit.getTargetValue());
 
         // Statistiques de progression
-        stats.put("totalEntries", progressList.size());
-        stats.put("completionRate", calculateCompletionRate(progressList, days));
-        stats.put("currentStreak", calculateHabitCurrentStreak(habitId));
-        stats.put("longestStreak", calculateLongestStreak(habitId));
+        stats.put("totalEntries", (int) totalEntries);
+        stats.put("completionRate", calculateCompletionRate(activity, startDate, today, days));
+        stats.put("currentStreak", activity.runEndingAt(today));
+        stats.put("longestStreak", activity.longestRun());
 
         // Statistiques de valeurs
-        if (!progressList.isEmpty()) {
-            List<Double> values = progressList.stream().map(Progress::getValue).toList();
-            stats.put("totalValue", calculateSum(values));
-            stats.put("averageValue", calculateAverage(values));
-            stats.put("maxValue", calculateMax(values));
-            stats.put("minValue", calculateMin(values));
-            stats.put("medianValue", calculateMedian(values));
+        if (!rollups.isEmpty()) {
+            double totalValue = rollups.stream().mapToDouble(DailyHabitRollup::getValueSum).sum();
+            stats.put("totalValue", totalValue);
+            stats.put("averageValue", totalValue / totalEntries);
+            stats.put("maxValue", rollups.stream().mapToDouble(DailyHabitRollup::getMaxValue).max().orElse(0.0));
+            stats.put("minValue", rollups.stream().mapToDouble(DailyHabitRollup::getMinValue).min().orElse(0.0));
+            stats.put("medianValue", calculateMedian(dailyValues));
         } else {
             stats.put("totalValue", 0.0);
             stats.put("averageValue", 0.0);
@@ -109,12 +118,12 @@ public class StatisticsService {
         }
 
         // Tendances
-        stats.put("trend", calculateTrend(progressList));
-        stats.put("improvement", calculateImprovement(progressList));
-        stats.put("targetReachRate", calculateTargetReachRate(progressList, habit.getTargetValue()));
+        stats.put("trend", calculateTrend(dailyValues));
+        stats.put("improvement", calculateImprovement(dailyValues));
+        stats.put("targetReachRate", calculateTargetReachRate(rollups, totalEntries, habit.getTargetValue()));
 
         // Progression récente
-        stats.put("lastProgressDate", getLastProgressDate(progressList));
+        stats.put("lastProgressDate", getLastProgressDate(rollups));
         stats.put("daysSinceLastProgress", calculateDaysSinceLastProgress(habitId));
 
         log.debug("📊 Statistiques calculées pour habitude {}", habitId);
@@ -129,12 +138,12 @@ public class StatisticsService {
 
         Map<String, Object> trends = new HashMap<>();
 
-        // Récupérer les données des 6 derniers mois
-        LocalDate startDate = LocalDate.now().minusMonths(6);
-        List<Progress> progressList = progressRepository.findByUserIdAndDateBetween(userId, startDate, LocalDate.now());
+        // Agrégats des 6 derniers mois (une seule requête pour les volumes et les moyennes)
+        List<MonthlyProgressAggregate> monthlyAggregates = rollupService.getUserMonthlyAggregates(
+                userId, LocalDate.now().minusMonths(6), LocalDate.now());
 
-        Map<String, Integer> monthlyProgress = groupProgressByMonth(progressList);
-        Map<String, Double> monthlyAverages = calculateMonthlyAverages(userId, 6);
+        Map<String, Integer> monthlyProgress = groupProgressByMonth(monthlyAggregates);
+        Map<String, Double> monthlyAverages = calculateMonthlyAverages(monthlyAggregates, 6);
 
         trends.put("monthlyProgress", monthlyProgress);
         trends.put("monthlyAverages", monthlyAverages);
@@ -155,20 +164,27 @@ public class StatisticsService {
         List<Habit> userHabits = habitRepository.findByUserIdAndIsActive(userId, true);
         Map<String, Object> comparison = new HashMap<>();
 
+        // Une requête d'agrégat et une lecture d'index pour toutes les habitudes
+        List<Long> habitIds = userHabits.stream().map(Habit::getId).toList();
+        Map<Long, HabitProgressAggregate> aggregates = aggregateHabitProgress(habitIds, 30);
+        Map<Long, Integer> currentStreaks = streakService.getHabitCurrentStreaks(habitIds);
+
         List<Map<String, Object>> habitStats = new ArrayList<>();
 
         for (Habit habit : userHabits) {
             Map<String, Object> habitData = new HashMap<>();
 
-            long progressCount = progressRepository.countByHabitId(habit.getId());
-            double consistency = calculateHabitConsistency(habit.getId(), 30);
+            HabitProgressAggregate aggregate = aggregates.get(habit.getId());
+            long progressCount = aggregate != null ? aggregate.progressCount() : 0;
+            double consistency = calculateHabitConsistency(aggregate, 30);
 
             habitData.put("id", habit.getId());
             habitData.put("title", habit.getTitle());
             habitData.put("category", habit.getCategory());
             habitData.put("progressCount", progressCount);
             habitData.put("consistency", consistency);
-            habitData.put("currentStreak", calculateHabitCurrentStreak(habit.getId()));
+            habitData.put("currentStreak", currentStreaks.getOrDefault(habit.getId(), 0));
+            habitData.put("lastProgressDate", aggregate != null ? aggregate.lastDate() : null);
 
             habitStats.add(habitData);
         }
@@ -198,120 +214,46 @@ public class StatisticsService {
     /**
      * Calcule la moyenne de progression par jour
      */
-    private double calculateAverageProgressPerDay(List<Progress> progressList, int days) {
-        return days > 0 ? (double) progressList.size() / days : 0.0;
+    private double calculateAverageProgressPerDay(int progressCount, int days) {
+        return days > 0 ? (double) progressCount / days : 0.0;
     }
 
     /**
-     * Calcule le taux de completion (% de jours avec progression)
+     * Nombre de progressions couvertes par des rollups journaliers
      */
-    private double calculateCompletionRate(List<Progress> progressList, int days) {
-        Set<LocalDate> uniqueDates = progressList.stream()
-                .map(Progress::getDate)
-                .collect(Collectors.toSet());
-
-        return days > 0 ? (double) uniqueDates.size() / days * 100 : 0.0;
+    private long countEntries(List<DailyHabitRollup> rollups) {
+        return rollups.stream().mapToLong(DailyHabitRollup::getEntryCount).sum();
     }
 
     /**
-     * Calcule la série actuelle d'un utilisateur
+     * Calcule le taux de completion (% de jours avec progression)
      */
-    private int calculateUserCurrentStreak(Long userId) {
-        LocalDate currentDate = LocalDate.now();
-        int streak = 0;
-
-        // Vérifier jour par jour en remontant
-        for (int i = 0; i < 365; i++) { // Maximum 1 an
-            List<Progress> dayProgress = progressRepository.findByUserIdAndDate(userId, currentDate);
-
-            if (!dayProgress.isEmpty()) {
-                streak++;
-                currentDate = currentDate.minusDays(1);
-            } else if (i == 0) {
-                // Pas de progression aujourd'hui = pas de série
-                break;
-            } else {
-                // Première interruption trouvée
-                break;
-            }
-        }
-
-        return streak;
+    private double calculateCompletionRate(ActivityBitmap activity, LocalDate startDate, LocalDate endDate, int days) {
+        return days > 0 ? (double) activity.countBetween(startDate, endDate) / days * 100 : 0.0;
     }
 
     /**
-     * Calcule la série actuelle d'une habitude
-     */
-    private int calculateHabitCurrentStreak(Long habitId) {
-        LocalDate currentDate = LocalDate.now();
-        int streak = 0;
-
-        for (int i = 0; i < 365; i++) {
-            boolean hasProgress = progressRepository.existsByHabitIdAndDate(habitId, currentDate);
-
-            if (hasProgress) {
-                streak++;
-                currentDate = currentDate.minusDays(1);
-            } else if (i == 0) {
-                break;
-            } else {
-                break;
-            }
-        }
-
-        return streak;
-    }
-
-    /**
-     * Calcule la plus longue série d'une habitude
+     * Calcule la série actuelle d'un utilisateur
      */
-    private int calculateLongestStreak(Long habitId) {
-        List<Progress> allProgress = progressRepository.findTop30ByHabitIdOrderByDateDesc(habitId);
-
-        if (allProgress.isEmpty()) return 0;
-
-        List<LocalDate> dates = allProgress.stream()
-                .map(Progress::getDate)
-                .sorted()
-                .toList();
-
-        int maxStreak = 0;
-        int currentStreak = 1;
-
-        for (int i = 1; i < dates.size(); i++) {
-            LocalDate prevDate = dates.get(i - 1);
-            LocalDate currentDate = dates.get(i);
-
-            if (ChronoUnit.DAYS.between(prevDate, currentDate) == 1) {
-                currentStreak++;
-            } else {
-                maxStreak = Math.max(maxStreak, currentStreak);
-                currentStreak = 1;
-            }
-        }
-
-        return Math.max(maxStreak, currentStreak);
+    private int calculateUserCurrentStreak(Long userId) {
+        return streakService.getUserCurrentStreak(userId);
     }
 
     /**
      * Calcule la tendance (positive/négative/stable)
      */
-    private String calculateTrend(List<Progress> progressList) {
-        if (progressList.size() < 2) return "insufficient_data";
+    private String calculateTrend(List<Double> dailyValues) {
+        if (dailyValues.size() < 2) return "insufficient_data";
 
-        List<Progress> sortedProgress = progressList.stream()
-                .sorted(Comparator.comparing(Progress::getDate))
-                .toList();
-
-        int midPoint = sortedProgress.size() / 2;
+        int midPoint = dailyValues.size() / 2;
 
-        double firstHalfAvg = sortedProgress.subList(0, midPoint).stream()
-                .mapToDouble(Progress::getValue)
+        double firstHalfAvg = dailyValues.subList(0, midPoint).stream()
+                .mapToDouble(Double::doubleValue)
                 .average()
                 .orElse(0);
 
-        double secondHalfAvg = sortedProgress.subList(midPoint, sortedProgress.size()).stream()
-                .mapToDouble(Progress::getValue)
+        double secondHalfAvg = dailyValues.subList(midPoint, dailyValues.size()).stream()
+                .mapToDouble(Double::doubleValue)
                 .average()
                 .orElse(0);
 
@@ -325,15 +267,11 @@ public class StatisticsService {
     /**
      * Calcule le pourcentage d'amélioration
      */
-    private double calculateImprovement(List<Progress> progressList) {
-        if (progressList.size() < 2) return 0.0;
-
-        List<Progress> sortedProgress = progressList.stream()
-                .sorted(Comparator.comparing(Progress::getDate))
-                .toList();
+    private double calculateImprovement(List<Double> dailyValues) {
+        if (dailyValues.size() < 2) return 0.0;
 
-        double firstValue = sortedProgress.get(0).getValue();
-        double lastValue = sortedProgress.get(sortedProgress.size() - 1).getValue();
+        double firstValue = dailyValues.get(0);
+        double lastValue = dailyValues.get(dailyValues.size() - 1);
 
         if (firstValue == 0) return 0.0;
 
@@ -343,30 +281,38 @@ public class StatisticsService {
     /**
      * Calcule le taux d'atteinte de l'objectif
      */
-    private double calculateTargetReachRate(List<Progress> progressList, Double targetValue) {
-        if (targetValue == null || targetValue <= 0 || progressList.isEmpty()) {
+    private double calculateTargetReachRate(List<DailyHabitRollup> rollups, long totalEntries, Double targetValue) {
+        if (targetValue == null || targetValue <= 0 || totalEntries == 0) {
             return 0.0;
         }
 
-        long targetReached = progressList.stream()
-                .mapToLong(p -> p.getValue() >= targetValue ? 1 : 0)
+        long targetReached = rollups.stream()
+                .mapToLong(DailyHabitRollup::getTargetHits)
                 .sum();
 
-        return ((double) targetReached / progressList.size()) * 100;
+        return ((double) targetReached / totalEntries) * 100;
     }
 
     /**
-     * Calcule la consistance d'une habitude
+     * Agrège les progressions de plusieurs habitudes sur une période (une seule requête)
      */
-    private double calculateHabitConsistency(Long habitId, int days) {
+    private Map<Long, HabitProgressAggregate> aggregateHabitProgress(List<Long> habitIds, int days) {
+        if (habitIds.isEmpty()) {
+            return Map.of();
+        }
+
         LocalDate startDate = LocalDate.now().minusDays(days - 1);
-        List<Progress> progressList = progressRepository.findByHabitIdAndDateBetween(habitId, startDate, LocalDate.now());
 
-        Set<LocalDate> uniqueDates = progressList.stream()
-                .map(Progress::getDate)
-                .collect(Collectors.toSet());
+        return progressRepository.aggregateByHabitIds(habitIds, startDate, LocalDate.now()).stream()
+                .collect(Collectors.toMap(HabitProgressAggregate::habitId, aggregate -> aggregate));
+    }
 
-        return days > 0 ? ((double) uniqueDates.size() / days) * 100 : 0.0;
+    /**
+     * Calcule la consistance d'une habitude
+     */
+    private double calculateHabitConsistency(HabitProgressAggregate aggregate, int days) {
+        long activeDays = aggregate != null ? aggregate.activeDays() : 0;
+        return days > 0 ? ((double) activeDays / days) * 100 : 0.0;
     }
 
     /**
@@ -377,8 +323,11 @@ public class StatisticsService {
 
         if (activeHabits.isEmpty()) return 0.0;
 
+        Map<Long, HabitProgressAggregate> aggregates = aggregateHabitProgress(
+                activeHabits.stream().map(Habit::getId).toList(), days);
+
         double totalConsistency = activeHabits.stream()
-                .mapToDouble(habit -> calculateHabitConsistency(habit.getId(), days))
+                .mapToDouble(habit -> calculateHabitConsistency(aggregates.get(habit.getId()), days))
                 .sum();
 
         return totalConsistency / activeHabits.size();
@@ -390,17 +339,17 @@ public class StatisticsService {
     private String findBestWeek(Long userId) {
         // Implémentation simplifiée
         LocalDate startDate = LocalDate.now().minusWeeks(8);
-        List<Progress> progressList = progressRepository.findByUserIdAndDateBetween(userId, startDate, LocalDate.now());
+        List<DailyHabitRollup> rollups = rollupService.getUserDailyRollups(userId, startDate, LocalDate.now());
 
         Map<String, Integer> weeklyCount = new HashMap<>();
 
-        for (Progress progress : progressList) {
-            LocalDate date = progress.getDate();
+        for (DailyHabitRollup rollup : rollups) {
+            LocalDate date = rollup.getDate();
             int year = date.getYear();
             int weekOfYear = date.getDayOfYear() / 7 + 1;
             String weekKey = String.format("%d-S%02d", year, weekOfYear);
 
-            weeklyCount.merge(weekKey, 1, Integer::sum);
+            weeklyCount.merge(weekKey, (int) rollup.getEntryCount(), Integer::sum);
         }
 
         return weeklyCount.entrySet().stream()
@@ -412,13 +361,11 @@ public class StatisticsService {
     /**
      * Groupe les progressions par mois
      */
-    private Map<String, Integer> groupProgressByMonth(List<Progress> progressList) {
+    private Map<String, Integer> groupProgressByMonth(List<MonthlyProgressAggregate> monthlyAggregates) {
         Map<String, Integer> monthlyProgress = new HashMap<>();
 
-        for (Progress progress : progressList) {
-            String monthKey = progress.getDate().getYear() + "-" +
-                    String.format("%02d", progress.getDate().getMonthValue());
-            monthlyProgress.merge(monthKey, 1, Integer::sum);
+        for (MonthlyProgressAggregate aggregate : monthlyAggregates) {
+            monthlyProgress.put(aggregate.monthKey(), aggregate.count().intValue());
         }
 
         return monthlyProgress;
@@ -427,23 +374,20 @@ public class StatisticsService {
     /**
      * Calcule les moyennes mensuelles
      */
-    private Map<String, Double> calculateMonthlyAverages(Long userId, int months) {
+    private Map<String, Double> calculateMonthlyAverages(List<MonthlyProgressAggregate> monthlyAggregates, int months) {
         Map<String, Double> monthlyAverages = new HashMap<>();
 
+        Map<String, MonthlyProgressAggregate> aggregatesByMonth = monthlyAggregates.stream()
+                .collect(Collectors.toMap(MonthlyProgressAggregate::monthKey, aggregate -> aggregate));
+
         for (int i = 0; i < months; i++) {
             LocalDate monthStart = LocalDate.now().minusMonths(i).withDayOfMonth(1);
-            LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
-
-            List<Progress> monthProgress = progressRepository.findByUserIdAndDateBetween(userId, monthStart, monthEnd);
-
             String monthKey = monthStart.getYear() + "-" + String.format("%02d", monthStart.getMonthValue());
 
-            if (!monthProgress.isEmpty()) {
-                double average = monthProgress.stream()
-                        .mapToDouble(Progress::getValue)
-                        .average()
-                        .orElse(0.0);
-                monthlyAverages.put(monthKey, Math.round(average * 100.0) / 100.0);
+            MonthlyProgressAggregate aggregate = aggregatesByMonth.get(monthKey);
+
+            if (aggregate != null && aggregate.count() > 0) {
+                monthlyAverages.put(monthKey, Math.round(aggregate.averageValue() * 100.0) / 100.0);
             } else {
                 monthlyAverages.put(monthKey, 0.0);
             }
@@ -520,9 +464,9 @@ public class StatisticsService {
     /**
      * Récupère la date de dernière progression
      */
-    private LocalDate getLastProgressDate(List<Progress> progressList) {
-        return progressList.stream()
-                .map(Progress::getDate)
+    private LocalDate getLastProgressDate(List<DailyHabitRollup> rollups) {
+        return rollups.stream()
+                .map(DailyHabitRollup::getDate)
                 .max(LocalDate::compareTo)
                 .orElse(null);
     }
@@ -539,22 +483,6 @@ public class StatisticsService {
 
     // === MÉTHODES UTILITAIRES MATHÉMATIQUES ===
 
-    private double calculateSum(List<Double> values) {
-        return values.stream().mapToDouble(Double::doubleValue).sum();
-    }
-
-    private double calculateAverage(List<Double> values) {
-        return values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-    }
-
-    private double calculateMax(List<Double> values) {
-        return values.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-    }
-
-    private double calculateMin(List<Double> values) {
-        return values.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-    }
-
     private double calculateMedian(List<Double> values) {
         List<Double> sorted = values.stream().sorted().toList();
         int size = sorted.size();
@@ -566,31 +494,30 @@ public class StatisticsService {
         }
     }
 
-    // Méthodes à ajouter à votre StatisticsService existant
+    // === STATISTIQUES D'ADMINISTRATION (lues depuis l'instantané pré-calculé) ===
 
     /**
      * Statistiques globales pour l'admin
      */
     public Map<String, Object> getGlobalStatistics() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> stats = new HashMap<>();
 
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
-        long totalHabits = habitRepository.count();
-        long totalProgress = progressRepository.count();
-        long totalAchievements = achievementRepository.count();
+        long totalUsers = snapshot.getTotalUsers();
+        long activeUsers = snapshot.getActiveUsers();
+        long totalHabits = snapshot.getTotalHabits();
 
         stats.put("totalUsers", totalUsers);
         stats.put("activeUsers", activeUsers);
         stats.put("totalHabits", totalHabits);
-        stats.put("totalProgress", totalProgress);
-        stats.put("totalAchievements", totalAchievements);
+        stats.put("totalProgress", snapshot.getTotalProgress());
+        stats.put("totalAchievements", snapshot.getTotalAchievements());
 
         // Calculs dérivés
         double activeUserRate = totalUsers > 0 ? ((double) activeUsers / totalUsers) * 100 : 0;
         stats.put("activeUserRate", Math.round(activeUserRate * 100.0) / 100.0);
 
-        long nonAdminUsers = userRepository.countByRole(User.Role.USER);
+        long nonAdminUsers = snapshot.getNonAdminUsers();
         double avgHabitsPerUser = nonAdminUsers > 0 ? (double) totalHabits / nonAdminUsers : 0;
         stats.put("avgHabitsPerUser", Math.round(avgHabitsPerUser * 100.0) / 100.0);
 
@@ -601,17 +528,15 @@ public class StatisticsService {
      * Statistiques récentes pour l'admin
      */
     public Map<String, Object> getRecentStatistics() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> stats = new HashMap<>();
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
 
-        long newUsers = userRepository.findByCreatedAtAfter(weekAgo,
-                PageRequest.of(0, 1000)).getTotalElements();
-        long recentProgress = progressRepository.countByDateAfter(weekAgo.toLocalDate());
+        long newUsers = snapshot.getNewUsersThisWeek();
 
         stats.put("newUsersThisWeek", newUsers);
-        stats.put("progressThisWeek", recentProgress);
+        stats.put("progressThisWeek", snapshot.progressAfter(LocalDate.now().minusDays(7)));
 
-        long totalUsers = userRepository.count();
+        long totalUsers = snapshot.getTotalUsers();
         double weeklyGrowth = totalUsers > 0 ? ((double) newUsers / totalUsers) * 100 : 0;
         stats.put("weeklyGrowth", Math.round(weeklyGrowth * 100.0) / 100.0);
 
@@ -622,29 +547,23 @@ public class StatisticsService {
      * Données pour les graphiques admin
      */
     public Map<String, Object> getChartData() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> chartData = new HashMap<>();
 
-        // Croissance utilisateurs (simulation basée sur données réelles)
-        long currentUsers = userRepository.count();
+        // Croissance utilisateurs (cumul en fin de mois)
         Map<String, Object> userGrowth = new HashMap<>();
-        userGrowth.put("labels", new String[]{"Jan", "Fév", "Mar", "Avr", "Mai", "Juin"});
+        userGrowth.put("labels", snapshot.getUserGrowthLabels());
+        userGrowth.put("data", snapshot.getUserGrowthData());
 
-        int[] monthlyData = new int[6];
-        for (int i = 0; i < 6; i++) {
-            monthlyData[i] = (int) Math.max(1, currentUsers * (i + 1) / 6);
-        }
-        userGrowth.put("data", monthlyData);
-
-        // Activité hebdomadaire
-        long totalProgress = progressRepository.count();
+        // Activité hebdomadaire (progressions des 4 dernières semaines par jour de la semaine)
         Map<String, Object> weeklyActivity = new HashMap<>();
         weeklyActivity.put("labels", new String[]{"Lun", "Mar", "Mer", "Jeu", "Ven", "Sam", "Dim"});
 
-        int[] weeklyData = new int[7];
-        int avgDaily = (int) Math.max(1, totalProgress / 30);
-        for (int i = 0; i < 7; i++) {
-            double factor = (i < 5) ? 1.2 : 0.8; // Plus d'activité en semaine
-            weeklyData[i] = (int) Math.round(avgDaily * factor);
+        long[] weeklyData = new long[7];
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 28; i++) {
+            LocalDate date = today.minusDays(i);
+            weeklyData[date.getDayOfWeek().getValue() - 1] += snapshot.getDailyProgress().getOrDefault(date.toString(), 0L);
         }
         weeklyActivity.put("data", weeklyData);
 
@@ -658,83 +577,55 @@ public class StatisticsService {
      * Statistiques des habitudes pour l'admin
      */
     public Map<String, Object> getHabitStatistics() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> stats = new HashMap<>();
 
-        long totalHabits = habitRepository.count();
-        long activeHabits = habitRepository.countByIsActive(true);
-
-        stats.put("totalHabits", totalHabits);
-        stats.put("activeHabits", activeHabits);
-        stats.put("inactiveHabits", totalHabits - activeHabits);
+        stats.put("totalHabits", snapshot.getTotalHabits());
+        stats.put("activeHabits", snapshot.getActiveHabits());
+        stats.put("inactiveHabits", snapshot.getTotalHabits() - snapshot.getActiveHabits());
 
         return stats;
     }
 
     /**
-     * Répartition des habitudes par catégorie
+     * Répartition des habitudes actives par catégorie
      */
     public Map<String, Long> getHabitsByCategory() {
-        return habitRepository.findAll().stream()
-                .filter(Habit::getIsActive)
-                .collect(Collectors.groupingBy(
-                        habit -> habit.getCategory().name(),
-                        Collectors.counting()
-                ));
+        return adminMetricsService.getSnapshot().getHabitsByCategory();
     }
 
     /**
      * Habitudes populaires
      */
     public Map<String, String> getPopularHabits() {
-        Map<String, String> popular = new HashMap<>();
-
-        // Catégorie la plus représentée
-        String mostPopularCategory = habitRepository.findAll().stream()
-                .filter(Habit::getIsActive)
-                .collect(Collectors.groupingBy(
-                        habit -> habit.getCategory().name(),
-                        Collectors.counting()
-                ))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Aucune");
-
-        popular.put("mostCreated", mostPopularCategory);
-
-        // Habitude avec le plus de progressions (approximation)
-        String mostProgressed = habitRepository.findFirstByIsActiveTrue()
-                .map(Habit::getTitle)
-                .orElse("Aucune");
-
-        popular.put("mostProgressed", mostProgressed);
-        popular.put("bestCompletion", "Données en cours d'analyse");
-
-        return popular;
+        return adminMetricsService.getSnapshot().getPopularHabits();
     }
 
     /**
-     * Statistiques détaillées pour une période
+     * Statistiques détaillées pour une période (au plus l'historique conservé dans l'instantané)
      */
     public Map<String, Object> getDetailedStatistics(int days) {
+        ValidationUtils.validateRange(days, "nombre de jours", 1, AdminMetricsService.ACTIVITY_WINDOW_DAYS);
+
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> stats = new HashMap<>();
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
+        LocalDate startDate = LocalDate.now().minusDays(days);
 
         // Activité moyenne par jour
-        long progressInPeriod = progressRepository.countByDateAfter(startDate.toLocalDate());
+        long progressInPeriod = snapshot.progressAfter(startDate);
         double avgDailyProgress = days > 0 ? (double) progressInPeriod / days : 0;
         stats.put("avgDailyProgress", Math.round(avgDailyProgress * 100.0) / 100.0);
 
         // Taux de rétention
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
+        long totalUsers = snapshot.getTotalUsers();
+        long activeUsers = snapshot.getActiveUsers();
         double retentionRate = totalUsers > 0 ? ((double) activeUsers / totalUsers) * 100 : 0;
         stats.put("retentionRate", Math.round(retentionRate * 100.0) / 100.0);
 
         stats.put("avgSessionTime", "Non calculé");
 
-        long dailyActiveUsers = Math.round(activeUsers * 0.6);
-        stats.put("dailyActiveUsers", dailyActiveUsers);
+        // Utilisateurs actifs quotidiens (moyenne des utilisateurs ayant progressé chaque jour)
+        stats.put("dailyActiveUsers", Math.round(snapshot.averageActiveUsersAfter(startDate, days)));
 
         return stats;
     }
@@ -743,22 +634,22 @@ public class StatisticsService {
      * Tendances générales
      */
     public Map<String, String> getTrends() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, String> trends = new HashMap<>();
 
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countByIsActive(true);
+        long totalUsers = snapshot.getTotalUsers();
+        long activeUsers = snapshot.getActiveUsers();
 
         // Tendance utilisateurs
         double activeRatio = totalUsers > 0 ? (double) activeUsers / totalUsers : 0;
         trends.put("userGrowthTrend", activeRatio > 0.7 ? "positive" : activeRatio > 0.5 ? "stable" : "negative");
 
         // Tendance activité
-        long recentProgress = progressRepository.countByDateAfter(LocalDateTime.now().minusDays(7).toLocalDate());
+        long recentProgress = snapshot.progressAfter(LocalDate.now().minusDays(7));
         trends.put("activityTrend", recentProgress > 50 ? "positive" : recentProgress > 20 ? "stable" : "negative");
 
         // Tendance engagement
-        long activeHabits = habitRepository.countByIsActive(true);
-        trends.put("engagementTrend", activeHabits > totalUsers ? "positive" : "stable");
+        trends.put("engagementTrend", snapshot.getActiveHabits() > totalUsers ? "positive" : "stable");
 
         return trends;
     }
@@ -767,17 +658,16 @@ public class StatisticsService {
      * Funnel d'engagement
      */
     public Map<String, Object> getEngagementFunnel() {
+        AdminMetricsSnapshot snapshot = adminMetricsService.getSnapshot();
         Map<String, Object> funnel = new HashMap<>();
 
-        long totalUsers = userRepository.count();
-        long usersWithHabits = habitRepository.countDistinctByUserId();
-        long activeUsers = userRepository.countByIsActive(true);
+        long totalUsers = snapshot.getTotalUsers();
 
         if (totalUsers > 0) {
             funnel.put("registration", 100);
-            funnel.put("firstHabit", Math.round(((double) usersWithHabits / totalUsers) * 100));
-            funnel.put("weeklyActive", Math.round(((double) activeUsers / totalUsers) * 80));
-            funnel.put("monthlyActive", Math.round(((double) activeUsers / totalUsers) * 60));
+            funnel.put("firstHabit", Math.round(((double) snapshot.getUsersWithHabits() / totalUsers) * 100));
+            funnel.put("weeklyActive", Math.round(((double) snapshot.getWeeklyActiveUsers() / totalUsers) * 100));
+            funnel.put("monthlyActive", Math.round(((double) snapshot.getMonthlyActiveUsers() / totalUsers) * 100));
         } else {
             funnel.put("registration", 0);
             funnel.put("firstHabit", 0);
@@ -787,6 +677,4 @@ public class StatisticsService {
 
         return funnel;
     }
-
-
-}
\ No newline at end of file
+}
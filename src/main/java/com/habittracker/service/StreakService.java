@@ -0,0 +1,267 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.Streak;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.StreakRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.util.ActivityBitmap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Service de maintenance des index de série (habitude et utilisateur)
+ * Les séries sont mises à jour à l'écriture pour que chaque lecture soit en O(1)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(50) // Après le chargement des données, avant l'initialisation admin
+public class StreakService implements CommandLineRunner {
+
+    private final StreakRepository streakRepository;
+    private final ProgressRepository progressRepository;
+    private final HabitRepository habitRepository;
+    private final UserRepository userRepository;
+    private final HabitActivityService habitActivityService;
+
+    /**
+     * Construit les index manquants, reconstruit ceux qui ne suivent plus les progressions
+     * et supprime ceux dont l'habitude ou l'utilisateur n'existe plus
+     */
+    @Override
+    @Transactional
+    public void run(String... args) {
+        try {
+            int orphans = streakRepository.deleteOrphanHabitStreaks(Streak.Scope.HABIT)
+                    + streakRepository.deleteOrphanUserStreaks(Streak.Scope.USER);
+
+            Set<Long> habitIds = new LinkedHashSet<>(streakRepository.findHabitIdsWithoutStreak(Streak.Scope.HABIT));
+            habitIds.addAll(streakRepository.findStaleHabitIds(Streak.Scope.HABIT));
+            habitIds.forEach(habitId -> rebuild(Streak.Scope.HABIT, habitId));
+
+            Set<Long> userIds = new LinkedHashSet<>(streakRepository.findUserIdsWithoutStreak(Streak.Scope.USER));
+            userIds.addAll(streakRepository.findStaleUserIds(Streak.Scope.USER));
+            userIds.forEach(userId -> rebuild(Streak.Scope.USER, userId));
+
+            if (!habitIds.isEmpty() || !userIds.isEmpty() || orphans > 0) {
+                log.info("🔥 Index de séries construits: {} habitudes, {} utilisateurs ({} orphelins supprimés)",
+                        habitIds.size(), userIds.size(), orphans);
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la construction des index de séries: {}", e.getMessage());
+        }
+    }
+
+    // === LECTURE ===
+
+    /**
+     * Série actuelle d'une habitude
+     */
+    public int getHabitCurrentStreak(Long habitId) {
+        return getStreak(Streak.Scope.HABIT, habitId).getCurrentStreakAt(LocalDate.now());
+    }
+
+    /**
+     * Séries actuelles de plusieurs habitudes en une seule requête
+     */
+    public Map<Long, Integer> getHabitCurrentStreaks(Collection<Long> habitIds) {
+        LocalDate today = LocalDate.now();
+        Map<Long, Integer> streaks = new HashMap<>();
+
+        if (habitIds.isEmpty()) {
+            return streaks;
+        }
+
+        streakRepository.findByScopeAndOwnerIdIn(Streak.Scope.HABIT, habitIds)
+                .forEach(streak -> streaks.put(streak.getOwnerId(), streak.getCurrentStreakAt(today)));
+
+        // Habitudes pas encore indexées
+        habitIds.stream()
+                .filter(habitId -> !streaks.containsKey(habitId))
+                .forEach(habitId -> streaks.put(habitId, getHabitCurrentStreak(habitId)));
+
+        return streaks;
+    }
+
+    /**
+     * Série actuelle d'un utilisateur (toutes habitudes confondues)
+     */
+    public int getUserCurrentStreak(Long userId) {
+        return getStreak(Streak.Scope.USER, userId).getCurrentStreakAt(LocalDate.now());
+    }
+
+    /**
+     * Plus longue série d'un utilisateur (toutes habitudes confondues)
+     */
+    public int getUserLongestStreak(Long userId) {
+        return getStreak(Streak.Scope.USER, userId).getLongestStreak();
+    }
+
+    // === MISE À JOUR ===
+
+    /**
+     * Enregistre une nouvelle journée d'activité pour une habitude et son utilisateur
+     */
+    @Transactional
+    public void recordActivity(Long habitId, Long userId, LocalDate date) {
+        recordActivity(Streak.Scope.HABIT, habitId, date);
+        recordActivity(Streak.Scope.USER, userId, date);
+    }
+
+    /**
+     * Enregistre les nouvelles journées d'activité de plusieurs habitudes d'un même utilisateur
+     * (écriture différée des incréments) : séries des habitudes puis de l'utilisateur, sans relire l'historique
+     * sauf saisie rétroactive
+     */
+    @Transactional
+    public void recordActivity(Map<Long, ? extends Collection<LocalDate>> datesByHabit, Long userId) {
+        datesByHabit.forEach((habitId, dates) -> recordActivity(Streak.Scope.HABIT, habitId, new TreeSet<>(dates)));
+
+        SortedSet<LocalDate> userDates = new TreeSet<>();
+        datesByHabit.values().forEach(userDates::addAll);
+        recordActivity(Streak.Scope.USER, userId, userDates);
+    }
+
+    /**
+     * Recalcule les séries après une modification de date ou une suppression
+     */
+    @Transactional
+    public void refresh(Long habitId, Long userId) {
+        rebuild(Streak.Scope.HABIT, habitId);
+        rebuild(Streak.Scope.USER, userId);
+    }
+
+    /**
+     * Recalcule les séries de plusieurs habitudes d'un même utilisateur (import groupé)
+     */
+    @Transactional
+    public void refresh(Collection<Long> habitIds, Long userId) {
+        habitIds.forEach(habitId -> rebuild(Streak.Scope.HABIT, habitId));
+        rebuild(Streak.Scope.USER, userId);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private Streak getStreak(Streak.Scope scope, Long ownerId) {
+        return streakRepository.findByScopeAndOwnerId(scope, ownerId)
+                .orElseGet(() -> compute(new Streak(scope, ownerId)));
+    }
+
+    /**
+     * Journées triées : une reconstruction couvre aussi les suivantes, déjà écrites
+     */
+    private void recordActivity(Streak.Scope scope, Long ownerId, SortedSet<LocalDate> dates) {
+        for (LocalDate date : dates) {
+            if (!recordActivity(scope, ownerId, date)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retourne false si la série a dû être reconstruite depuis l'historique
+     */
+    private boolean recordActivity(Streak.Scope scope, Long ownerId, LocalDate date) {
+        Streak streak = streakRepository.findForUpdate(scope, ownerId).orElse(null);
+
+        if (streak == null) {
+            rebuild(scope, ownerId);
+            return false;
+        }
+
+        LocalDate lastActive = streak.getLastActiveDate();
+
+        if (lastActive != null && date.isBefore(lastActive)) {
+            // Saisie rétroactive : elle peut relier deux séries
+            rebuild(scope, ownerId);
+            return false;
+        }
+
+        if (date.equals(lastActive)) {
+            return true;
+        }
+
+        boolean continuesStreak = lastActive != null && date.equals(lastActive.plusDays(1));
+        streak.setCurrentStreak(continuesStreak ? streak.getCurrentStreak() + 1 : 1);
+        streak.setLongestStreak(Math.max(streak.getLongestStreak(), streak.getCurrentStreak()));
+        streak.setLastActiveDate(date);
+
+        streakRepository.save(streak);
+        return true;
+    }
+
+    private void rebuild(Streak.Scope scope, Long ownerId) {
+        Streak streak = streakRepository.findForUpdate(scope, ownerId)
+                .orElseGet(() -> create(scope, ownerId));
+
+        streakRepository.save(compute(streak));
+        log.debug("🔥 Série reconstruite: {} {}", scope, ownerId);
+    }
+
+    /**
+     * Premier index d'une habitude ou d'un utilisateur : le verrou sur la ligne propriétaire
+     * sérialise les créations concurrentes, la seconde transaction relit l'index créé par la première
+     */
+    private Streak create(Streak.Scope scope, Long ownerId) {
+        if (scope == Streak.Scope.HABIT) {
+            habitRepository.lockById(ownerId);
+        } else {
+            userRepository.lockById(ownerId);
+        }
+
+        return streakRepository.findForUpdate(scope, ownerId)
+                .orElseGet(() -> new Streak(scope, ownerId));
+    }
+
+    /**
+     * Calcule la série d'une habitude depuis son bitmap, celle d'un utilisateur depuis ses dates
+     */
+    private Streak compute(Streak streak) {
+        if (streak.getScope() == Streak.Scope.USER) {
+            return compute(streak, progressRepository.findDistinctDatesByUserId(streak.getOwnerId()));
+        }
+
+        ActivityBitmap bitmap = habitActivityService.getBitmap(streak.getOwnerId());
+        LocalDate lastActive = bitmap.lastActiveDate();
+
+        streak.setCurrentStreak(lastActive != null ? bitmap.runEndingAt(lastActive) : 0);
+        streak.setLongestStreak(bitmap.longestRun());
+        streak.setLastActiveDate(lastActive);
+        return streak;
+    }
+
+    /**
+     * Calcule série actuelle, plus longue série et dernière date à partir de dates triées
+     */
+    private Streak compute(Streak streak, List<LocalDate> sortedDates) {
+        int longest = 0;
+        int current = 0;
+        LocalDate previous = null;
+
+        for (LocalDate date : sortedDates) {
+            current = previous != null && date.equals(previous.plusDays(1)) ? current + 1 : 1;
+            longest = Math.max(longest, current);
+            previous = date;
+        }
+
+        streak.setCurrentStreak(current);
+        streak.setLongestStreak(longest);
+        streak.setLastActiveDate(previous);
+        return streak;
+    }
+}
@@ -1,9 +1,11 @@
 package com.habittracker.service;
 
 import com.habittracker.entity.*;
+import com.habittracker.event.ProgressRecordedEvent;
 import com.habittracker.repository.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +28,36 @@ public class TestDataService {
     @Autowired
     private AchievementRepository achievementRepository;
 
+    @Autowired
+    private StreakRepository streakRepository;
+
+    @Autowired
+    private HabitActivityRepository habitActivityRepository;
+
+    @Autowired
+    private DailyHabitRollupRepository dailyHabitRollupRepository;
+
+    @Autowired
+    private MonthlyUserRollupRepository monthlyUserRollupRepository;
+
+    @Autowired
+    private UserMetricsRepository userMetricsRepository;
+
+    @Autowired
+    private StreakService streakService;
+
+    @Autowired
+    private HabitActivityService habitActivityService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private UserMetricsService userMetricsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final Random random = new Random();
 
     /**
@@ -36,6 +68,11 @@ public class TestDataService {
         log.info("🧹 Nettoyage de toutes les données...");
 
         achievementRepository.deleteAll();
+        streakRepository.deleteAll();
+        habitActivityRepository.deleteAll();
+        dailyHabitRollupRepository.deleteAllInBatch();
+        monthlyUserRollupRepository.deleteAllInBatch();
+        userMetricsRepository.deleteAllInBatch();
         progressRepository.deleteAll();
         habitRepository.deleteAll();
         userRepository.deleteAll();
@@ -65,6 +102,8 @@ public class TestDataService {
         // Créer des achievements de test
         createTestAchievementsForUser(user.getId());
 
+        userMetricsService.rebuild(user.getId());
+
         return user;
     }
 
@@ -92,6 +131,11 @@ public class TestDataService {
                     }
 
                     progressRepository.save(progress);
+                    habitActivityService.markActive(habit.getId(), progress.getDate());
+                    streakService.recordActivity(habit.getId(), userId, progress.getDate());
+                    rollupService.recordProgress(progress, habit.getTargetValue());
+                    userMetricsService.recordProgress(userId, 1);
+                    eventPublisher.publishEvent(new ProgressRecordedEvent(userId, habit.getId(), progress.getDate()));
                     log.info("  ✅ Progrès ajouté pour : {} ({})", habit.getTitle(), value);
                 }
             }
@@ -146,6 +190,9 @@ public class TestDataService {
                     Double value = generateRealisticValue(habit);
                     Progress progress = new Progress(userId, habit.getId(), date, value);
                     progressRepository.save(progress);
+                    habitActivityService.markActive(habit.getId(), date);
+                    streakService.recordActivity(habit.getId(), userId, date);
+                    rollupService.recordProgress(progress, habit.getTargetValue());
                 }
             }
         });
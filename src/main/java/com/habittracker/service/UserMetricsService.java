@@ -0,0 +1,119 @@
+package com.habittracker.service;
+
+import com.habittracker.entity.UserMetrics;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.UserMetricsRepository;
+import com.habittracker.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service de maintenance des compteurs par utilisateur utilisés par les achievements
+ * Le nombre de progressions est incrémenté à l'écriture, les compteurs d'habitudes
+ * sont recalculés à chaque modification d'habitude (bornés par le nombre d'habitudes)
+ * Les recalculs se font sous le verrou de la ligne de l'utilisateur, et chaque écriture ne modifie
+ * que ses propres colonnes : le compteur de progressions n'est jamais écrasé par une valeur périmée
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Order(70) // Après les index de séries et les rollups
+public class UserMetricsService implements CommandLineRunner {
+
+    private final UserMetricsRepository userMetricsRepository;
+    private final ProgressRepository progressRepository;
+    private final HabitRepository habitRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Construit les compteurs manquants (données existantes ou importées)
+     */
+    @Override
+    @Transactional
+    public void run(String... args) {
+        try {
+            List<Long> userIds = userMetricsRepository.findUserIdsWithoutMetrics();
+            userIds.forEach(this::rebuild);
+
+            if (!userIds.isEmpty()) {
+                log.info("📐 Compteurs utilisateur construits: {} utilisateurs", userIds.size());
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la construction des compteurs utilisateur: {}", e.getMessage());
+        }
+    }
+
+    // === LECTURE ===
+
+    /**
+     * Compteurs d'un utilisateur (calculés à la volée s'ils ne sont pas encore indexés)
+     */
+    public UserMetrics getMetrics(Long userId) {
+        return userMetricsRepository.findById(userId)
+                .orElseGet(() -> compute(new UserMetrics(userId)));
+    }
+
+    // === MISE À JOUR ===
+
+    /**
+     * Ajoute (ou retire) des progressions au compteur de l'utilisateur
+     */
+    @Transactional
+    public void recordProgress(Long userId, long delta) {
+        if (userMetricsRepository.incrementProgressCount(userId, delta) == 0) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Recalcule les compteurs d'habitudes après création, modification ou (dés)activation
+     */
+    @Transactional
+    public void refreshHabitCounts(Long userId) {
+        // Deux modifications concurrentes d'habitudes se comptent l'une l'autre
+        userRepository.lockById(userId);
+
+        long activeHabitCount = habitRepository.countByUserIdAndIsActive(userId, true);
+        long categoryCount = habitRepository.countDistinctCategoriesByUserId(userId);
+
+        if (userMetricsRepository.updateHabitCounts(userId, activeHabitCount, categoryCount) == 0) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Recalcule entièrement les compteurs d'un utilisateur
+     */
+    @Transactional
+    public void rebuild(Long userId) {
+        // Deux premières écritures concurrentes : la seconde relit la ligne créée par la première
+        userRepository.lockById(userId);
+
+        UserMetrics metrics = userMetricsRepository.findById(userId)
+                .orElseGet(() -> new UserMetrics(userId));
+
+        userMetricsRepository.save(compute(metrics));
+        log.debug("📐 Compteurs reconstruits pour l'utilisateur {}", userId);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private UserMetrics compute(UserMetrics metrics) {
+        metrics.setProgressCount(progressRepository.countByUserId(metrics.getUserId()));
+        return computeHabitCounts(metrics);
+    }
+
+    private UserMetrics computeHabitCounts(UserMetrics metrics) {
+        Long userId = metrics.getUserId();
+        metrics.setActiveHabitCount(habitRepository.countByUserIdAndIsActive(userId, true));
+        metrics.setCategoryCount(habitRepository.countDistinctCategoriesByUserId(userId));
+        return metrics;
+    }
+}
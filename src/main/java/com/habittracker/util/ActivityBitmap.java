@@ -0,0 +1,265 @@
+package com.habittracker.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bitmap d'activité journalière : un bit par jour depuis la date d'origine
+ * Les calculs (séries, comptages) travaillent mot par mot (64 jours à la fois)
+ */
+public class ActivityBitmap {
+
+    private static final int WORD_BITS = 64;
+
+    private LocalDate origin;
+    private long[] words;
+
+    public ActivityBitmap(LocalDate origin) {
+        this(origin, new long[0]);
+    }
+
+    private ActivityBitmap(LocalDate origin, long[] words) {
+        this.origin = origin;
+        this.words = words;
+    }
+
+    /**
+     * Reconstruit un bitmap depuis sa forme sérialisée
+     */
+    public static ActivityBitmap fromBytes(LocalDate origin, byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return new ActivityBitmap(origin);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long[] words = new long[bytes.length / Long.BYTES];
+        buffer.asLongBuffer().get(words);
+        return new ActivityBitmap(origin, words);
+    }
+
+    /**
+     * Construit un bitmap à partir d'une liste de dates d'activité
+     */
+    public static ActivityBitmap fromDates(Collection<LocalDate> dates, LocalDate defaultOrigin) {
+        LocalDate origin = dates.stream().min(LocalDate::compareTo).orElse(defaultOrigin);
+
+        ActivityBitmap bitmap = new ActivityBitmap(origin);
+        dates.forEach(bitmap::set);
+        return bitmap;
+    }
+
+    /**
+     * Sérialise le bitmap (sans les mots vides de fin)
+     */
+    public byte[] toBytes() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(words, 0, length);
+        return buffer.array();
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public boolean isEmpty() {
+        return Arrays.stream(words).allMatch(word -> word == 0);
+    }
+
+    // === ACCÈS PAR JOUR ===
+
+    public boolean get(LocalDate date) {
+        long index = indexOf(date);
+        if (index < 0 || index >= capacity()) {
+            return false;
+        }
+        return (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    public void set(LocalDate date) {
+        if (date.isBefore(origin)) {
+            rebase(date);
+        }
+
+        long index = indexOf(date);
+        ensureCapacity(index);
+        words[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    public void clear(LocalDate date) {
+        long index = indexOf(date);
+        if (index >= 0 && index < capacity()) {
+            words[(int) (index >>> 6)] &= ~(1L << index);
+        }
+    }
+
+    // === CALCULS ===
+
+    /**
+     * Nombre de jours actifs entre deux dates (incluses)
+     */
+    public int countBetween(LocalDate from, LocalDate to) {
+        long start = Math.max(0, indexOf(from));
+        long end = Math.min(capacity() - 1, indexOf(to));
+        if (start > end) {
+            return 0;
+        }
+
+        int firstWord = (int) (start >>> 6);
+        int lastWord = (int) (end >>> 6);
+        long firstMask = -1L << start;
+        long lastMask = -1L >>> (WORD_BITS - 1 - (end & 63));
+
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /**
+     * Plus longue suite de jours actifs consécutifs
+     */
+    public int longestRun() {
+        int longest = 0;
+        int run = 0;
+
+        for (long word : words) {
+            if (word == -1L) {
+                run += WORD_BITS;
+                continue;
+            }
+            if (word == 0) {
+                longest = Math.max(longest, run);
+                run = 0;
+                continue;
+            }
+
+            // Les bits de poids faible prolongent la série du mot précédent
+            int trailing = Long.numberOfTrailingZeros(~word);
+            int leading = Long.numberOfLeadingZeros(~word);
+            longest = Math.max(longest, run + trailing);
+
+            long inner = word & (-1L << trailing) & (-1L >>> leading);
+            longest = Math.max(longest, longestRunInWord(inner));
+
+            // Les bits de poids fort démarrent la série du mot suivant
+            run = leading;
+        }
+
+        return Math.max(longest, run);
+    }
+
+    /**
+     * Nombre de jours actifs consécutifs se terminant à la date donnée (0 si inactive)
+     */
+    public int runEndingAt(LocalDate date) {
+        long index = indexOf(date);
+        if (index < 0 || index >= capacity()) {
+            return 0;
+        }
+
+        int wordIndex = (int) (index >>> 6);
+        int bit = (int) (index & 63);
+
+        // Aligne le bit du jour sur le bit de poids fort puis compte les 1 consécutifs
+        int run = Long.numberOfLeadingZeros(~(words[wordIndex] << (WORD_BITS - 1 - bit)));
+        if (run < bit + 1) {
+            return run;
+        }
+
+        for (int i = wordIndex - 1; i >= 0; i--) {
+            if (words[i] != -1L) {
+                return run + Long.numberOfLeadingZeros(~words[i]);
+            }
+            run += WORD_BITS;
+        }
+        return run;
+    }
+
+    /**
+     * Dernière date active (null si aucune activité)
+     */
+    public LocalDate lastActiveDate() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                long index = (long) i * WORD_BITS + (WORD_BITS - 1 - Long.numberOfLeadingZeros(words[i]));
+                return origin.plusDays(index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cellules de heatmap (date -> 0/1) entre deux dates incluses
+     */
+    public Map<String, Integer> heatmap(LocalDate from, LocalDate to) {
+        Map<String, Integer> cells = new LinkedHashMap<>();
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            cells.put(date.toString(), get(date) ? 1 : 0);
+        }
+
+        return cells;
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private long indexOf(LocalDate date) {
+        return ChronoUnit.DAYS.between(origin, date);
+    }
+
+    private long capacity() {
+        return (long) words.length * WORD_BITS;
+    }
+
+    private void ensureCapacity(long index) {
+        int required = (int) (index >>> 6) + 1;
+        if (required > words.length) {
+            words = Arrays.copyOf(words, required);
+        }
+    }
+
+    /**
+     * Recule la date d'origine en décalant tous les bits
+     */
+    private void rebase(LocalDate newOrigin) {
+        long shift = ChronoUnit.DAYS.between(newOrigin, origin);
+        int wordShift = (int) (shift >>> 6);
+        int bitShift = (int) (shift & 63);
+
+        long[] shifted = new long[words.length + wordShift + 1];
+        for (int i = 0; i < words.length; i++) {
+            shifted[i + wordShift] |= words[i] << bitShift;
+            if (bitShift != 0) {
+                shifted[i + wordShift + 1] |= words[i] >>> (WORD_BITS - bitShift);
+            }
+        }
+
+        origin = newOrigin;
+        words = shifted;
+    }
+
+    private static int longestRunInWord(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,147 @@
+package com.habittracker;
+
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.User;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tests d'intégration sur un PostgreSQL embarqué (ON CONFLICT, verrous, plans d'exécution)
+ * Une seule instance et un seul contexte Spring pour toutes les classes qui en héritent
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(PostgresIntegrationTest.SqlCaptureConfig.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected HabitRepository habitRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    private final List<Long> createdUserIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    /**
+     * Utilisateur de test, supprimé avec toutes ses données après le test
+     */
+    protected User createUser() {
+        String username = "it-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User(username, username + "@test.local", "secret"));
+        createdUserIds.add(user.getId());
+        return user;
+    }
+
+    protected Habit createHabit(Long userId) {
+        return habitRepository.save(new Habit(userId, "Habitude " + UUID.randomUUID().toString().substring(0, 8),
+                Habit.Category.SPORT, "km", Habit.Frequency.DAILY));
+    }
+
+    @AfterEach
+    void deleteCreatedData() {
+        for (Long userId : createdUserIds) {
+            jdbcTemplate.update("DELETE FROM streaks WHERE (scope = 'USER' AND owner_id = ?) " +
+                    "OR (scope = 'HABIT' AND owner_id IN (SELECT id FROM habit WHERE user_id = ?))", userId, userId);
+            jdbcTemplate.update("DELETE FROM habit_activity WHERE habit_id IN (SELECT id FROM habit WHERE user_id = ?)", userId);
+            jdbcTemplate.update("DELETE FROM daily_habit_rollup WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM monthly_user_rollup WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM user_metrics WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM achievement WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM progress_increment_dead_letter WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM progress WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM habit WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        createdUserIds.clear();
+    }
+
+    /**
+     * Connexion directe en protocole simple : le SQL est envoyé tel quel, paramètres $n compris
+     */
+    protected static Connection simpleProtocolConnection() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl("postgres", "postgres") + "&preferQueryMode=simple");
+    }
+
+    /**
+     * Requêtes SQL émises par Hibernate, capturées pendant {@link SqlCapture#record}
+     */
+    public static class SqlCapture implements org.hibernate.resource.jdbc.spi.StatementInspector {
+
+        private final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = recorded.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+
+        public List<String> record(Runnable action) {
+            List<String> statements = new ArrayList<>();
+            recorded.set(statements);
+            try {
+                action.run();
+            } finally {
+                recorded.remove();
+            }
+            return statements;
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer(SqlCapture sqlCapture) {
+            return properties -> properties.put("hibernate.session_factory.statement_inspector", sqlCapture);
+        }
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Démarrage de PostgreSQL embarqué impossible", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.habittracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachePayloadSerializerTest {
+
+    @ParameterizedTest
+    @EnumSource(CachePayloadFormat.class)
+    void roundTripsUncompressedValues(CachePayloadFormat format) {
+        CachePayloadSerializer serializer = new CachePayloadSerializer(format, -1);
+
+        byte[] bytes = serializer.serialize(value());
+
+        assertThat(bytes[0]).isZero();
+        assertThat(bytes[1]).isEqualTo(format.getId());
+        assertThat(bytes[2]).isZero();
+        assertThat(serializer.deserialize(bytes, Map.class)).isEqualTo(value());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CachePayloadFormat.class)
+    void roundTripsCompressedValues(CachePayloadFormat format) {
+        CachePayloadSerializer serializer = new CachePayloadSerializer(format, 0);
+
+        byte[] bytes = serializer.serialize(value());
+
+        assertThat(bytes[1]).isEqualTo(format.getId());
+        assertThat(bytes[2]).isEqualTo((byte) 0x01);
+        assertThat(serializer.deserialize(bytes, Map.class)).isEqualTo(value());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CachePayloadFormat.class)
+    void readsValuesWrittenInAnotherFormat(CachePayloadFormat format) {
+        byte[] bytes = new CachePayloadSerializer(format, 0).serialize(value());
+
+        // Format configuré changé entre l'écriture et la lecture
+        assertThat(new CachePayloadSerializer(CachePayloadFormat.SMILE, -1).deserialize(bytes, Map.class))
+                .isEqualTo(value());
+    }
+
+    @Test
+    void readsRawJsonWrittenBeforeTheHeader() throws Exception {
+        byte[] legacy = new ObjectMapper().writeValueAsBytes(value());
+
+        assertThat(new CachePayloadSerializer(CachePayloadFormat.CBOR, 0).deserialize(legacy, Map.class))
+                .isEqualTo(value());
+    }
+
+    private Map<String, Object> value() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("habitId", 42);
+        value.put("title", "Course à pied");
+        value.put("values", List.of(1.5, 2.0, 3.25));
+        // Contenu répétitif : compressible au-delà de l'en-tête LZ4
+        value.put("notes", Collections.nCopies(50, "séance du matin"));
+        return value;
+    }
+}
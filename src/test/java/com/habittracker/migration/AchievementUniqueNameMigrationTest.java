@@ -0,0 +1,51 @@
+package com.habittracker.migration;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.User;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AchievementUniqueNameMigrationTest extends PostgresIntegrationTest {
+
+    @Test
+    void duplicatesAreMergedBeforeTheConstraintIsAdded() throws Exception {
+        User user = createUser();
+        jdbcTemplate.execute("ALTER TABLE achievement DROP CONSTRAINT " + V2__Achievement_unique_name.CONSTRAINT);
+        try {
+            insert(user.getId(), "Premier pas");
+            insert(user.getId(), "Premier pas");
+            insert(user.getId(), "Centurion");
+        } finally {
+            migrate();
+        }
+
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM achievement WHERE user_id = ? ORDER BY name",
+                String.class, user.getId())).containsExactly("Centurion", "Premier pas");
+        assertThatThrownBy(() -> insert(user.getId(), "Centurion")).hasMessageContaining(V2__Achievement_unique_name.CONSTRAINT);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void insert(Long userId, String name) {
+        jdbcTemplate.update("INSERT INTO achievement (id, user_id, name, icon, achievement_type, unlocked_at) " +
+                "VALUES (nextval('achievement_seq'), ?, ?, '🏆', 'MILESTONE', now())", userId, name);
+    }
+
+    private void migrate() throws Exception {
+        // Exécutée dans une transaction, comme par Flyway
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            Context context = mock(Context.class);
+            when(context.getConnection()).thenReturn(connection);
+            new V2__Achievement_unique_name().migrate(context);
+            connection.commit();
+        }
+    }
+}
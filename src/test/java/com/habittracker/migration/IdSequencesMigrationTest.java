@@ -0,0 +1,89 @@
+package com.habittracker.migration;
+
+import com.habittracker.PostgresIntegrationTest;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdSequencesMigrationTest extends PostgresIntegrationTest {
+
+    // Schéma séparé : tables d'avant la migration (IDENTITY), sans toucher aux tables de l'application
+    private static final String SCHEMA = "legacy_ids";
+
+    @AfterEach
+    void dropLegacySchema() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void identityColumnsMoveToSequencesPastExistingIds() throws Exception {
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("CREATE TABLE " + SCHEMA + ".habit (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, title VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE " + SCHEMA + ".progress (id BIGSERIAL PRIMARY KEY, value DOUBLE PRECISION)");
+        jdbcTemplate.execute("INSERT INTO " + SCHEMA + ".habit (title) SELECT 'h' || n FROM generate_series(1, 120) n");
+        jdbcTemplate.execute("INSERT INTO " + SCHEMA + ".progress (value) VALUES (1.0), (2.0)");
+
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET search_path TO " + SCHEMA);
+
+                // Exécutée dans une transaction, comme par Flyway
+                Context context = mock(Context.class);
+                when(context.getConnection()).thenReturn(connection);
+                new V3__Id_sequences().migrate(context);
+                connection.commit();
+
+                // Nouvelle instance (pooled) : bloc [valeur - 49, valeur] au-delà des identifiants existants
+                long block = single(statement, "SELECT nextval('habit_seq')");
+                assertThat(block - V3__Id_sequences.ALLOCATION_SIZE + 1).isGreaterThan(120);
+
+                // Ancienne instance (IDENTITY) : la base attribue l'identifiant depuis la même séquence
+                long legacyId = single(statement, "INSERT INTO habit (title) VALUES ('ancienne') RETURNING id");
+                assertThat(legacyId).isGreaterThan(block);
+                assertThat(single(statement, "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = '"
+                        + SCHEMA + "' AND table_name = 'habit' AND column_name = 'id' AND is_identity = 'YES'")).isZero();
+
+                assertThat(single(statement, "INSERT INTO progress (value) VALUES (3.0) RETURNING id"))
+                        .isGreaterThan(single(statement, "SELECT last_value FROM progress_seq") - V3__Id_sequences.ALLOCATION_SIZE);
+                assertThat(columnDefaults(statement)).containsOnly("nextval('habit_seq'::regclass)", "nextval('progress_seq'::regclass)");
+                connection.rollback();
+            } finally {
+                connection.setAutoCommit(true);
+                try (Statement reset = connection.createStatement()) {
+                    reset.execute("RESET search_path");
+                }
+            }
+        }
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private long single(Statement statement, String sql) throws Exception {
+        try (ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private List<String> columnDefaults(Statement statement) throws Exception {
+        List<String> defaults = new ArrayList<>();
+        try (ResultSet result = statement.executeQuery("SELECT column_default FROM information_schema.columns " +
+                "WHERE table_schema = '" + SCHEMA + "' AND column_name = 'id'")) {
+            while (result.next()) {
+                defaults.add(result.getString(1));
+            }
+        }
+        return defaults;
+    }
+}
@@ -0,0 +1,85 @@
+package com.habittracker.migration;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.User;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProgressUniqueHabitDateMigrationTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void duplicateDaysAreMergedAndTheirRollupsRebuilt() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        jdbcTemplate.update("UPDATE habit SET target_value = 5.0 WHERE id = ?", habit.getId());
+
+        jdbcTemplate.execute("ALTER TABLE progress DROP CONSTRAINT " + V4__Progress_unique_habit_date.CONSTRAINT);
+        long kept;
+        try {
+            kept = insert(user.getId(), habit.getId(), DAY, 2.0, "matin", "2025-03-10 08:00:00");
+            insert(user.getId(), habit.getId(), DAY, 3.0, "soir", "2025-03-10 07:00:00");
+            insert(user.getId(), habit.getId(), DAY.plusDays(1), 1.0, null, "2025-03-11 08:00:00");
+
+            // Rollups calculés avant la fusion : deux entrées pour la journée en double
+            jdbcTemplate.update("INSERT INTO daily_habit_rollup (id, habit_id, user_id, date, entry_count, value_sum, " +
+                    "min_value, max_value, target_hits) VALUES (nextval('daily_habit_rollup_seq'), ?, ?, ?, 2, 5.0, 2.0, 3.0, 0)",
+                    habit.getId(), user.getId(), DAY);
+            jdbcTemplate.update("INSERT INTO monthly_user_rollup (id, user_id, month_start, entry_count, value_sum, " +
+                    "min_value, max_value, target_hits) VALUES (nextval('monthly_user_rollup_seq'), ?, ?, 3, 6.0, 1.0, 3.0, 0)",
+                    user.getId(), DAY.withDayOfMonth(1));
+        } finally {
+            migrate();
+        }
+
+        Map<String, Object> merged = jdbcTemplate.queryForMap(
+                "SELECT id, value, note, created_at FROM progress WHERE habit_id = ? AND date = ?", habit.getId(), DAY);
+        assertThat(merged.get("id")).isEqualTo(kept);
+        assertThat(merged.get("value")).isEqualTo(5.0);
+        assertThat(merged.get("note")).isEqualTo("matin | soir");
+        assertThat(merged.get("created_at").toString()).startsWith("2025-03-10 07:00");
+
+        Map<String, Object> daily = jdbcTemplate.queryForMap("SELECT entry_count, value_sum, min_value, max_value, target_hits " +
+                "FROM daily_habit_rollup WHERE habit_id = ? AND date = ?", habit.getId(), DAY);
+        assertThat(daily).containsEntry("entry_count", 1L).containsEntry("value_sum", 5.0)
+                .containsEntry("min_value", 5.0).containsEntry("max_value", 5.0).containsEntry("target_hits", 1L);
+
+        Map<String, Object> monthly = jdbcTemplate.queryForMap("SELECT entry_count, value_sum, min_value, max_value, target_hits " +
+                "FROM monthly_user_rollup WHERE user_id = ? AND month_start = ?", user.getId(), DAY.withDayOfMonth(1));
+        assertThat(monthly).containsEntry("entry_count", 2L).containsEntry("value_sum", 6.0)
+                .containsEntry("min_value", 1.0).containsEntry("max_value", 5.0).containsEntry("target_hits", 1L);
+
+        assertThatThrownBy(() -> insert(user.getId(), habit.getId(), DAY, 1.0, null, "2025-03-10 09:00:00"))
+                .hasMessageContaining(V4__Progress_unique_habit_date.CONSTRAINT);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private long insert(Long userId, Long habitId, LocalDate date, double value, String note, String createdAt) {
+        return jdbcTemplate.queryForObject("INSERT INTO progress (id, user_id, habit_id, date, value, note, created_at) " +
+                        "VALUES (nextval('progress_seq'), ?, ?, ?, ?, ?, CAST(? AS timestamp)) RETURNING id",
+                Long.class, userId, habitId, date, value, note, createdAt);
+    }
+
+    private void migrate() throws Exception {
+        // Exécutée dans une transaction, comme par Flyway
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            Context context = mock(Context.class);
+            when(context.getConnection()).thenReturn(connection);
+            new V4__Progress_unique_habit_date().migrate(context);
+            connection.commit();
+        }
+    }
+}
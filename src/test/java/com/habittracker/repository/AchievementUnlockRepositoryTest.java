@@ -0,0 +1,83 @@
+package com.habittracker.repository;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Achievement;
+import com.habittracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AchievementUnlockRepositoryTest extends PostgresIntegrationTest {
+
+    private static final int EVALUATIONS = 8;
+
+    @Autowired
+    private AchievementRepository achievementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void alreadyUnlockedAchievementIsNotInsertedAgain() {
+        User user = createUser();
+
+        assertThat(insert(user.getId(), "Premier pas", "Centurion")).hasSize(2);
+        assertThat(insert(user.getId(), "Premier pas", "Marathonien"))
+                .extracting(Achievement::getName).containsExactly("Marathonien");
+
+        assertThat(achievementRepository.findNamesByUserId(user.getId()))
+                .containsExactlyInAnyOrder("Premier pas", "Centurion", "Marathonien");
+    }
+
+    @Test
+    void concurrentUnlocksInsertOnce() {
+        User user = createUser();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(EVALUATIONS);
+        List<CompletableFuture<List<Achievement>>> unlocks = new ArrayList<>();
+        try {
+            for (int i = 0; i < EVALUATIONS; i++) {
+                unlocks.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return insert(user.getId(), "Premier pas");
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(unlocks.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(unlocks).filteredOn(unlock -> !unlock.join().isEmpty()).hasSize(1);
+        assertThat(achievementRepository.countByUserId(user.getId())).isEqualTo(1);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private List<Achievement> insert(Long userId, String... names) {
+        List<Achievement> achievements = new ArrayList<>();
+        for (String name : names) {
+            achievements.add(new Achievement(userId, name, name, "🏆", Achievement.AchievementType.MILESTONE));
+        }
+        return transactionTemplate.execute(status -> achievementRepository.insertIfAbsent(achievements));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.habittracker.repository;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProgressBatchRepositoryTest extends PostgresIntegrationTest {
+
+    // Plus d'une tranche d'INSERT multi-lignes
+    private static final int DAYS = 600;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void daysWrittenConcurrentlyAreSkippedWithoutAbortingTheImport() {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        LocalDate today = LocalDate.now();
+
+        List<Progress> progresses = new ArrayList<>();
+        for (int i = 0; i < DAYS; i++) {
+            progresses.add(new Progress(user.getId(), habit.getId(), today.minusDays(i), 1.0));
+        }
+
+        List<Progress> inserted = transactionTemplate.execute(status -> {
+            // Journées saisies par une autre requête après la lecture des existantes
+            jdbcTemplate.update("INSERT INTO progress (id, user_id, habit_id, date, value, created_at) " +
+                            "VALUES (nextval('progress_seq'), ?, ?, ?, 5.0, now())",
+                    user.getId(), habit.getId(), today);
+            jdbcTemplate.update("INSERT INTO progress (id, user_id, habit_id, date, value, created_at) " +
+                            "VALUES (nextval('progress_seq'), ?, ?, ?, 5.0, now())",
+                    user.getId(), habit.getId(), today.minusDays(550));
+
+            return progressRepository.insertIfAbsent(progresses);
+        });
+
+        assertThat(inserted).hasSize(DAYS - 2)
+                .extracting(Progress::getDate)
+                .doesNotContain(today, today.minusDays(550));
+        assertThat(inserted).allSatisfy(progress -> assertThat(progress.getId()).isNotNull());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress WHERE habit_id = ?",
+                Long.class, habit.getId())).isEqualTo(DAYS);
+        assertThat(jdbcTemplate.queryForObject("SELECT value FROM progress WHERE habit_id = ? AND date = ?",
+                Double.class, habit.getId(), today)).isEqualTo(5.0);
+    }
+}
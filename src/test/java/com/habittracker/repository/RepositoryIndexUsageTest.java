@@ -0,0 +1,139 @@
+package com.habittracker.repository;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Achievement;
+import com.habittracker.entity.Habit;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chaque requête filtrée des dépôts de progression, d'habitudes et d'achievements passe par un index
+ * Plan générique (EXPLAIN GENERIC_PLAN, PostgreSQL 16) avec les parcours séquentiels désactivés :
+ * un "Seq Scan" restant signifie qu'aucun index ne couvre le filtre
+ * Les agrégats sur toute la table (rollups complets, classements, rareté) ne sont pas concernés
+ */
+class RepositoryIndexUsageTest extends PostgresIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 1, 31);
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private AchievementRepository achievementRepository;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseAnIndex() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("progress.findByUserIdAndHabitIdAndDate", () -> progressRepository.findByUserIdAndHabitIdAndDate(1L, 1L, START));
+        queries.put("progress.findByUserId", () -> progressRepository.findByUserId(1L, PageRequest.of(0, 20, Sort.by("date"))));
+        queries.put("progress.findByHabitId", () -> progressRepository.findByHabitId(1L, PageRequest.of(0, 20, Sort.by("date"))));
+        queries.put("progress.findByHabitIdAndDateBetween", () -> progressRepository.findByHabitIdAndDateBetween(1L, START, END));
+        queries.put("progress.findByUserIdAndDateBetween", () -> progressRepository.findByUserIdAndDateBetween(1L, START, END));
+        queries.put("progress.findByUserIdAndDate", () -> progressRepository.findByUserIdAndDate(1L, START));
+        queries.put("progress.findTop30ByHabitIdOrderByDateDesc", () -> progressRepository.findTop30ByHabitIdOrderByDateDesc(1L));
+        queries.put("progress.findTop30ByUserIdOrderByDateDesc", () -> progressRepository.findTop30ByUserIdOrderByDateDesc(1L));
+        queries.put("progress.findTop1ByHabitIdOrderByDateDesc", () -> progressRepository.findTop1ByHabitIdOrderByDateDesc(1L));
+        queries.put("progress.existsByHabitIdAndDate", () -> progressRepository.existsByHabitIdAndDate(1L, START));
+        queries.put("progress.findHabitDates", () -> progressRepository.findHabitDates(List.of(1L, 2L), START, END));
+        queries.put("progress.countByUserId", () -> progressRepository.countByUserId(1L));
+        queries.put("progress.countByHabitId", () -> progressRepository.countByHabitId(1L));
+        queries.put("progress.countByHabitIdAndDateBetween", () -> progressRepository.countByHabitIdAndDateBetween(1L, START, END));
+        queries.put("progress.countByUserIdAndDateAfter", () -> progressRepository.countByUserIdAndDateAfter(1L, START));
+        queries.put("progress.countByDateAfter", () -> progressRepository.countByDateAfter(START));
+        queries.put("progress.findDistinctDatesByHabitId", () -> progressRepository.findDistinctDatesByHabitId(1L));
+        queries.put("progress.findDistinctDatesByUserId", () -> progressRepository.findDistinctDatesByUserId(1L));
+        queries.put("progress.aggregateByHabitIds", () -> progressRepository.aggregateByHabitIds(List.of(1L, 2L), START, END));
+        queries.put("progress.aggregateDailyByHabitId", () -> progressRepository.aggregateDailyByHabitId(1L));
+        queries.put("progress.aggregateDailyByHabitIdAndDate", () -> progressRepository.aggregateDailyByHabitIdAndDate(1L, START));
+        queries.put("progress.aggregateDailyByHabitIdAndDateBetween", () -> progressRepository.aggregateDailyByHabitIdAndDateBetween(1L, START, END));
+        queries.put("progress.aggregateDailyByHabitIdIn", () -> progressRepository.aggregateDailyByHabitIdIn(List.of(1L, 2L)));
+        queries.put("progress.aggregateMonthlyByUserIdIn", () -> progressRepository.aggregateMonthlyByUserIdIn(List.of(1L, 2L)));
+        queries.put("progress.aggregateMonthlyByUserId", () -> progressRepository.aggregateMonthlyByUserId(1L, START, END));
+        queries.put("progress.countDailyActivitySince", () -> progressRepository.countDailyActivitySince(START));
+        queries.put("progress.countDistinctUsersSince", () -> progressRepository.countDistinctUsersSince(START));
+        queries.put("progress.findMostActiveUserIdsSince", () -> progressRepository.findMostActiveUserIdsSince(START, PageRequest.of(0, 10)));
+        queries.put("progress.findHabitIdsByUserIdInSince", () -> progressRepository.findHabitIdsByUserIdInSince(List.of(1L, 2L), START));
+
+        queries.put("habit.findByUserId", () -> habitRepository.findByUserId(1L));
+        queries.put("habit.findByUserIdAndIsActive", () -> habitRepository.findByUserIdAndIsActive(1L, true));
+        queries.put("habit.findByUserIdAndIsActive(page)", () -> habitRepository.findByUserIdAndIsActive(1L, true, PageRequest.of(0, 20)));
+        queries.put("habit.findByUserIdAndCategory", () -> habitRepository.findByUserIdAndCategory(1L, Habit.Category.SPORT, PageRequest.of(0, 20)));
+        queries.put("habit.findByUserIdAndTargetValueIsNotNull", () -> habitRepository.findByUserIdAndTargetValueIsNotNull(1L));
+        queries.put("habit.countByUserIdAndIsActive", () -> habitRepository.countByUserIdAndIsActive(1L, true));
+        queries.put("habit.countDistinctCategoriesByUserId", () -> habitRepository.countDistinctCategoriesByUserId(1L));
+        queries.put("habit.findIdsAfter", () -> habitRepository.findIdsAfter(1L, PageRequest.of(0, 100)));
+        queries.put("habit.findHabitInfoByIdIn", () -> habitRepository.findHabitInfoByIdIn(List.of(1L, 2L)));
+
+        queries.put("achievement.findByUserIdOrderByUnlockedAtDesc", () -> achievementRepository.findByUserIdOrderByUnlockedAtDesc(1L, PageRequest.of(0, 20)));
+        queries.put("achievement.findByUserId", () -> achievementRepository.findByUserId(1L));
+        queries.put("achievement.findByUserIdAndAchievementType", () -> achievementRepository.findByUserIdAndAchievementType(1L, Achievement.AchievementType.STREAK));
+        queries.put("achievement.findByUserIdAndUnlockedAtAfter", () -> achievementRepository.findByUserIdAndUnlockedAtAfter(1L, LocalDateTime.of(2024, 1, 1, 0, 0)));
+        queries.put("achievement.findNamesByUserId", () -> achievementRepository.findNamesByUserId(1L));
+        queries.put("achievement.existsByUserIdAndNameAndAchievementType", () -> achievementRepository.existsByUserIdAndNameAndAchievementType(1L, "Premier pas", Achievement.AchievementType.MILESTONE));
+        queries.put("achievement.countByUserIdAndAchievementType", () -> achievementRepository.countByUserIdAndAchievementType(1L, Achievement.AchievementType.STREAK));
+
+        return queries.entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            List<String> statements = sqlCapture.record(query.getValue());
+            assertThat(statements).as("requêtes émises").isNotEmpty();
+
+            for (String sql : statements) {
+                String plan = explain(sql);
+                assertThat(plan).as("plan de %s", sql).contains("Index").doesNotContain("Seq Scan");
+            }
+        }));
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    /**
+     * Plan générique de la requête (paramètres JDBC ? convertis en $1, $2...)
+     */
+    private String explain(String sql) throws SQLException {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        try (Connection connection = simpleProtocolConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
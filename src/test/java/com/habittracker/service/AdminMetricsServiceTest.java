@@ -0,0 +1,55 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habittracker.repository.AchievementRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminMetricsServiceTest {
+
+    private static final int READERS = 8;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ProgressRepository progressRepository = mock(ProgressRepository.class);
+
+    private final AdminMetricsService adminMetricsService = new AdminMetricsService(userRepository,
+            mock(HabitRepository.class), progressRepository, mock(AchievementRepository.class),
+            mock(StringRedisTemplate.class), new ObjectMapper());
+
+    @Test
+    void coldStartComputesTheSnapshotOnce() {
+        when(progressRepository.countDailyActivitySince(any())).thenAnswer(invocation -> {
+            // Calcul lent : les autres lecteurs arrivent pendant qu'il est en cours
+            Thread.sleep(200);
+            return List.of();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            List<CompletableFuture<?>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(CompletableFuture.runAsync(adminMetricsService::getSnapshot, executor));
+            }
+            CompletableFuture.allOf(readers.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(userRepository, times(1)).count();
+    }
+}
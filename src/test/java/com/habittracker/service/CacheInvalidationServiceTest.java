@@ -0,0 +1,50 @@
+package com.habittracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheInvalidationServiceTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+
+    private final CacheInvalidationService cacheInvalidationService = new CacheInvalidationService(
+            stringRedisTemplate, mock(RedisConnectionFactory.class), new ObjectMapper());
+
+    @Test
+    void failedBatchIsPublishedOnNextFlush() {
+        when(stringRedisTemplate.convertAndSend(eq("cache:invalidation"), anyString()))
+                .thenThrow(new RedisConnectionFailureException("Redis indisponible"))
+                .thenReturn(1L);
+
+        cacheInvalidationService.publishKey("habit:stats:42");
+        cacheInvalidationService.publishPrefix("user:stats:7");
+
+        cacheInvalidationService.flush();
+        cacheInvalidationService.flush();
+
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq("cache:invalidation"), contains("habit:stats:42"));
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq("cache:invalidation"), contains("user:stats:7"));
+    }
+
+    @Test
+    void publishedBatchIsNotSentTwice() {
+        cacheInvalidationService.publishKey("habit:stats:42");
+        cacheInvalidationService.flush();
+        cacheInvalidationService.flush();
+
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq("cache:invalidation"), anyString());
+        verify(stringRedisTemplate, never()).convertAndSend(eq("cache:invalidation"), contains("user:"));
+    }
+}
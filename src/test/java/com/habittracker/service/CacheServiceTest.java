@@ -0,0 +1,80 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.config.CacheSpec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void habitGenerationIsBumpedOnlyAfterCommit() {
+        Long habitId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+        long before = cacheService.getHabitGeneration(habitId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheService.evictProgressCaches(habitId, 1L);
+            // Avant le commit, les lecteurs doivent encore voir l'ancienne génération
+            assertThat(cacheService.getHabitGeneration(habitId)).isEqualTo(before);
+        });
+        assertThat(cacheService.getHabitGeneration(habitId)).isEqualTo(before + 1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheService.evictHabitCaches(habitId);
+            status.setRollbackOnly();
+        });
+        assertThat(cacheService.getHabitGeneration(habitId)).isEqualTo(before + 1);
+    }
+
+    @Test
+    void refreshDoesNotJoinAnInFlightLoad() throws Exception {
+        String key = CacheSpec.HABIT_STATS.getKeyPrefix() + "refresh-test:" + System.nanoTime();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map> reader = CompletableFuture.supplyAsync(() ->
+                cacheService.getOrLoad(key, Map.class, CacheSpec.HABIT_STATS.getTtl(), () -> {
+                    loading.countDown();
+                    await(release);
+                    return Map.of("value", "before");
+                }));
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // Le lecteur a commencé avant l'écriture : le rafraîchissement calcule sa propre valeur
+            Map refreshed = CompletableFuture.supplyAsync(() ->
+                            cacheService.refresh(key, Map.class, CacheSpec.HABIT_STATS.getTtl(),
+                                    () -> Map.of("value", "after")))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(refreshed).containsEntry("value", "after");
+        } finally {
+            release.countDown();
+        }
+        reader.get(10, TimeUnit.SECONDS);
+        cacheService.evictAll(List.of(key));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChartStatisticsIntegrationServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ChartStatisticsIntegrationService chartStatisticsIntegrationService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Test
+    void habitStatisticsAreServedFromCacheUntilTheHabitIsInvalidated() {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        // Base neuve à chaque exécution mais Redis conservé : ignorer les entrées d'une exécution précédente
+        cacheService.bumpHabitGeneration(habit.getId());
+
+        assertThat(chartStatisticsIntegrationService.getHabitStatistics(habit.getId(), 30))
+                .containsEntry("habitTitle", habit.getTitle());
+
+        // Écriture directe en base, sans invalidation : la valeur en cache reste servie
+        jdbcTemplate.update("UPDATE habit SET title = ? WHERE id = ?", "Natation", habit.getId());
+        assertThat(chartStatisticsIntegrationService.getHabitStatistics(habit.getId(), 30))
+                .containsEntry("habitTitle", habit.getTitle());
+
+        cacheService.evictHabitAndUserCaches(habit.getId(), user.getId());
+        assertThat(chartStatisticsIntegrationService.getHabitStatistics(habit.getId(), 30))
+                .containsEntry("habitTitle", "Natation");
+    }
+
+    @Test
+    void userViewsAreInvalidatedWithTheDashboard() {
+        User user = createUser();
+        createHabit(user.getId());
+
+        assertThat(chartStatisticsIntegrationService.getUserStatistics(user.getId(), 30))
+                .containsEntry("totalHabits", 1L);
+        assertThat(chartStatisticsIntegrationService.getCompleteUserDashboard(user.getId(), 30))
+                .containsKeys("statistics", "trends", "comparison");
+
+        createHabit(user.getId());
+        assertThat(chartStatisticsIntegrationService.getUserStatistics(user.getId(), 30))
+                .containsEntry("totalHabits", 1L);
+
+        cacheService.evictUserCaches(user.getId());
+        assertThat(chartStatisticsIntegrationService.getUserStatistics(user.getId(), 30))
+                .containsEntry("totalHabits", 2L);
+    }
+}
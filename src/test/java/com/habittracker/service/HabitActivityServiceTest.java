@@ -0,0 +1,81 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.entity.User;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.util.ActivityBitmap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HabitActivityServiceTest extends PostgresIntegrationTest {
+
+    private static final int DAYS = 8;
+
+    @Autowired
+    private HabitActivityService habitActivityService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentMarksOnOneBitmapAreAllKept() {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        LocalDate today = LocalDate.now();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(DAYS);
+        try {
+            List<CompletableFuture<Void>> marks = new ArrayList<>();
+            for (int i = 0; i < DAYS; i++) {
+                LocalDate date = today.minusDays(i);
+                marks.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Progress progress = new Progress(user.getId(), habit.getId(), date, 1.0);
+                        progress.setCreatedAt(LocalDateTime.now());
+                        progressRepository.save(progress);
+                        habitActivityService.markActive(habit.getId(), date);
+                    });
+                }, executor));
+            }
+
+            // Aucun bitmap au départ : toutes les transactions le créent en même temps
+            start.countDown();
+            CompletableFuture.allOf(marks.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        ActivityBitmap bitmap = habitActivityService.getBitmap(habit.getId());
+        for (int i = 0; i < DAYS; i++) {
+            assertThat(bitmap.get(today.minusDays(i))).as("jour J-%d", i).isTrue();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
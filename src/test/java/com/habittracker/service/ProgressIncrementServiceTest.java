@@ -0,0 +1,278 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.dto.progress.ProgressIncrementRequest;
+import com.habittracker.dto.progress.ProgressResponse;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.ProgressIncrementBatch;
+import com.habittracker.entity.ProgressIncrementDeadLetter;
+import com.habittracker.entity.User;
+import com.habittracker.exception.IncrementBufferFullException;
+import com.habittracker.repository.ProgressIncrementBatchRepository;
+import com.habittracker.repository.ProgressIncrementDeadLetterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProgressIncrementServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private static final Authentication ADMIN = new UsernamePasswordAuthenticationToken(
+            "admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private ProgressIncrementBatchRepository batchRepository;
+
+    @Autowired
+    private ProgressIncrementDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private UserSecurityService userSecurityService;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StreakService streakService;
+
+    @TempDir
+    private Path logDir;
+
+    @TempDir
+    private Path otherLogDir;
+
+    @Test
+    void segmentsAlreadyAppliedAreNotReplayed() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+
+        String applied = UUID.randomUUID().toString();
+        String pending = UUID.randomUUID().toString();
+        String orphanCarry = UUID.randomUUID().toString();
+        Files.writeString(segment(applied), line(habit, 2.0));
+        Files.writeString(segment(pending), line(habit, 3.0));
+        // Report d'une reprise dont la transaction n'a pas abouti : son contenu est déjà dans « pending »
+        Files.writeString(segment(orphanCarry), "#after;" + pending + "\n" + line(habit, 3.0));
+        batchRepository.save(new ProgressIncrementBatch(applied, LocalDateTime.now()));
+
+        ProgressIncrementService service = service(logDir, 100);
+        service.flush();
+
+        assertThat(progressValue(habit)).isEqualTo(3.0);
+        assertThat(batchRepository.existsById(pending)).isTrue();
+        assertThat(segmentFiles(logDir)).hasSize(1);
+        service.shutdown();
+    }
+
+    @Test
+    void pendingIncrementsOfOtherNodesAreVisible() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        ProgressIncrementService writer = service(logDir, 100);
+        ProgressIncrementService reader = service(otherLogDir, 100);
+
+        writer.increment(habit.getId(), request(2.0), ADMIN);
+        assertThat(reader.increment(habit.getId(), request(1.0), ADMIN).getPendingValue()).isEqualTo(3.0);
+
+        ProgressResponse stored = ProgressResponse.builder()
+                .userId(user.getId()).habitId(habit.getId()).date(DAY).value(10.0).build();
+        assertThat(writer.withPending(stored).getValue()).isEqualTo(13.0);
+        assertThat(reader.withPending(user.getId(), DAY, List.of())).singleElement()
+                .extracting(ProgressResponse::getValue).isEqualTo(3.0);
+
+        // Écrit en base par le premier : il n'apparaît plus comme en attente chez le second
+        writer.flush();
+        assertThat(reader.withPending(stored).getValue()).isEqualTo(11.0);
+
+        reader.flush();
+        assertThat(progressValue(habit)).isEqualTo(3.0);
+        writer.shutdown();
+        reader.shutdown();
+    }
+
+    @Test
+    void newDaysAreRefusedWhenTheBufferIsFull() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        ProgressIncrementService service = service(logDir, 1);
+
+        service.increment(habit.getId(), request(1.0), ADMIN);
+        service.increment(habit.getId(), request(1.0), ADMIN);
+        assertThatThrownBy(() -> service.increment(habit.getId(), ProgressIncrementRequest.builder()
+                .date(DAY.plusDays(1)).delta(1.0).build(), ADMIN))
+                .isInstanceOf(IncrementBufferFullException.class);
+
+        service.flush();
+        assertThat(progressValue(habit)).isEqualTo(2.0);
+        service.shutdown();
+    }
+
+    @Test
+    void concurrentIncrementsShareTheirFsync() throws Exception {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        ProgressIncrementService service = service(logDir, 100);
+
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                done.add(writers.submit(() -> service.increment(habit.getId(), request(1.0), ADMIN)));
+            }
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertThat(Files.readAllLines(segmentFiles(logDir).get(0))).hasSize(400);
+        service.flush();
+        assertThat(progressValue(habit)).isEqualTo(400.0);
+        service.shutdown();
+    }
+
+    @Test
+    void failedBatchIsRetriedKeyByKey() throws Exception {
+        User user = createUser();
+        Habit valid = createHabit(user.getId());
+        Habit rejected = createHabit(user.getId());
+        Habit locked = createHabit(user.getId());
+        Habit deleted = createHabit(user.getId());
+        ProgressIncrementService service = service(logDir, 100);
+
+        for (Habit habit : List.of(valid, rejected, locked, deleted)) {
+            service.increment(habit.getId(), request(1.0), ADMIN);
+        }
+        jdbcTemplate.update("DELETE FROM habit WHERE id = ?", deleted.getId());
+
+        // Refus définitif pour une habitude, interblocage (échec passager) pour une autre
+        jdbcTemplate.execute("CREATE FUNCTION reject_increments() RETURNS trigger AS $$ BEGIN " +
+                "IF NEW.habit_id = " + rejected.getId() + " THEN RAISE EXCEPTION 'valeur refusée'; END IF; " +
+                "IF NEW.habit_id = " + locked.getId() + " THEN RAISE EXCEPTION 'interblocage' USING ERRCODE = '40P01'; END IF; " +
+                "RETURN NEW; END $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("CREATE TRIGGER reject_increments BEFORE INSERT OR UPDATE ON progress " +
+                "FOR EACH ROW EXECUTE FUNCTION reject_increments()");
+        try {
+            service.flush();
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER reject_increments ON progress");
+            jdbcTemplate.execute("DROP FUNCTION reject_increments()");
+        }
+
+        assertThat(progressValue(valid)).isEqualTo(1.0);
+        assertThat(deadLetterRepository.findByUserId(user.getId()))
+                .extracting(ProgressIncrementDeadLetter::getHabitId)
+                .containsExactlyInAnyOrder(rejected.getId(), deleted.getId());
+
+        // Échec passager remis en attente et journalisé à part : rejoué par un redémarrage, écrit une seule fois
+        assertThat(service.pendingDelta(locked.getId(), DAY)).isEqualTo(1.0);
+        service.shutdown();
+        ProgressIncrementService restarted = service(logDir, 100);
+        restarted.flush();
+        assertThat(progressValue(locked)).isEqualTo(1.0);
+        assertThat(progressValue(valid)).isEqualTo(1.0);
+        restarted.shutdown();
+    }
+
+    @Test
+    void flushRecordsNewlyActiveDaysInStreaks() throws Exception {
+        User user = createUser();
+        Habit running = createHabit(user.getId());
+        Habit reading = createHabit(user.getId());
+        ProgressIncrementService service = service(logDir, 100);
+
+        service.increment(running.getId(), request(DAY.minusDays(2), 1.0), ADMIN);
+        service.increment(reading.getId(), request(DAY.minusDays(1), 1.0), ADMIN);
+        service.flush();
+        assertThat(streakService.getUserLongestStreak(user.getId())).isEqualTo(2);
+
+        // Journée déjà active, journée suivante et journée rétroactive dans le même lot
+        service.increment(reading.getId(), request(DAY.minusDays(1), 1.0), ADMIN);
+        service.increment(running.getId(), request(DAY, 1.0), ADMIN);
+        service.increment(running.getId(), request(DAY.minusDays(3), 1.0), ADMIN);
+        service.flush();
+
+        assertThat(streakService.getUserLongestStreak(user.getId())).isEqualTo(4);
+        assertThat(longestStreak(running)).isEqualTo(2);
+        assertThat(longestStreak(reading)).isEqualTo(1);
+        service.shutdown();
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private ProgressIncrementService service(Path directory, int capacity) throws Exception {
+        ProgressIncrementService service = new ProgressIncrementService(progressService, habitRepository,
+                batchRepository, userSecurityService, cacheService, stringRedisTemplate, eventPublisher,
+                transactionManager, directory.toString(), 1000, capacity, true, 60);
+        service.recover();
+        return service;
+    }
+
+    private ProgressIncrementRequest request(double delta) {
+        return request(DAY, delta);
+    }
+
+    private ProgressIncrementRequest request(LocalDate date, double delta) {
+        return ProgressIncrementRequest.builder().date(date).delta(delta).build();
+    }
+
+    private String line(Habit habit, double delta) {
+        return habit.getId() + ";" + habit.getUserId() + ";" + DAY + ";" + delta + "\n";
+    }
+
+    private Path segment(String id) {
+        return logDir.resolve("increments-" + id + ".log");
+    }
+
+    private List<Path> segmentFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    private Integer longestStreak(Habit habit) {
+        return jdbcTemplate.queryForObject("SELECT longest_streak FROM streaks WHERE scope = 'HABIT' AND owner_id = ?",
+                Integer.class, habit.getId());
+    }
+
+    private Double progressValue(Habit habit) {
+        return jdbcTemplate.queryForObject("SELECT value FROM progress WHERE habit_id = ? AND date = ?",
+                Double.class, habit.getId(), DAY);
+    }
+}
@@ -0,0 +1,125 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.DailyHabitRollup;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.entity.User;
+import com.habittracker.repository.ProgressRepository;
+import com.habittracker.repository.projection.MonthlyProgressAggregate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate MONTH = LocalDate.of(2024, 3, 1);
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rebuildAllAggregatesEveryHabitAndUser() {
+        User user = createUser();
+        Habit running = createHabit(user.getId());
+        Habit reading = createHabit(user.getId());
+
+        save(running, MONTH, 2.0);
+        save(running, MONTH.plusDays(1), 4.0);
+        save(reading, MONTH, 10.0);
+        save(reading, MONTH.plusMonths(1), 6.0);
+
+        rollupService.rebuildAll();
+
+        List<DailyHabitRollup> runningDays = rollupService.getHabitDailyRollups(
+                running.getId(), MONTH, MONTH.plusMonths(2));
+        assertThat(runningDays).extracting(DailyHabitRollup::getDate).containsExactly(MONTH, MONTH.plusDays(1));
+        assertThat(runningDays).extracting(DailyHabitRollup::getValueSum).containsExactly(2.0, 4.0);
+
+        List<MonthlyProgressAggregate> months = rollupService.getUserMonthlyAggregates(
+                user.getId(), MONTH, MONTH.plusMonths(1));
+        assertThat(months).extracting(MonthlyProgressAggregate::count).containsExactly(3L, 1L);
+        assertThat(months).extracting(MonthlyProgressAggregate::sumValue).containsExactly(16.0, 6.0);
+    }
+
+    @Test
+    void concurrentWritesOfOneUserAreAllAggregated() {
+        User user = createUser();
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            habits.add(createHabit(user.getId()));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                Habit habit = habits.get(i);
+                LocalDate date = MONTH.plusDays(i);
+                boolean incremental = i % 2 == 0;
+                writes.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Progress progress = save(habit, date, 1.0);
+                        progressRepository.flush();
+                        // Création unitaire ou recalcul d'un lot d'incréments, sur le même mois
+                        if (incremental) {
+                            rollupService.recordProgress(progress, null);
+                        } else {
+                            rollupService.refreshDays(habit.getId(), user.getId(), List.of(date));
+                            rollupService.refreshMonths(user.getId(), List.of(date));
+                        }
+                    });
+                }, executor));
+            }
+
+            // Premier compartiment du mois : toutes les transactions le créent ou le modifient en même temps
+            start.countDown();
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(rollupService.getUserMonthlyAggregates(user.getId(), MONTH, MONTH)).singleElement()
+                .satisfies(month -> {
+                    assertThat(month.count()).isEqualTo(WRITERS);
+                    assertThat(month.sumValue()).isEqualTo(WRITERS * 1.0);
+                });
+        assertThat(rollupService.getUserDailyRollups(user.getId(), MONTH, MONTH.plusMonths(1))).hasSize(WRITERS);
+    }
+
+    private Progress save(Habit habit, LocalDate date, double value) {
+        Progress progress = new Progress(habit.getUserId(), habit.getId(), date, value);
+        progress.setCreatedAt(LocalDateTime.now());
+        return progressRepository.save(progress);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
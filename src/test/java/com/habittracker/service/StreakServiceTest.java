@@ -0,0 +1,110 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.entity.User;
+import com.habittracker.repository.ProgressRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreakServiceTest extends PostgresIntegrationTest {
+
+    private static final int DAYS = 8;
+
+    @Autowired
+    private StreakService streakService;
+
+    @Autowired
+    private HabitActivityService habitActivityService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentActivitiesOfOneUserAreAllCounted() throws Exception {
+        User user = createUser();
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < DAYS; i++) {
+            habits.add(createHabit(user.getId()));
+        }
+
+        LocalDate today = LocalDate.now();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(DAYS);
+        try {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < DAYS; i++) {
+                Habit habit = habits.get(i);
+                LocalDate date = today.minusDays(i);
+                writes.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    transactionTemplate.executeWithoutResult(status -> record(habit, date));
+                }, executor));
+            }
+
+            // Première écriture de l'utilisateur : toutes les transactions créent son index en même temps
+            start.countDown();
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(streakService.getUserCurrentStreak(user.getId())).isEqualTo(DAYS);
+        assertThat(streakService.getUserLongestStreak(user.getId())).isEqualTo(DAYS);
+    }
+
+    @Test
+    void startupRebuildsStaleStreaks() {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        LocalDate today = LocalDate.now();
+
+        transactionTemplate.executeWithoutResult(status -> record(habit, today.minusDays(1)));
+
+        // Progression écrite sans passer par le service : l'index ne la connaît pas
+        Progress progress = new Progress(user.getId(), habit.getId(), today, 1.0);
+        progress.setCreatedAt(LocalDateTime.now());
+        progressRepository.save(progress);
+        habitActivityService.rebuild(habit.getId());
+
+        streakService.run();
+
+        assertThat(streakService.getHabitCurrentStreak(habit.getId())).isEqualTo(2);
+        assertThat(streakService.getUserCurrentStreak(user.getId())).isEqualTo(2);
+    }
+
+    // === MÉTHODES PRIVÉES ===
+
+    private void record(Habit habit, LocalDate date) {
+        Progress progress = new Progress(habit.getUserId(), habit.getId(), date, 1.0);
+        progress.setCreatedAt(LocalDateTime.now());
+        progressRepository.save(progress);
+        habitActivityService.markActive(habit.getId(), date);
+        streakService.recordActivity(habit.getId(), habit.getUserId(), date);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.habittracker.service;
+
+import com.habittracker.PostgresIntegrationTest;
+import com.habittracker.entity.Habit;
+import com.habittracker.entity.Progress;
+import com.habittracker.entity.User;
+import com.habittracker.entity.UserMetrics;
+import com.habittracker.repository.ProgressRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMetricsServiceTest extends PostgresIntegrationTest {
+
+    private static final int WRITERS = 8;
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private UserMetricsService userMetricsService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstWritesCreateASingleRow() {
+        User user = createUser();
+        List<Habit> habits = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            habits.add(createHabit(user.getId()));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (Habit habit : habits) {
+                writes.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        save(habit);
+                        userMetricsService.recordProgress(user.getId(), 1);
+                    });
+                }, executor));
+            }
+
+            // Aucune ligne de compteurs : toutes les transactions la créent en même temps
+            start.countDown();
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(userMetricsService.getMetrics(user.getId()).getProgressCount()).isEqualTo(WRITERS);
+    }
+
+    @Test
+    void habitCountsDoNotOverwriteTheProgressCount() {
+        User user = createUser();
+        Habit habit = createHabit(user.getId());
+        transactionTemplate.executeWithoutResult(status -> userMetricsService.rebuild(user.getId()));
+
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Compteur de progressions incrémenté par une autre transaction après le chargement des compteurs
+        transactionTemplate.executeWithoutResult(status -> {
+            UserMetrics loaded = userMetricsService.getMetrics(user.getId());
+            concurrent.executeWithoutResult(inner -> {
+                save(habit);
+                userMetricsService.recordProgress(user.getId(), 1);
+            });
+            createHabit(user.getId());
+            userMetricsService.refreshHabitCounts(loaded.getUserId());
+        });
+
+        UserMetrics metrics = userMetricsService.getMetrics(user.getId());
+        assertThat(metrics.getProgressCount()).isEqualTo(1);
+        assertThat(metrics.getActiveHabitCount()).isEqualTo(2);
+    }
+
+    private void save(Habit habit) {
+        Progress progress = new Progress(habit.getUserId(), habit.getId(), DAY, 1.0);
+        progress.setCreatedAt(LocalDateTime.now());
+        progressRepository.saveAndFlush(progress);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}